@@ -0,0 +1,102 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.support.WaitStrategyType;
+import com.lmax.disruptor.util.ThreadHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handoff of events from a producer on the benchmark thread to a {@link BatchEventProcessor} on a thread of its
+ * own, for each {@link WaitStrategyType}.  Throughput is limited by the processor through back pressure, and the
+ * round trip is the time from publishing one event to seeing it processed.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BatchEventProcessorBenchmark
+{
+    private static final int BUFFER_SIZE = 1 << 14;
+
+    @Param
+    public WaitStrategyType waitStrategyType;
+
+    private final Long value = 42L;
+    private RingBuffer<LongEvent> ringBuffer;
+    private BatchEventProcessor<LongEvent> processor;
+    private Sequence processorSequence;
+    private Thread thread;
+
+    @Setup
+    public void setup()
+    {
+        ringBuffer = RingBuffer.createSingleProducer(LongEvent.FACTORY, BUFFER_SIZE, waitStrategyType.newInstance());
+        processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new LongEvent.SinkHandler());
+        processorSequence = processor.getSequence();
+        ringBuffer.addGatingSequences(processorSequence);
+
+        thread = new Thread(processor, "processor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        processor.halt();
+        thread.join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void publishThroughput()
+    {
+        ringBuffer.publishEvent(LongEvent.TRANSLATOR, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long roundTrip()
+    {
+        final long sequence = ringBuffer.next();
+        ringBuffer.publish(sequence);
+        while (processorSequence.get() < sequence)
+        {
+            ThreadHints.onSpinWait();
+        }
+
+        return sequence;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+
+/**
+ * Event used by the benchmarks, holding a single long.
+ */
+public final class LongEvent
+{
+    public static final EventFactory<LongEvent> FACTORY = new EventFactory<LongEvent>()
+    {
+        @Override
+        public LongEvent newInstance()
+        {
+            return new LongEvent();
+        }
+    };
+
+    public static final EventTranslatorOneArg<LongEvent, Long> TRANSLATOR =
+        new EventTranslatorOneArg<LongEvent, Long>()
+        {
+            @Override
+            public void translateTo(final LongEvent event, final long sequence, final Long value)
+            {
+                event.value = value;
+            }
+        };
+
+    /**
+     * Handler that only reads the event, so a benchmark measures the handoff rather than the handling.
+     */
+    public static final class SinkHandler implements EventHandler<LongEvent>
+    {
+        private long sum;
+
+        @Override
+        public void onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+        {
+            sum += event.value;
+        }
+
+        public long getSum()
+        {
+            return sum;
+        }
+    }
+
+    private long value;
+
+    public long getValue()
+    {
+        return value;
+    }
+
+    public void setValue(final long value)
+    {
+        this.value = value;
+    }
+}
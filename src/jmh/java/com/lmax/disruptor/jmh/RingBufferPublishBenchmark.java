@@ -0,0 +1,161 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventTranslator;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.EventTranslatorVararg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each way of publishing an event to a {@link RingBuffer}, with no consumers so publishing never waits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RingBufferPublishBenchmark
+{
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final int BATCH_SIZE = 16;
+
+    private static final EventTranslator<LongEvent> TRANSLATOR = new EventTranslator<LongEvent>()
+    {
+        @Override
+        public void translateTo(final LongEvent event, final long sequence)
+        {
+            event.setValue(sequence);
+        }
+    };
+
+    private static final EventTranslatorTwoArg<LongEvent, Long, Long> TWO_ARG_TRANSLATOR =
+        new EventTranslatorTwoArg<LongEvent, Long, Long>()
+        {
+            @Override
+            public void translateTo(final LongEvent event, final long sequence, final Long arg0, final Long arg1)
+            {
+                event.setValue(arg0 + arg1);
+            }
+        };
+
+    private static final EventTranslatorThreeArg<LongEvent, Long, Long, Long> THREE_ARG_TRANSLATOR =
+        new EventTranslatorThreeArg<LongEvent, Long, Long, Long>()
+        {
+            @Override
+            public void translateTo(
+                final LongEvent event, final long sequence, final Long arg0, final Long arg1, final Long arg2)
+            {
+                event.setValue(arg0 + arg1 + arg2);
+            }
+        };
+
+    private static final EventTranslatorVararg<LongEvent> VARARG_TRANSLATOR = new EventTranslatorVararg<LongEvent>()
+    {
+        @Override
+        public void translateTo(final LongEvent event, final long sequence, final Object... args)
+        {
+            event.setValue((Long) args[0]);
+        }
+    };
+
+    @Param({"SINGLE", "MULTI"})
+    public ProducerType producerType;
+
+    private final Long value = 42L;
+    private final Long[] values = new Long[BATCH_SIZE];
+    private RingBuffer<LongEvent> ringBuffer;
+
+    @Setup
+    public void setup()
+    {
+        ringBuffer = RingBuffer.create(producerType, LongEvent.FACTORY, BUFFER_SIZE, new BusySpinWaitStrategy());
+        for (int i = 0; i < BATCH_SIZE; i++)
+        {
+            values[i] = (long) i;
+        }
+    }
+
+    @Benchmark
+    public long nextGetPublish()
+    {
+        final long sequence = ringBuffer.next();
+        ringBuffer.get(sequence).setValue(sequence);
+        ringBuffer.publish(sequence);
+        return sequence;
+    }
+
+    @Benchmark
+    public void publishEvent()
+    {
+        ringBuffer.publishEvent(TRANSLATOR);
+    }
+
+    @Benchmark
+    public void publishEventOneArg()
+    {
+        ringBuffer.publishEvent(LongEvent.TRANSLATOR, value);
+    }
+
+    @Benchmark
+    public void publishEventTwoArg()
+    {
+        ringBuffer.publishEvent(TWO_ARG_TRANSLATOR, value, value);
+    }
+
+    @Benchmark
+    public void publishEventThreeArg()
+    {
+        ringBuffer.publishEvent(THREE_ARG_TRANSLATOR, value, value, value);
+    }
+
+    @Benchmark
+    public void publishEventVararg()
+    {
+        ringBuffer.publishEvent(VARARG_TRANSLATOR, value);
+    }
+
+    @Benchmark
+    public boolean tryPublishEvent()
+    {
+        return ringBuffer.tryPublishEvent(LongEvent.TRANSLATOR, value);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void publishEventsOneArg()
+    {
+        ringBuffer.publishEvents(LongEvent.TRANSLATOR, values);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.MultiProducerSequencer;
+import com.lmax.disruptor.Sequencer;
+import com.lmax.disruptor.SingleProducerSequencer;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of claiming and publishing sequences, with no gating sequences so the claim never has to wait.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SequencerBenchmark
+{
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final int BATCH_SIZE = 16;
+
+    @Param({"SINGLE", "MULTI"})
+    public ProducerType producerType;
+
+    private Sequencer sequencer;
+
+    @Setup
+    public void setup()
+    {
+        sequencer = producerType == ProducerType.SINGLE ?
+            new SingleProducerSequencer(BUFFER_SIZE, new BusySpinWaitStrategy()) :
+            new MultiProducerSequencer(BUFFER_SIZE, new BusySpinWaitStrategy());
+    }
+
+    @Benchmark
+    public long claimAndPublish()
+    {
+        final long sequence = sequencer.next();
+        sequencer.publish(sequence);
+        return sequence;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long batchClaimAndPublish()
+    {
+        final long hi = sequencer.next(BATCH_SIZE);
+        sequencer.publish(hi - (BATCH_SIZE - 1), hi);
+        return hi;
+    }
+
+    @Benchmark
+    public long tryClaimAndPublish() throws InsufficientCapacityException
+    {
+        final long sequence = sequencer.tryNext();
+        sequencer.publish(sequence);
+        return sequence;
+    }
+
+    @Benchmark
+    public boolean isAvailable()
+    {
+        return sequencer.isAvailable(sequencer.getCursor());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the minimum of the gating sequences, done by producers whenever their cached minimum is stale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UtilBenchmark
+{
+    @Param({"1", "2", "4", "8", "16"})
+    public int sequenceCount;
+
+    private Sequence[] sequences;
+
+    @Setup
+    public void setup()
+    {
+        sequences = new Sequence[sequenceCount];
+        for (int i = 0; i < sequenceCount; i++)
+        {
+            sequences[i] = new Sequence(1000L + (i * 7L) % sequenceCount);
+        }
+    }
+
+    @Benchmark
+    public long getMinimumSequence()
+    {
+        return Util.getMinimumSequence(sequences);
+    }
+
+    @Benchmark
+    public long getMinimumSequenceWithCursor()
+    {
+        return Util.getMinimumSequence(sequences, 1000L);
+    }
+}
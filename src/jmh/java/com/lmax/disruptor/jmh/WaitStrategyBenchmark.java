@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.jmh;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.support.WaitStrategyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead each {@link WaitStrategy} adds when nobody has to wait: a consumer waiting for an event that is
+ * already available, and a publisher signalling when no consumer is blocked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class WaitStrategyBenchmark
+{
+    @Param
+    public WaitStrategyType waitStrategyType;
+
+    private WaitStrategy waitStrategy;
+    private SequenceBarrier barrier;
+    private long availableSequence;
+
+    @Setup
+    public void setup()
+    {
+        waitStrategy = waitStrategyType.newInstance();
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, waitStrategy);
+        availableSequence = ringBuffer.next();
+        ringBuffer.publish(availableSequence);
+        barrier = ringBuffer.newBarrier();
+    }
+
+    @Benchmark
+    public long waitForAvailable() throws AlertException, InterruptedException, TimeoutException
+    {
+        return barrier.waitFor(availableSequence);
+    }
+
+    @Benchmark
+    public void signalWithoutWaiters()
+    {
+        waitStrategy.signalAllWhenBlocking();
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The lifecycle shared by {@link BatchEventProcessor} and its variants: starting and halting, waiting on the
+ * barrier, timeouts, {@link LifecycleAware} notifications, {@link Agent} hosting, {@link ProcessorMetrics},
+ * {@link LatencyRecorder} and flight recorder events.  Subclasses decide how each available batch is passed to
+ * the {@link EventHandler} by implementing {@link #processBatch(long, long)}.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+abstract class AbstractBatchEventProcessor<T>
+    implements ThreadAwareEventProcessor, Agent
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    ExceptionHandler<? super T> exceptionHandler = new FatalExceptionHandler();
+    final DataProvider<T> dataProvider;
+    final SequenceBarrier sequenceBarrier;
+    final EventHandler<? super T> eventHandler;
+    final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    final BatchStartAware batchStartAware;
+    private final TimeoutHandler timeoutHandler;
+    private ProcessorMetrics metrics;
+    private LatencyRecorder latencyRecorder;
+    private Runnable threadStartHook;
+    private volatile Thread thread;
+
+    AbstractBatchEventProcessor(
+        final DataProvider<T> dataProvider,
+        final SequenceBarrier sequenceBarrier,
+        final EventHandler<? super T> eventHandler)
+    {
+        this.dataProvider = dataProvider;
+        this.sequenceBarrier = sequenceBarrier;
+        this.eventHandler = eventHandler;
+
+        if (eventHandler instanceof SequenceReportingEventHandler)
+        {
+            ((SequenceReportingEventHandler<?>) eventHandler).setSequenceCallback(sequence);
+        }
+
+        batchStartAware =
+            (eventHandler instanceof BatchStartAware) ? (BatchStartAware) eventHandler : null;
+        timeoutHandler =
+            (eventHandler instanceof TimeoutHandler) ? (TimeoutHandler) eventHandler : null;
+    }
+
+    /**
+     * Pass the events from <code>startSequence</code> up to at most <code>availableSequence</code> to the
+     * {@link EventHandler}, handing any exception it throws to {@link #handleEventException(Throwable, long, Object)}.
+     *
+     * @param startSequence     the first available sequence, not yet processed.
+     * @param availableSequence the last available sequence.
+     * @return the last sequence processed, between <code>startSequence</code> and <code>availableSequence</code>.
+     */
+    abstract long processBatch(long startSequence, long availableSequence);
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    @Override
+    public Thread getThread()
+    {
+        return thread;
+    }
+
+    @Override
+    public void setThreadStartHook(final Runnable threadStartHook)
+    {
+        this.threadStartHook = threadStartHook;
+    }
+
+    /**
+     * 设置一个自定义的ExceptionHandler
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link EventHandler}
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Record {@link ProcessorMetrics} for this processor, which must be set before it is started.
+     *
+     * @param metrics to be updated after each batch.
+     */
+    public void setMetrics(final ProcessorMetrics metrics)
+    {
+        metrics.bind(sequence);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Record the latency from publication to this processor completing each event sampled by the ring buffer's
+     * {@link LatencySampler}, which must be set before the processor is started.
+     *
+     * @param latencyRecorder to record this stage's latencies in.
+     * @see RingBuffer#enableLatencySampling(int)
+     */
+    public void setLatencyRecorder(final LatencyRecorder latencyRecorder)
+    {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        //判断是否IDLE状态，并设置为RUNNING状态成功则可以正常启动执行
+        if (running.compareAndSet(IDLE, RUNNING))
+        {
+            thread = Thread.currentThread();
+            if (null != threadStartHook)
+            {
+                threadStartHook.run();
+            }
+            //设置alerted=false
+            sequenceBarrier.clearAlert();
+            //判断EventHandler是否实现LifecycleAware生命周期接口
+            notifyStart();
+            FlightRecorderEvents.processorStarted(eventHandler);
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    //开始处理RingBuffer中的Event数据
+                    processEvents();
+                }
+            }
+            finally
+            {
+                FlightRecorderEvents.processorHalted(eventHandler, sequence.get());
+                //判断EventHandler是否实现LifecycleAware生命周期接口
+                notifyShutdown();
+                //这种当前Processor状态为IDLE
+                running.set(IDLE);
+            }
+        }
+        else
+        {
+            // This is a little bit of guess work.  The running state could of changed to HALTED by
+            // this point.  However, Java does not have compareAndExchange which is the only way
+            // to get it exactly correct.
+            if (running.get() == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                //不处理RingBuffer中的Event数据，直接执行回掉LifecycleAware接口
+                earlyExit();
+            }
+        }
+    }
+
+    /***
+     *
+     * 处理RingBuffer中的Event数据
+     *
+     * @author liyong
+     * @date 18:47 2020-02-03
+     *  * @param
+     * @exception
+     * @return void
+     **/
+    private void processEvents()
+    {
+        //当前Processor的本地sequence初始化为-1，首次执行nextSequence从0开始
+        long nextSequence = sequence.get() + 1L;
+        final ProcessorMetrics metrics = this.metrics;
+
+        while (true)
+        {
+            final long waitStart = null != metrics ? System.nanoTime() : 0L;
+            final long availableSequence;
+            try
+            {
+                //获取或等待一个有效的Sequence，Note：availableSequence是指环上有效的数据位置
+                availableSequence = sequenceBarrier.waitFor(nextSequence);
+            }
+            catch (final TimeoutException e)
+            {
+                //超时回掉，nextSequence不会自增，在收到这种通知的时候需要业务判断是否重复消费数据
+                notifyTimeout(sequence.get());
+                continue;
+            }
+            catch (final AlertException ex)
+            {
+                //回终止消费者继续消费
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+                continue;
+            }
+            catch (final Throwable ex)
+            {
+                //未知异常交个异常处理器，继续执行后面数据操作，由业务来判断数据后续处理
+                handleEventException(ex, nextSequence, null);
+                sequence.set(nextSequence);
+                nextSequence++;
+                continue;
+            }
+
+            //availableSequence >= nextSequence 说明有数据可以消费
+            if (availableSequence >= nextSequence)
+            {
+                nextSequence = onBatch(nextSequence, availableSequence, waitStart) + 1;
+            }
+        }
+    }
+
+    /**
+     * Prepare this processor to be driven via {@link #doWork()} from the calling thread.
+     *
+     * @throws IllegalStateException if this processor is already running.
+     */
+    @Override
+    public void onStart()
+    {
+        if (!running.compareAndSet(IDLE, RUNNING))
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+
+        thread = Thread.currentThread();
+        sequenceBarrier.clearAlert();
+        notifyStart();
+        FlightRecorderEvents.processorStarted(eventHandler);
+    }
+
+    /**
+     * Process the events that are available now, without waiting for more to be published.
+     *
+     * @return the number of events processed.
+     */
+    @Override
+    public int doWork()
+    {
+        if (running.get() != RUNNING)
+        {
+            return 0;
+        }
+
+        final long startSequence = sequence.get() + 1L;
+        // Only call into the barrier once it would not need to wait
+        if (sequenceBarrier.getCursor() < startSequence)
+        {
+            return 0;
+        }
+
+        final long availableSequence;
+        try
+        {
+            availableSequence = sequenceBarrier.waitFor(startSequence);
+        }
+        catch (final TimeoutException e)
+        {
+            notifyTimeout(sequence.get());
+            return 0;
+        }
+        catch (final AlertException ex)
+        {
+            return 0;
+        }
+        catch (final Throwable ex)
+        {
+            handleEventException(ex, startSequence, null);
+            sequence.set(startSequence);
+            return 1;
+        }
+
+        if (availableSequence < startSequence)
+        {
+            return 0;
+        }
+
+        return (int) (onBatch(startSequence, availableSequence, -1L) - startSequence + 1);
+    }
+
+    /**
+     * Complete driving this processor via {@link #doWork()}, after which it may be started again.
+     */
+    @Override
+    public void onShutdown()
+    {
+        FlightRecorderEvents.processorHalted(eventHandler, sequence.get());
+        notifyShutdown();
+        running.set(IDLE);
+    }
+
+    /**
+     * Notify the {@link BatchStartAware} handler, if any, of the number of events about to be delivered.
+     */
+    final void notifyBatchStart(final long startSequence, final long batchSize)
+    {
+        if (batchStartAware != null)
+        {
+            try
+            {
+                batchStartAware.onBatchStart(batchSize);
+            }
+            catch (final Throwable ex)
+            {
+                handleEventException(ex, startSequence, null);
+            }
+        }
+    }
+
+    final void handleEventException(final Throwable ex, final long sequence, final T event)
+    {
+        FlightRecorderEvents.processorException(eventHandler, sequence, ex);
+        exceptionHandler.handleEventException(ex, sequence, event);
+    }
+
+    final void notifyTimeout(final long availableSequence)
+    {
+        try
+        {
+            if (timeoutHandler != null)
+            {
+                timeoutHandler.onTimeout(availableSequence);
+            }
+        }
+        catch (Throwable e)
+        {
+            exceptionHandler.handleEventException(e, availableSequence, null);
+        }
+    }
+
+    final boolean isHalted()
+    {
+        return running.get() != RUNNING;
+    }
+
+    /**
+     * @return whether {@link ProcessorMetrics} or a {@link LatencyRecorder} have been set, which are only updated
+     * when this processor runs its own batches.
+     */
+    final boolean isInstrumented()
+    {
+        return null != metrics || null != latencyRecorder;
+    }
+
+    /**
+     * @param waitStart when the processor started waiting for the batch, or -1 if it did not wait.
+     * @return the last sequence processed.
+     */
+    private long onBatch(final long startSequence, final long availableSequence, final long waitStart)
+    {
+        final ProcessorMetrics metrics = this.metrics;
+        final long handlerStart = null != metrics ? System.nanoTime() : 0L;
+        final Object batchEvent = FlightRecorderEvents.beginBatch(startSequence, availableSequence);
+
+        final long endSequence = processBatch(startSequence, availableSequence);
+
+        // record before releasing the batch, after which the producer may overwrite its publish times
+        final LatencyRecorder latencyRecorder = this.latencyRecorder;
+        if (null != latencyRecorder)
+        {
+            latencyRecorder.onBatch(startSequence, endSequence);
+        }
+        //设置当前消费者Processor的sequence为endSequence位置，注意这里sequence是一直递增的数据
+        sequence.set(endSequence);
+        FlightRecorderEvents.endBatch(batchEvent, eventHandler, startSequence, endSequence);
+
+        if (null != metrics)
+        {
+            final long waitNanos = waitStart < 0 ? 0L : handlerStart - waitStart;
+            metrics.onBatch(endSequence - startSequence + 1, waitNanos, System.nanoTime() - handlerStart);
+        }
+
+        return endSequence;
+    }
+
+    private void earlyExit()
+    {
+        notifyStart();
+        notifyShutdown();
+    }
+
+    /**
+     * Notifies the EventHandler when this processor is starting up
+     */
+    private void notifyStart()
+    {
+        if (eventHandler instanceof LifecycleAware)
+        {
+            try
+            {
+                //执行onStart回掉
+                ((LifecycleAware) eventHandler).onStart();
+            }
+            catch (final Throwable ex)
+            {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    /**
+     * Notifies the EventHandler immediately prior to this processor shutting down
+     */
+    private void notifyShutdown()
+    {
+        if (eventHandler instanceof LifecycleAware)
+        {
+            try
+            {
+                //执行onShutdown回掉
+                ((LifecycleAware) eventHandler).onShutdown();
+            }
+            catch (final Throwable ex)
+            {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+}
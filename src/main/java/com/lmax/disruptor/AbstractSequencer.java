@@ -17,6 +17,7 @@ package com.lmax.disruptor;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import com.lmax.disruptor.util.Util;
 
@@ -29,6 +30,8 @@ public abstract class AbstractSequencer implements Sequencer
 {
     private static final AtomicReferenceFieldUpdater<AbstractSequencer, Sequence[]> SEQUENCE_UPDATER =
         AtomicReferenceFieldUpdater.newUpdater(AbstractSequencer.class, Sequence[].class, "gatingSequences");
+    private static final AtomicReferenceFieldUpdater<AbstractSequencer, WaitStrategy[]> WAIT_STRATEGY_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(AbstractSequencer.class, WaitStrategy[].class, "barrierWaitStrategies");
 
     protected final int bufferSize;
     protected final WaitStrategy waitStrategy;
@@ -36,6 +39,10 @@ public abstract class AbstractSequencer implements Sequencer
     protected final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
     /*** 所有BatchEventProcessor消费者的Sequence游标 */
     protected volatile Sequence[] gatingSequences = new Sequence[0];
+    /** Wait strategies of barriers that do not use this sequencer's own strategy and need signalling */
+    protected volatile WaitStrategy[] barrierWaitStrategies = new WaitStrategy[0];
+    /** Only read once a claim finds the buffer full, so costs nothing while producers are not stalled */
+    protected volatile ProducerStallMetrics stallMetrics;
 
     /**
      * Create with the specified buffer size and wait strategy.
@@ -112,6 +119,143 @@ public abstract class AbstractSequencer implements Sequencer
         return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
     }
 
+    /**
+     * Get an upper bound on the sequences claimed by producers.  The slot holding a published sequence can only be
+     * in the process of being overwritten once this bound reaches <code>sequence + bufferSize</code>, which lets
+     * readers that do not gate the producers check that what they read was not overwritten while reading it.
+     *
+     * @return a sequence at least as high as any claimed so far, or {@link Long#MAX_VALUE} if no bound is known.
+     */
+    public long getClaimedSequenceBound()
+    {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Called by each {@link EventTap} when it is created, for sequencers that only keep track of their claims for
+     * {@link #getClaimedSequenceBound()} once a reader needs them.
+     */
+    void trackClaims()
+    {
+    }
+
+    /**
+     * Create a new SequenceBarrier that waits using its own {@link WaitStrategy} rather than the one this sequencer
+     * was created with, so consumers of the same ring buffer can wait in different ways.  Publishing also signals
+     * the strategies given to barriers, other than those that are {@link NonSignallingWaitStrategy}s.
+     *
+     * @param waitStrategy     used by the barrier to wait for events.
+     * @param sequencesToTrack All of the sequences that the newly constructed barrier will wait on.
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(WaitStrategy waitStrategy, Sequence... sequencesToTrack)
+    {
+        if (waitStrategy != this.waitStrategy && !(waitStrategy instanceof NonSignallingWaitStrategy))
+        {
+            addBarrierWaitStrategy(waitStrategy);
+        }
+
+        return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
+    }
+
+    /**
+     * Record the stalls of producers claiming with {@link #next()} or {@link #next(int)} that find the buffer full.
+     *
+     * @param stallMetrics to record stalls in, or null to stop recording.
+     */
+    public void setStallMetrics(ProducerStallMetrics stallMetrics)
+    {
+        this.stallMetrics = stallMetrics;
+    }
+
+    /**
+     * Park a producer until the gating sequences reach the wrap point of its claim, recording the stall.
+     *
+     * @param wrapPoint       the sequence every gating sequence must reach before the claim can proceed.
+     * @param cursorValue     the highest value the minimum gating sequence is taken to have.
+     * @param minimumSequence the minimum gating sequence seen when the claim found the buffer full.
+     * @return the minimum gating sequence once it has reached the wrap point.
+     */
+    protected final long awaitCapacity(final long wrapPoint, final long cursorValue, final long minimumSequence)
+    {
+        final ProducerStallMetrics stallMetrics = this.stallMetrics;
+        final Sequence stalledOn = null != stallMetrics ? ProducerStallMetrics.minimumSequence(gatingSequences) : null;
+        final long stallStart = null != stallMetrics ? System.nanoTime() : 0L;
+        final Object stallEvent = FlightRecorderEvents.beginStall();
+
+        long minSequence;
+        do
+        {
+            LockSupport.parkNanos(1L); // TODO: Use waitStrategy to spin?
+        }
+        while (wrapPoint > (minSequence = Util.getMinimumSequence(gatingSequences, cursorValue)));
+
+        endStall(stallMetrics, stalledOn, stallStart, stallEvent, wrapPoint + bufferSize, minimumSequence);
+
+        return minSequence;
+    }
+
+    /**
+     * Record a producer stall once the claim that found the buffer full has proceeded.
+     *
+     * @param stallMetrics    the metrics read when the stall began, or null if none were set.
+     * @param stalledOn       the slowest gating sequence when the stall began.
+     * @param stallStart      when the stall began, if recording stall metrics.
+     * @param stallEvent      the flight recorder event begun with the stall.
+     * @param claimedSequence the highest sequence of the claim that stalled.
+     * @param minimumSequence the minimum gating sequence seen when the claim found the buffer full.
+     */
+    protected final void endStall(
+        final ProducerStallMetrics stallMetrics,
+        final Sequence stalledOn,
+        final long stallStart,
+        final Object stallEvent,
+        final long claimedSequence,
+        final long minimumSequence)
+    {
+        if (null != stallMetrics)
+        {
+            stallMetrics.onStall(stalledOn, System.nanoTime() - stallStart);
+        }
+        FlightRecorderEvents.endStall(stallEvent, bufferSize, claimedSequence, minimumSequence);
+    }
+
+    /**
+     * Signal this sequencer's wait strategy and those of any barriers given their own, called after publishing.
+     */
+    protected final void signalAllWhenBlocking()
+    {
+        waitStrategy.signalAllWhenBlocking();
+
+        final WaitStrategy[] waitStrategies = barrierWaitStrategies;
+        for (int i = 0; i < waitStrategies.length; i++)
+        {
+            waitStrategies[i].signalAllWhenBlocking();
+        }
+    }
+
+    private void addBarrierWaitStrategy(final WaitStrategy waitStrategy)
+    {
+        WaitStrategy[] currentWaitStrategies;
+        WaitStrategy[] updatedWaitStrategies;
+        do
+        {
+            currentWaitStrategies = barrierWaitStrategies;
+            for (WaitStrategy existing : currentWaitStrategies)
+            {
+                if (existing == waitStrategy)
+                {
+                    return;
+                }
+            }
+
+            updatedWaitStrategies = Arrays.copyOf(currentWaitStrategies, currentWaitStrategies.length + 1);
+            updatedWaitStrategies[currentWaitStrategies.length] = waitStrategy;
+        }
+        while (!WAIT_STRATEGY_UPDATER.compareAndSet(this, currentWaitStrategies, updatedWaitStrategies));
+    }
+
     /**
      * Creates an event poller for this sequence that will use the supplied data provider and
      * gating sequences.
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Wait strategy that spins, then yields, then falls back to another strategy, like
+ * {@link PhasedBackoffWaitStrategy}, but tunes its spin and yield budgets from the waits it has seen.</p>
+ *
+ * <p>Each wait that does not return immediately is recorded in a histogram with a bucket per power of two
+ * nanoseconds, kept by the waiting thread so consumers do not contend on it.  Every {@value #RETUNE_INTERVAL} waits
+ * a thread merges its histogram into the shared one, the spin budget is set to cover half of the recorded waits
+ * and the yield budget to cover nine in ten, each capped by the configured maximum, and the shared histogram is
+ * halved so older waits fade as the arrival pattern changes.  While spinning the clock is only read every
+ * {@value #SPIN_TRIES} tries.  Arrivals slower than that go to the fallback strategy, which
+ * by default parks without needing a signal from the publisher.</p>
+ */
+public final class AdaptiveWaitStrategy implements WaitStrategy
+{
+    static final int RETUNE_INTERVAL = 1024;
+    private static final int BUCKETS = 40;
+    private static final int SPIN_TRIES = 100;
+    private static final double SPIN_COVERAGE = 0.5;
+    private static final double YIELD_COVERAGE = 0.9;
+    private static final long DEFAULT_MAX_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DEFAULT_MAX_YIELD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long maxSpinNanos;
+    private final long maxYieldNanos;
+    private final WaitStrategy fallbackStrategy;
+    private final long[] waitHistogram = new long[BUCKETS];
+    private final ThreadLocal<long[]> localHistogram = new ThreadLocal<long[]>()
+    {
+        @Override
+        protected long[] initialValue()
+        {
+            // the bucket counts followed by the number of waits since this thread last merged them
+            return new long[BUCKETS + 1];
+        }
+    };
+    private volatile long spinBudgetNanos;
+    private volatile long yieldBudgetNanos;
+
+    /**
+     * Construct with a maximum spin of 50us and yield of 1ms, falling back to parking.
+     */
+    public AdaptiveWaitStrategy()
+    {
+        this(DEFAULT_MAX_SPIN_NANOS, DEFAULT_MAX_YIELD_NANOS, TimeUnit.NANOSECONDS, new SleepingWaitStrategy(0));
+    }
+
+    /**
+     * @param maxSpin          the most time to busy spin for, however long the recorded waits.
+     * @param maxYield         the most time to yield for after spinning.
+     * @param units            Time units used for the maximum values.
+     * @param fallbackStrategy used once the spin and yield budgets are spent.
+     */
+    public AdaptiveWaitStrategy(
+        final long maxSpin,
+        final long maxYield,
+        final TimeUnit units,
+        final WaitStrategy fallbackStrategy)
+    {
+        this.maxSpinNanos = units.toNanos(maxSpin);
+        this.maxYieldNanos = units.toNanos(maxYield);
+        this.fallbackStrategy = fallbackStrategy;
+        this.spinBudgetNanos = maxSpinNanos;
+        this.yieldBudgetNanos = maxYieldNanos;
+    }
+
+    @Override
+    public long waitFor(
+        final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+        throws AlertException, InterruptedException, TimeoutException
+    {
+        long availableSequence;
+        if ((availableSequence = dependentSequence.get()) >= sequence)
+        {
+            return availableSequence;
+        }
+
+        final long startTime = System.nanoTime();
+        final long spinDeadline = startTime + spinBudgetNanos;
+        final long yieldDeadline = spinDeadline + yieldBudgetNanos;
+        boolean yielding = false;
+        int counter = SPIN_TRIES;
+        while ((availableSequence = dependentSequence.get()) < sequence)
+        {
+            barrier.checkAlert();
+            // a yield costs far more than reading the clock, so only spins skip the check
+            if (yielding || 0 == --counter)
+            {
+                final long now = System.nanoTime();
+                if (now - yieldDeadline > 0)
+                {
+                    availableSequence = fallbackStrategy.waitFor(sequence, cursor, dependentSequence, barrier);
+                    break;
+                }
+                else if (now - spinDeadline > 0)
+                {
+                    yielding = true;
+                    Thread.yield();
+                }
+                counter = SPIN_TRIES;
+            }
+        }
+
+        recordWait(System.nanoTime() - startTime);
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        fallbackStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * @return the time currently spent spinning before yielding.
+     */
+    public long getSpinBudgetNanos()
+    {
+        return spinBudgetNanos;
+    }
+
+    /**
+     * @return the time currently spent yielding before falling back.
+     */
+    public long getYieldBudgetNanos()
+    {
+        return yieldBudgetNanos;
+    }
+
+    void recordWait(final long waitNanos)
+    {
+        final long[] localHistogram = this.localHistogram.get();
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0L, waitNanos)));
+        localHistogram[bucket]++;
+
+        if (++localHistogram[BUCKETS] == RETUNE_INTERVAL)
+        {
+            retune(localHistogram);
+        }
+    }
+
+    private synchronized void retune(final long[] localHistogram)
+    {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            waitHistogram[i] += localHistogram[i];
+            localHistogram[i] = 0;
+            total += waitHistogram[i];
+        }
+        localHistogram[BUCKETS] = 0;
+
+        final long spinNanos = upperBoundCovering((long) (total * SPIN_COVERAGE));
+        final long coveredNanos = upperBoundCovering((long) (total * YIELD_COVERAGE));
+        spinBudgetNanos = Math.min(maxSpinNanos, spinNanos);
+        yieldBudgetNanos = Math.min(maxYieldNanos, Math.max(0L, coveredNanos - spinBudgetNanos));
+
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            waitHistogram[i] >>= 1;
+        }
+    }
+
+    private long upperBoundCovering(final long count)
+    {
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += waitHistogram[i];
+            if (seen >= count)
+            {
+                return 1L << i;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AdaptiveWaitStrategy{" +
+            "spinBudgetNanos=" + spinBudgetNanos +
+            ", yieldBudgetNanos=" + yieldBudgetNanos +
+            ", fallbackStrategy=" + fallbackStrategy +
+            '}';
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * A unit of work that can be driven cooperatively by a duty cycle, allowing many of them to share a single
+ * thread via an {@link AgentRunner} rather than each blocking a thread of its own.
+ * <p>
+ * All methods are called from the hosting thread.  {@link #doWork()} must never block, it should do
+ * whatever work is currently available and return.
+ */
+public interface Agent
+{
+    /**
+     * Called on the hosting thread before the first call to {@link #doWork()}.
+     *
+     * @throws IllegalStateException if the agent is already running elsewhere.
+     */
+    void onStart();
+
+    /**
+     * Perform the work that is currently available without blocking.
+     *
+     * @return the amount of work done, 0 if there was none available.
+     */
+    int doWork();
+
+    /**
+     * Called on the hosting thread after the last call to {@link #doWork()}.
+     */
+    void onShutdown();
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Hosts a number of {@link Agent}s, such as {@link BatchEventProcessor}s and {@link WorkProcessor}s, on a
+ * single thread.  Each duty cycle calls {@link Agent#doWork()} on every agent in turn and applies the shared
+ * {@link IdleStrategy} when none of them found any work.</p>
+ *
+ * <p>This trades some latency for far fewer threads when there are many low volume stages.  Thread placement
+ * is left to the thread that runs this, e.g. one created by a pinning {@link java.util.concurrent.ThreadFactory}.
+ * An exception escaping an agent, e.g. rethrown by a {@link FatalExceptionHandler}, stops the whole runner.</p>
+ */
+public final class AgentRunner implements Runnable
+{
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final IdleStrategy idleStrategy;
+    private final Agent[] agents;
+
+    /**
+     * @param idleStrategy to apply when a duty cycle did no work.
+     * @param agents       to be hosted, in the order they will be called each duty cycle.
+     */
+    public AgentRunner(final IdleStrategy idleStrategy, final Agent... agents)
+    {
+        if (agents.length == 0)
+        {
+            throw new IllegalArgumentException("At least one agent is required");
+        }
+
+        this.idleStrategy = idleStrategy;
+        this.agents = Arrays.copyOf(agents, agents.length);
+    }
+
+    /**
+     * Signal the thread hosting the agents to stop after the current duty cycle.  Each agent is then shut down.
+     */
+    public void halt()
+    {
+        running.set(false);
+    }
+
+    public boolean isRunning()
+    {
+        return running.get();
+    }
+
+    /**
+     * Start the agents and run duty cycles until {@link #halt()} is called.
+     *
+     * @throws IllegalStateException if this runner is already running in a thread.
+     */
+    @Override
+    public void run()
+    {
+        if (!running.compareAndSet(false, true))
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+
+        final Agent[] agents = this.agents;
+        int started = 0;
+        try
+        {
+            for (final Agent agent : agents)
+            {
+                agent.onStart();
+                started++;
+            }
+
+            idleStrategy.reset();
+            while (running.get())
+            {
+                int workCount = 0;
+                for (int i = 0; i < agents.length; i++)
+                {
+                    workCount += agents[i].doWork();
+                }
+
+                idleStrategy.idle(workCount);
+            }
+        }
+        finally
+        {
+            for (int i = 0; i < started; i++)
+            {
+                agents[i].onShutdown();
+            }
+
+            running.set(false);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AgentRunner{" +
+            "agents=" + Arrays.toString(agents) +
+            ", idleStrategy=" + idleStrategy +
+            ", running=" + running +
+            '}';
+    }
+}
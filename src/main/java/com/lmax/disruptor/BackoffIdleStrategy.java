@@ -0,0 +1,124 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.lmax.disruptor.util.ThreadHints;
+
+/**
+ * {@link IdleStrategy} that initially spins, then uses a Thread.yield(), and eventually parks
+ * (<code>LockSupport.parkNanos(n)</code>) for an exponentially increasing period bounded by a maximum.
+ * <p>
+ * This is a good compromise for a thread hosting several low-rate sources of work: it reacts quickly
+ * to bursts while burning little CPU during quiet periods.
+ */
+public final class BackoffIdleStrategy implements IdleStrategy
+{
+    private static final int DEFAULT_MAX_SPINS = 100;
+    private static final int DEFAULT_MAX_YIELDS = 100;
+    private static final long DEFAULT_MIN_PARK_NANOS = 1000L;
+    private static final long DEFAULT_MAX_PARK_NANOS = 1000L * 1000L;
+
+    private final int maxSpins;
+    private final int maxYields;
+    private final long minParkPeriodNs;
+    private final long maxParkPeriodNs;
+
+    private int spins;
+    private int yields;
+    private long parkPeriodNs;
+
+    public BackoffIdleStrategy()
+    {
+        this(DEFAULT_MAX_SPINS, DEFAULT_MAX_YIELDS, DEFAULT_MIN_PARK_NANOS, DEFAULT_MAX_PARK_NANOS);
+    }
+
+    /**
+     * @param maxSpins        number of idle cycles to busy spin for before yielding.
+     * @param maxYields       number of idle cycles to yield for before parking.
+     * @param minParkPeriodNs initial park period, doubled on every further idle cycle.
+     * @param maxParkPeriodNs upper bound on the park period.
+     */
+    public BackoffIdleStrategy(
+        final int maxSpins,
+        final int maxYields,
+        final long minParkPeriodNs,
+        final long maxParkPeriodNs)
+    {
+        if (minParkPeriodNs < 1 || maxParkPeriodNs < minParkPeriodNs)
+        {
+            throw new IllegalArgumentException("park periods must be > 0 and minParkPeriodNs <= maxParkPeriodNs");
+        }
+
+        this.maxSpins = maxSpins;
+        this.maxYields = maxYields;
+        this.minParkPeriodNs = minParkPeriodNs;
+        this.maxParkPeriodNs = maxParkPeriodNs;
+        reset();
+    }
+
+    @Override
+    public void idle(final int workCount)
+    {
+        if (workCount > 0)
+        {
+            reset();
+        }
+        else
+        {
+            idle();
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        spins = 0;
+        yields = 0;
+        parkPeriodNs = minParkPeriodNs;
+    }
+
+    private void idle()
+    {
+        if (spins < maxSpins)
+        {
+            ++spins;
+            ThreadHints.onSpinWait();
+        }
+        else if (yields < maxYields)
+        {
+            ++yields;
+            Thread.yield();
+        }
+        else
+        {
+            LockSupport.parkNanos(parkPeriodNs);
+            parkPeriodNs = Math.min(parkPeriodNs << 1, maxParkPeriodNs);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BackoffIdleStrategy{" +
+            "maxSpins=" + maxSpins +
+            ", maxYields=" + maxYields +
+            ", minParkPeriodNs=" + minParkPeriodNs +
+            ", maxParkPeriodNs=" + maxParkPeriodNs +
+            '}';
+    }
+}
@@ -34,15 +34,23 @@ public final class BlockingWaitStrategy implements WaitStrategy
         //当前消费者sequence大于RingBuffer的cursor（用于生产数据的有效位置指向）
         if (cursorSequence.get() < sequence)
         {
-            synchronized (mutex)
+            final Object parkEvent = FlightRecorderEvents.beginPark();
+            try
             {
-                while (cursorSequence.get() < sequence)
+                synchronized (mutex)
                 {
-                    barrier.checkAlert();
-                    //阻塞等待
-                    mutex.wait();
+                    while (cursorSequence.get() < sequence)
+                    {
+                        barrier.checkAlert();
+                        //阻塞等待
+                        mutex.wait();
+                    }
                 }
             }
+            finally
+            {
+                FlightRecorderEvents.endPark(parkEvent, this, sequence);
+            }
         }
 
         //类似自旋
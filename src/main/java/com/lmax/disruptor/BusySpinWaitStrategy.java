@@ -26,7 +26,7 @@ import com.lmax.disruptor.util.ThreadHints;
  * This strategy will use CPU resource to avoid syscalls which can introduce latency jitter.  It is best
  * used when threads can be bound to specific CPU cores.
  */
-public final class BusySpinWaitStrategy implements WaitStrategy
+public final class BusySpinWaitStrategy implements NonSignallingWaitStrategy
 {
     @Override
     public long waitFor(
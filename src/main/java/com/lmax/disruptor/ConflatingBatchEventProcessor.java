@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.LongHashIndex;
+
+
+/**
+ * <p>A {@link BatchEventProcessor} variant for consumers that only need the latest event per key, e.g. a slow
+ * market data subscriber that wants the last price per instrument.  For each available batch only the last event
+ * of every key is passed to the {@link EventHandler}, in sequence order, so the handler's work is proportional to
+ * the number of distinct keys rather than the rate of publication.</p>
+ *
+ * <p>Keys are tracked in a primitive {@link LongHashIndex} sized for <code>maxBatchSize</code> events, and batches
+ * are capped at that size, so no allocation takes place while processing.  The key of each event is extracted
+ * once; an exception doing so is passed to the {@link ExceptionHandler} and the event is not delivered.  The
+ * processor's sequence still covers every event, conflated or not, so producers and later stages are gated as
+ * usual.</p>
+ *
+ * <p>{@link BatchStartAware#onBatchStart(long)} is passed the number of events that will be delivered.</p>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class ConflatingBatchEventProcessor<T>
+    extends AbstractBatchEventProcessor<T>
+{
+    private final KeyExtractor<? super T> keyExtractor;
+    private final LongHashIndex lastSequenceByKey;
+    private final boolean[] latestForKey;
+    private final int maxBatchSize;
+
+    /**
+     * @param dataProvider    to which events are published.
+     * @param sequenceBarrier on which it is waiting.
+     * @param keyExtractor    extracts the key events are conflated by.
+     * @param eventHandler    is the delegate to which the latest event of each key is dispatched.
+     * @param maxBatchSize    the maximum number of events conflated together.
+     */
+    public ConflatingBatchEventProcessor(
+        final DataProvider<T> dataProvider,
+        final SequenceBarrier sequenceBarrier,
+        final KeyExtractor<? super T> keyExtractor,
+        final EventHandler<? super T> eventHandler,
+        final int maxBatchSize)
+    {
+        super(dataProvider, sequenceBarrier, eventHandler);
+
+        if (maxBatchSize < 1)
+        {
+            throw new IllegalArgumentException("maxBatchSize must be > 0");
+        }
+
+        this.keyExtractor = keyExtractor;
+        this.lastSequenceByKey = new LongHashIndex(maxBatchSize);
+        this.latestForKey = new boolean[maxBatchSize];
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    long processBatch(final long startSequence, final long availableSequence)
+    {
+        final long endSequence = Math.min(availableSequence, startSequence + maxBatchSize - 1);
+        final LongHashIndex lastSequenceByKey = this.lastSequenceByKey;
+        final boolean[] latestForKey = this.latestForKey;
+        lastSequenceByKey.clear();
+
+        // Mark each event as the latest for its key, unmarking the event it replaces.
+        long lastDelivered = -1L;
+        for (long s = startSequence; s <= endSequence; s++)
+        {
+            final int index = (int) (s - startSequence);
+            final T event = dataProvider.get(s);
+            final long key;
+            try
+            {
+                key = keyExtractor.getKey(event);
+            }
+            catch (final Throwable ex)
+            {
+                latestForKey[index] = false;
+                handleEventException(ex, s, event);
+                continue;
+            }
+
+            final long replaced = lastSequenceByKey.put(key, s);
+            if (replaced != LongHashIndex.MISSING_VALUE)
+            {
+                latestForKey[(int) (replaced - startSequence)] = false;
+            }
+            latestForKey[index] = true;
+            lastDelivered = s;
+        }
+
+        notifyBatchStart(startSequence, lastSequenceByKey.size());
+
+        for (long s = startSequence; s <= lastDelivered; s++)
+        {
+            if (latestForKey[(int) (s - startSequence)])
+            {
+                final T event = dataProvider.get(s);
+                try
+                {
+                    eventHandler.onEvent(event, s, s == lastDelivered);
+                }
+                catch (final Throwable ex)
+                {
+                    handleEventException(ex, s, event);
+                }
+            }
+        }
+
+        return endSequence;
+    }
+}
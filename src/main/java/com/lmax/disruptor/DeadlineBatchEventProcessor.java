@@ -0,0 +1,176 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * <p>A {@link BatchEventProcessor} variant that drops stale events under overload.  Publishers stamp a deadline into
+ * each event, read back by a {@link DeadlineExtractor}, and events whose deadline has passed by the time their batch
+ * is processed are not passed to the {@link EventHandler}.  This lets a consumer that has fallen behind catch up,
+ * rather than spending time on events that are already worthless and falling further behind.</p>
+ *
+ * <p>Consecutive dropped events are reported as a single run to the {@link DroppedEventsListener}, if any, and
+ * counted by {@link #getDroppedCount()}.  The clock is read once per batch and each event's deadline once; an
+ * exception reading a deadline is passed to the {@link ExceptionHandler} and the event is dropped.  As
+ * <code>endOfBatch</code> is set on the last event of the batch that is not dropped, each event is passed on once
+ * the deadline of the next event that is not dropped has been read.  {@link BatchStartAware#onBatchStart(long)} is
+ * passed the number of events from the first that is not dropped to the end of the batch, later ones of which may
+ * still be dropped.  The processor's sequence covers the dropped events as well.</p>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class DeadlineBatchEventProcessor<T>
+    extends AbstractBatchEventProcessor<T>
+{
+    private final DeadlineExtractor<? super T> deadlineExtractor;
+    private final Clock clock;
+    private final DroppedEventsListener droppedEventsListener;
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param dataProvider          to which events are published.
+     * @param sequenceBarrier       on which it is waiting.
+     * @param deadlineExtractor     reads the deadline stamped into each event.
+     * @param clock                 the clock deadlines are compared against.
+     * @param eventHandler          is the delegate to which events that have not expired are dispatched.
+     * @param droppedEventsListener notified of each run of dropped events, may be null.
+     */
+    public DeadlineBatchEventProcessor(
+        final DataProvider<T> dataProvider,
+        final SequenceBarrier sequenceBarrier,
+        final DeadlineExtractor<? super T> deadlineExtractor,
+        final Clock clock,
+        final EventHandler<? super T> eventHandler,
+        final DroppedEventsListener droppedEventsListener)
+    {
+        super(dataProvider, sequenceBarrier, eventHandler);
+        this.deadlineExtractor = deadlineExtractor;
+        this.clock = clock;
+        this.droppedEventsListener = droppedEventsListener;
+    }
+
+    /**
+     * @return the total number of events dropped because their deadline had passed.
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    @Override
+    long processBatch(final long startSequence, final long availableSequence)
+    {
+        final long now = clock.currentTime();
+
+        // the last event not dropped, passed on once it is known whether it ends the batch
+        long lastLive = -1L;
+        T lastLiveEvent = null;
+        long firstDropped = -1L;
+        T lastDroppedEvent = null;
+        for (long s = startSequence; s <= availableSequence; s++)
+        {
+            final T event = dataProvider.get(s);
+            if (isExpired(event, s, now))
+            {
+                if (firstDropped < 0)
+                {
+                    firstDropped = s;
+                }
+                lastDroppedEvent = event;
+                continue;
+            }
+
+            if (lastLive < 0)
+            {
+                notifyBatchStart(s, availableSequence - s + 1);
+            }
+            else
+            {
+                onEvent(lastLiveEvent, lastLive, false);
+            }
+
+            if (firstDropped >= 0)
+            {
+                dropped(firstDropped, s - 1, lastDroppedEvent);
+                firstDropped = -1L;
+            }
+
+            lastLive = s;
+            lastLiveEvent = event;
+        }
+
+        if (lastLive >= 0)
+        {
+            onEvent(lastLiveEvent, lastLive, true);
+        }
+
+        if (firstDropped >= 0)
+        {
+            dropped(firstDropped, availableSequence, lastDroppedEvent);
+        }
+
+        return availableSequence;
+    }
+
+    private boolean isExpired(final T event, final long sequence, final long now)
+    {
+        try
+        {
+            return deadlineExtractor.getDeadline(event) < now;
+        }
+        catch (final Throwable ex)
+        {
+            handleEventException(ex, sequence, event);
+            return true;
+        }
+    }
+
+    private void onEvent(final T event, final long sequence, final boolean endOfBatch)
+    {
+        try
+        {
+            eventHandler.onEvent(event, sequence, endOfBatch);
+        }
+        catch (final Throwable ex)
+        {
+            handleEventException(ex, sequence, event);
+        }
+    }
+
+    /**
+     * An exception thrown by the listener is passed to the {@link ExceptionHandler} with the last dropped event.
+     */
+    private void dropped(final long firstSequence, final long lastSequence, final T lastEvent)
+    {
+        droppedCount.lazySet(droppedCount.get() + lastSequence - firstSequence + 1);
+
+        if (droppedEventsListener != null)
+        {
+            try
+            {
+                droppedEventsListener.onEventsDropped(firstSequence, lastSequence);
+            }
+            catch (final Throwable ex)
+            {
+                handleEventException(ex, lastSequence, lastEvent);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Reads the deadline a publisher stamped into an event, for {@link DeadlineBatchEventProcessor}.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public interface DeadlineExtractor<T>
+{
+    /**
+     * @param event the event.
+     * @return the time after which the event is no longer worth processing, in the units of the processor's clock,
+     * or {@link Long#MAX_VALUE} if it never expires.
+     */
+    long getDeadline(T event);
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Callback notified of runs of events dropped by a {@link DeadlineBatchEventProcessor} because their
+ * deadline had passed.
+ */
+public interface DroppedEventsListener
+{
+    /**
+     * @param firstSequence the first sequence of the run of dropped events.
+     * @param lastSequence  the last sequence of the run of dropped events, inclusive.
+     */
+    void onEventsDropped(long firstSequence, long lastSequence);
+}
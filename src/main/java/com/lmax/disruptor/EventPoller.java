@@ -42,11 +42,35 @@ public class EventPoller<T>
      */
     public PollState poll(final Handler<T> eventHandler) throws Exception
     {
+        return poll(eventHandler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Poll for events, handling at most <code>maxEvents</code> of them before returning.  This bounds the
+     * amount of work done by a single call so that a thread servicing other work (or many pollers) has a
+     * predictable duty cycle.  The <code>endOfBatch</code> flag passed to the handler marks the last event
+     * of this bounded batch.
+     *
+     * @param eventHandler to which the available events are passed.
+     * @param maxEvents    the maximum number of events to handle in this call, must be greater than 0.
+     * @return the {@link PollState} after polling.
+     * @throws Exception if the handler throws.
+     * @throws IllegalArgumentException if <code>maxEvents</code> is less than 1.
+     */
+    public PollState poll(final Handler<T> eventHandler, final int maxEvents) throws Exception
+    {
+        if (maxEvents < 1)
+        {
+            throw new IllegalArgumentException("maxEvents must be > 0");
+        }
+
         final long currentSequence = sequence.get();
         //获取下一个游标位置
         long nextSequence = currentSequence + 1;
+        //限制本次最多扫描到的位置，避免一次poll处理过多事件
+        final long limitSequence = Math.min(gatingSequence.get(), currentSequence + maxEvents);
         //获取有效的Sequence
-        final long availableSequence = sequencer.getHighestPublishedSequence(nextSequence, gatingSequence.get());
+        final long availableSequence = sequencer.getHighestPublishedSequence(nextSequence, limitSequence);
         //如果Poller的Sequence<=availableSequence说明有数据可以消费
         if (nextSequence <= availableSequence)
         {
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>A compact per slot tag, or bitmask, kept beside a {@link RingBuffer} of the same size.  Publishers write an
+ * event's tag before publishing it, either by wrapping their translator:</p>
+ *
+ * <pre><code>ringBuffer.publishEvent(tags.tagging(translator, ORDER_EVENTS));</code></pre>
+ *
+ * <p>or, when claiming sequences directly:</p>
+ *
+ * <pre><code>long sequence = ringBuffer.next();
+ * translate(ringBuffer.get(sequence));
+ * tags.setTag(sequence, ORDER_EVENTS);
+ * ringBuffer.publish(sequence);</code></pre>
+ *
+ * <p>so that selective consumers such as {@link FilteringBatchEventProcessor} can scan the tags, eight to a cache
+ * line, and only read the events they are interested in.  The publication of the sequence makes the tag visible
+ * in the same way as the event itself.</p>
+ */
+public final class EventTags
+{
+    private final long[] tags;
+    private final int indexMask;
+
+    /**
+     * @param bufferSize the size of the ring buffer the tags are kept for, must be a power of 2.
+     */
+    public EventTags(final int bufferSize)
+    {
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+
+        this.tags = new long[bufferSize];
+        this.indexMask = bufferSize - 1;
+    }
+
+    /**
+     * Tag the slot for a claimed sequence, must be called before the sequence is published.
+     *
+     * @param sequence the claimed sequence.
+     * @param tag      the tag of the event being published.
+     */
+    public void setTag(final long sequence, final long tag)
+    {
+        tags[(int) sequence & indexMask] = tag;
+    }
+
+    /**
+     * Wrap a translator so that every event it translates is tagged before being published.  The returned
+     * translator can be kept and reused, as it does not allocate.
+     *
+     * @param translator the translator to wrap.
+     * @param tag        the tag of the events being published.
+     * @param <T>        the event type.
+     * @return a translator for the {@link RingBuffer#publishEvent(EventTranslator)} family of methods.
+     */
+    public <T> EventTranslator<T> tagging(final EventTranslator<T> translator, final long tag)
+    {
+        return new EventTranslator<T>()
+        {
+            @Override
+            public void translateTo(final T event, final long sequence)
+            {
+                translator.translateTo(event, sequence);
+                setTag(sequence, tag);
+            }
+        };
+    }
+
+    /**
+     * Wrap a one argument translator so that every event it translates is tagged before being published.
+     *
+     * @param translator the translator to wrap.
+     * @param tag        the tag of the events being published.
+     * @param <T>        the event type.
+     * @param <A>        the translator's argument type.
+     * @return a translator for the {@link RingBuffer#publishEvent(EventTranslatorOneArg, Object)} family of methods.
+     */
+    public <T, A> EventTranslatorOneArg<T, A> tagging(final EventTranslatorOneArg<T, A> translator, final long tag)
+    {
+        return new EventTranslatorOneArg<T, A>()
+        {
+            @Override
+            public void translateTo(final T event, final long sequence, final A arg0)
+            {
+                translator.translateTo(event, sequence, arg0);
+                setTag(sequence, tag);
+            }
+        };
+    }
+
+    /**
+     * Wrap a two argument translator so that every event it translates is tagged before being published.
+     *
+     * @param translator the translator to wrap.
+     * @param tag        the tag of the events being published.
+     * @param <T>        the event type.
+     * @param <A>        the translator's first argument type.
+     * @param <B>        the translator's second argument type.
+     * @return a translator for the {@link RingBuffer#publishEvent(EventTranslatorTwoArg, Object, Object)} family of
+     * methods.
+     */
+    public <T, A, B> EventTranslatorTwoArg<T, A, B> tagging(
+        final EventTranslatorTwoArg<T, A, B> translator, final long tag)
+    {
+        return new EventTranslatorTwoArg<T, A, B>()
+        {
+            @Override
+            public void translateTo(final T event, final long sequence, final A arg0, final B arg1)
+            {
+                translator.translateTo(event, sequence, arg0, arg1);
+                setTag(sequence, tag);
+            }
+        };
+    }
+
+    /**
+     * Wrap a three argument translator so that every event it translates is tagged before being published.
+     *
+     * @param translator the translator to wrap.
+     * @param tag        the tag of the events being published.
+     * @param <T>        the event type.
+     * @param <A>        the translator's first argument type.
+     * @param <B>        the translator's second argument type.
+     * @param <C>        the translator's third argument type.
+     * @return a translator for the {@link RingBuffer#publishEvent(EventTranslatorThreeArg, Object, Object, Object)}
+     * family of methods.
+     */
+    public <T, A, B, C> EventTranslatorThreeArg<T, A, B, C> tagging(
+        final EventTranslatorThreeArg<T, A, B, C> translator, final long tag)
+    {
+        return new EventTranslatorThreeArg<T, A, B, C>()
+        {
+            @Override
+            public void translateTo(final T event, final long sequence, final A arg0, final B arg1, final C arg2)
+            {
+                translator.translateTo(event, sequence, arg0, arg1, arg2);
+                setTag(sequence, tag);
+            }
+        };
+    }
+
+    /**
+     * Wrap a variable argument translator so that every event it translates is tagged before being published.
+     *
+     * @param translator the translator to wrap.
+     * @param tag        the tag of the events being published.
+     * @param <T>        the event type.
+     * @return a translator for the {@link RingBuffer#publishEvent(EventTranslatorVararg, Object...)} family of
+     * methods.
+     */
+    public <T> EventTranslatorVararg<T> tagging(final EventTranslatorVararg<T> translator, final long tag)
+    {
+        return new EventTranslatorVararg<T>()
+        {
+            @Override
+            public void translateTo(final T event, final long sequence, final Object... args)
+            {
+                translator.translateTo(event, sequence, args);
+                setTag(sequence, tag);
+            }
+        };
+    }
+
+    /**
+     * @param sequence a published sequence that has not yet been overwritten.
+     * @return the tag the event was published with.
+     */
+    public long getTag(final long sequence)
+    {
+        return tags[(int) sequence & indexMask];
+    }
+
+    /**
+     * @param sequence a published sequence that has not yet been overwritten.
+     * @param mask     the bits of interest.
+     * @return true if the event's tag has any of the bits in <code>mask</code> set.
+     */
+    public boolean matches(final long sequence, final long mask)
+    {
+        return (tags[(int) sequence & indexMask] & mask) != 0;
+    }
+
+    /**
+     * @return the size of the ring buffer the tags are kept for.
+     */
+    public int getBufferSize()
+    {
+        return tags.length;
+    }
+}
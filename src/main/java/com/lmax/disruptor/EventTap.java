@@ -0,0 +1,162 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>A reader of a {@link RingBuffer} that never gates its producers, for monitoring, dashboards and sampling
+ * where a slow reader must not be able to throttle the ring buffer.  A tap is not a gating sequence, so producers
+ * are free to overwrite the events it has yet to read.</p>
+ *
+ * <p>Each event is copied out of the ring buffer and the copy validated against
+ * {@link AbstractSequencer#getClaimedSequenceBound()} before it is handled, so an event overwritten mid-read is
+ * discarded and counted as overrun rather than handed over torn.  A tap that falls more than a buffer behind skips
+ * ahead to the oldest event still in the ring buffer.</p>
+ *
+ * <p>A tap may sample every Nth sequence, only reading sequences that are a multiple of the sample interval.  Each
+ * tap must only be polled by one thread.</p>
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class EventTap<E>
+{
+    private final DataProvider<E> dataProvider;
+    private final AbstractSequencer sequencer;
+    private final EventCopier<E> copier;
+    private final E copy;
+    private final int bufferSize;
+    private final int sampleInterval;
+    private long nextSequence;
+    private long overrunCount;
+    @SuppressWarnings("unused")
+    private volatile long readFence;
+
+    EventTap(
+        final DataProvider<E> dataProvider,
+        final AbstractSequencer sequencer,
+        final EventCopier<E> copier,
+        final E copy,
+        final int sampleInterval)
+    {
+        if (sampleInterval < 1)
+        {
+            throw new IllegalArgumentException("sampleInterval must be > 0");
+        }
+
+        this.dataProvider = dataProvider;
+        this.sequencer = sequencer;
+        this.copier = copier;
+        this.copy = copy;
+        this.bufferSize = sequencer.getBufferSize();
+        this.sampleInterval = sampleInterval;
+        sequencer.trackClaims();
+        this.nextSequence = firstSampleFrom(sequencer.getCursor() + 1);
+    }
+
+    /**
+     * Handle the sampled events published since the last poll, up to <code>maxEvents</code> of them.
+     *
+     * @param eventHandler to which a validated copy of each event is passed, returning false stops the poll.
+     * @param maxEvents    the maximum number of events to handle in this call.
+     * @return the number of events handled.
+     * @throws Exception if the handler throws.
+     */
+    public int poll(final EventPoller.Handler<E> eventHandler, final int maxEvents) throws Exception
+    {
+        if (maxEvents < 1)
+        {
+            throw new IllegalArgumentException("maxEvents must be > 0");
+        }
+
+        int handled = 0;
+        while (handled < maxEvents)
+        {
+            final long sequence = nextSequence;
+            final long cursor = sequencer.getCursor();
+            if (sequence > cursor)
+            {
+                break;
+            }
+
+            final long oldestAvailable = cursor - bufferSize + 1;
+            if (sequence < oldestAvailable)
+            {
+                nextSequence = firstSampleFrom(oldestAvailable);
+                overrunCount += (nextSequence - sequence) / sampleInterval;
+                continue;
+            }
+
+            if (!sequencer.isAvailable(sequence))
+            {
+                break;
+            }
+
+            copier.copy(dataProvider.get(sequence), copy);
+            // a volatile write keeps the reads of the copy from moving past the claim check
+            readFence = sequence;
+            nextSequence = sequence + sampleInterval;
+            if (sequencer.getClaimedSequenceBound() - bufferSize >= sequence)
+            {
+                overrunCount++;
+                continue;
+            }
+
+            handled++;
+            if (!eventHandler.onEvent(copy, sequence, handled == maxEvents || nextSequence > cursor))
+            {
+                break;
+            }
+        }
+
+        return handled;
+    }
+
+    /**
+     * @return the next sequence this tap will read.
+     */
+    public long getNextSequence()
+    {
+        return nextSequence;
+    }
+
+    /**
+     * @return the number of sampled events this tap missed because producers overwrote them first.
+     */
+    public long getOverrunCount()
+    {
+        return overrunCount;
+    }
+
+    public int getSampleInterval()
+    {
+        return sampleInterval;
+    }
+
+    private long firstSampleFrom(final long sequence)
+    {
+        final long remainder = sequence % sampleInterval;
+        return remainder == 0 ? sequence : sequence + sampleInterval - remainder;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EventTap{" +
+            "nextSequence=" + nextSequence +
+            ", sampleInterval=" + sampleInterval +
+            ", overrunCount=" + overrunCount +
+            '}';
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>A {@link BatchEventProcessor} variant for consumers interested in only a small fraction of the events.  Each
+ * event's tag is looked up in {@link EventTags} written by the publisher, and only events whose tag shares a bit
+ * with the processor's mask are read from the ring buffer and passed to the {@link EventHandler}.  Scanning the
+ * compact tags, rather than every slot of the ring, keeps the cache misses proportional to the matching events.</p>
+ *
+ * <p><code>endOfBatch</code> is set on the last matching event of each batch.  The processor's sequence covers the
+ * skipped events as well, so producers and later stages are gated as usual.</p>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class FilteringBatchEventProcessor<T>
+    extends AbstractBatchEventProcessor<T>
+{
+    private final EventTags eventTags;
+    private final long mask;
+
+    /**
+     * @param dataProvider    to which events are published.
+     * @param sequenceBarrier on which it is waiting.
+     * @param eventTags       the tags written by the publisher, sized as the ring buffer.
+     * @param mask            the tag bits of interest, an event is processed if its tag has any of them set.
+     * @param eventHandler    is the delegate to which matching events are dispatched.
+     */
+    public FilteringBatchEventProcessor(
+        final DataProvider<T> dataProvider,
+        final SequenceBarrier sequenceBarrier,
+        final EventTags eventTags,
+        final long mask,
+        final EventHandler<? super T> eventHandler)
+    {
+        super(dataProvider, sequenceBarrier, eventHandler);
+        this.eventTags = eventTags;
+        this.mask = mask;
+    }
+
+    @Override
+    long processBatch(final long startSequence, final long availableSequence)
+    {
+        final EventTags eventTags = this.eventTags;
+        final long mask = this.mask;
+
+        long matches = 0;
+        long lastMatch = -1L;
+        for (long s = startSequence; s <= availableSequence; s++)
+        {
+            if (eventTags.matches(s, mask))
+            {
+                matches++;
+                lastMatch = s;
+            }
+        }
+
+        if (matches == 0)
+        {
+            return availableSequence;
+        }
+
+        notifyBatchStart(startSequence, matches);
+
+        for (long s = startSequence; s <= lastMatch; s++)
+        {
+            if (eventTags.matches(s, mask))
+            {
+                final T event = dataProvider.get(s);
+                try
+                {
+                    eventHandler.onEvent(event, s, s == lastMatch);
+                }
+                catch (final Throwable ex)
+                {
+                    handleEventException(ex, s, event);
+                }
+            }
+        }
+
+        return availableSequence;
+    }
+}
@@ -17,14 +17,19 @@ package com.lmax.disruptor;
 
 import java.util.Arrays;
 
-import com.lmax.disruptor.util.Util;
-
 /**
  * Hides a group of Sequences behind a single Sequence
+ * <p>
+ * The tracked sequences only ever move forward, so the minimum of the group can only change once the sequence
+ * that held the last observed minimum moves.  {@link #get()} therefore re-reads just that sequence while it is
+ * unchanged, and only scans the whole group after it has advanced.  Consumers spinning on a wide join then read
+ * one upstream cache line per iteration rather than all of them.
  */
 public final class FixedSequenceGroup extends Sequence
 {
     private final Sequence[] sequences;
+    private volatile long cachedMinimum = Long.MIN_VALUE;
+    private int minimumIndex = 0;
 
     /**
      * Constructor
@@ -44,7 +49,35 @@ public final class FixedSequenceGroup extends Sequence
     @Override
     public long get()
     {
-        return Util.getMinimumSequence(sequences);
+        final long minimum = cachedMinimum;
+        if (sequences.length != 0 && sequences[minimumIndex].get() == minimum)
+        {
+            return minimum;
+        }
+
+        return scan();
+    }
+
+    private long scan()
+    {
+        long minimum = Long.MAX_VALUE;
+        int index = 0;
+        for (int i = 0, n = sequences.length; i < n; i++)
+        {
+            final long value = sequences[i].get();
+            if (value < minimum)
+            {
+                minimum = value;
+                index = i;
+            }
+        }
+
+        // Any pairing of index and minimum seen by a racing reader is still valid, as every value
+        // published here was at some point the minimum and sequences never move backwards.
+        minimumIndex = index;
+        cachedMinimum = minimum;
+
+        return minimum;
     }
 
     @Override
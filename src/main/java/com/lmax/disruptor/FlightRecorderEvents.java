@@ -0,0 +1,79 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Hooks through which the Disruptor reports its activity to JDK Flight Recorder.
+ * <p>
+ * This base version does nothing, so the hooks cost nothing once inlined.  On Java 11 and later the multi-release
+ * jar replaces it with a version from <code>src/main/java11</code> that commits <code>jdk.jfr</code> events,
+ * defined there, while a recording has them enabled.  Each <code>begin</code> hook returns an event in progress,
+ * or null when it will not be recorded, to be passed to the matching <code>end</code> hook.
+ */
+final class FlightRecorderEvents
+{
+    private FlightRecorderEvents()
+    {
+    }
+
+    /**
+     * Begin timing the batch from <code>lo</code> to <code>hi</code> if it is sampled.
+     */
+    static Object beginBatch(final long lo, final long hi)
+    {
+        return null;
+    }
+
+    static void endBatch(final Object event, final Object handler, final long lo, final long hi)
+    {
+    }
+
+    /**
+     * Begin timing a producer waiting for a full ring buffer to wrap.
+     */
+    static Object beginStall()
+    {
+        return null;
+    }
+
+    static void endStall(final Object event, final int bufferSize, final long claimedSequence, final long gatingSequence)
+    {
+    }
+
+    /**
+     * Begin timing a thread blocked in a {@link WaitStrategy} until it is woken.
+     */
+    static Object beginPark()
+    {
+        return null;
+    }
+
+    static void endPark(final Object event, final WaitStrategy waitStrategy, final long sequence)
+    {
+    }
+
+    static void processorStarted(final Object handler)
+    {
+    }
+
+    static void processorHalted(final Object handler, final long sequence)
+    {
+    }
+
+    static void processorException(final Object handler, final long sequence, final Throwable ex)
+    {
+    }
+}
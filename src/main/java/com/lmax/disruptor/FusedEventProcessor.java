@@ -0,0 +1,227 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>Runs a linear chain of {@link BatchEventProcessor}s, each depending only on the one before it, on a single
+ * thread.  Every event is passed through each stage's handler in turn, saving the cross-core hand off between
+ * stages, which for cheap handlers costs more than the work itself.</p>
+ *
+ * <p>Unlike {@link AggregateEventHandler} the stages keep their identity: each stage's {@link ExceptionHandler}
+ * handles the exceptions from its own handler, lifecycle and batch start notifications are delivered per stage, and
+ * each stage's {@link Sequence} is advanced in chain order at the end of every batch, so anything gating on an
+ * intermediate stage still sees its progress.  The barrier of the first stage is the only one waited on, so every
+ * stage must use the same {@link WaitStrategy}.  {@link ProcessorMetrics} and {@link LatencyRecorder}s are only
+ * updated by a processor running its own batches, so stages recording either cannot be fused.</p>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class FusedEventProcessor<T> implements ThreadAwareEventProcessor
+{
+    private final BatchEventProcessor<T>[] stages;
+    private final BatchEventProcessor<T> head;
+    private Runnable threadStartHook;
+
+    /**
+     * @param stages the processors to fuse, in chain order.  They must not also be run on their own.
+     * @throws IllegalArgumentException if there are no stages or any stage cannot be fused behind the first.
+     * @see #canFuse(BatchEventProcessor, BatchEventProcessor)
+     */
+    @SafeVarargs
+    public FusedEventProcessor(final BatchEventProcessor<T>... stages)
+    {
+        if (stages.length == 0)
+        {
+            throw new IllegalArgumentException("At least one stage is required");
+        }
+
+        for (final BatchEventProcessor<T> stage : stages)
+        {
+            if (!canFuse(stages[0], stage))
+            {
+                throw new IllegalArgumentException(
+                    "Stage cannot share a wait strategy or has metrics or a latency recorder: " + stage.eventHandler);
+            }
+        }
+
+        this.stages = stages.clone();
+        this.head = stages[0];
+    }
+
+    /**
+     * Whether <code>stage</code> can be run behind <code>head</code> by a {@link FusedEventProcessor}: it must wait
+     * with the same {@link WaitStrategy} and neither may have {@link ProcessorMetrics} or a {@link LatencyRecorder}.
+     *
+     * @param head  the first stage of the chain.
+     * @param stage a later stage of the chain, or the head itself.
+     * @return true if the stage can be fused.
+     */
+    public static boolean canFuse(final BatchEventProcessor<?> head, final BatchEventProcessor<?> stage)
+    {
+        return !head.isInstrumented() && !stage.isInstrumented() && waitStrategyOf(head) == waitStrategyOf(stage);
+    }
+
+    private static WaitStrategy waitStrategyOf(final BatchEventProcessor<?> stage)
+    {
+        return stage.sequenceBarrier instanceof ProcessingSequenceBarrier ?
+            ((ProcessingSequenceBarrier) stage.sequenceBarrier).getWaitStrategy() : null;
+    }
+
+    /**
+     * @return the sequence of the last stage in the chain.
+     */
+    @Override
+    public Sequence getSequence()
+    {
+        return stages[stages.length - 1].getSequence();
+    }
+
+    /**
+     * Halt every stage, the first stage last as only its barrier is waited on and alerting it ends the run.
+     */
+    @Override
+    public void halt()
+    {
+        for (int i = stages.length - 1; i >= 0; i--)
+        {
+            stages[i].halt();
+        }
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return head.isRunning();
+    }
+
+    /**
+     * @return the thread last started to run the chain, as recorded by each stage.
+     */
+    @Override
+    public Thread getThread()
+    {
+        return head.getThread();
+    }
+
+    @Override
+    public void setThreadStartHook(final Runnable threadStartHook)
+    {
+        this.threadStartHook = threadStartHook;
+    }
+
+    /**
+     * @throws IllegalStateException if any of the stages is already running, or has had metrics or a latency
+     *                               recorder set since the chain was fused.
+     */
+    @Override
+    public void run()
+    {
+        for (final BatchEventProcessor<T> stage : stages)
+        {
+            if (stage.isInstrumented())
+            {
+                throw new IllegalStateException(
+                    "Fused stages cannot record metrics or latencies: " + stage.eventHandler);
+            }
+        }
+
+        if (null != threadStartHook)
+        {
+            threadStartHook.run();
+        }
+
+        int started = 0;
+        try
+        {
+            for (; started < stages.length; started++)
+            {
+                stages[started].onStart();
+            }
+
+            processEvents();
+        }
+        finally
+        {
+            for (int i = 0; i < started; i++)
+            {
+                stages[i].onShutdown();
+            }
+        }
+    }
+
+    private void processEvents()
+    {
+        long nextSequence = head.getSequence().get() + 1L;
+
+        while (true)
+        {
+            try
+            {
+                final long availableSequence = head.waitForFused(nextSequence);
+                if (availableSequence >= nextSequence)
+                {
+                    for (final BatchEventProcessor<T> stage : stages)
+                    {
+                        stage.onFusedBatchStart(nextSequence, availableSequence - nextSequence + 1);
+                    }
+                }
+
+                while (nextSequence <= availableSequence)
+                {
+                    final T event = head.getFusedEvent(nextSequence);
+                    for (final BatchEventProcessor<T> stage : stages)
+                    {
+                        stage.onFusedEvent(event, nextSequence, nextSequence == availableSequence);
+                    }
+                    nextSequence++;
+                }
+
+                for (final BatchEventProcessor<T> stage : stages)
+                {
+                    stage.getSequence().set(availableSequence);
+                }
+            }
+            catch (final TimeoutException e)
+            {
+                for (final BatchEventProcessor<T> stage : stages)
+                {
+                    stage.onFusedTimeout();
+                }
+            }
+            catch (final AlertException ex)
+            {
+                if (head.isHalted())
+                {
+                    break;
+                }
+            }
+            catch (final InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FusedEventProcessor{" +
+            "stages=" + stages.length +
+            ", sequence=" + getSequence() +
+            '}';
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Strategy employed by a thread that performs units of work in a duty cycle, e.g. a {@link PollerGroup},
+ * to decide what to do when a cycle found no work.
+ * <p>
+ * Unlike a {@link WaitStrategy} an idle strategy is not waiting on a particular {@link Sequence}, it is
+ * simply told how much work the last cycle did.  Implementations are generally stateful and must not
+ * be shared between threads.
+ */
+public interface IdleStrategy
+{
+    /**
+     * Perform the idle action if no work was done in the last duty cycle, otherwise reset any back off state.
+     *
+     * @param workCount the amount of work done in the last duty cycle.
+     */
+    void idle(int workCount);
+
+    /**
+     * Reset the internal state in preparation for entering an idle cycle.
+     */
+    void reset();
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Records, for one stage of a pipeline, the time from publication to the stage completing each event sampled
+ * by a {@link LatencySampler}.  Attach one to each {@link BatchEventProcessor} with
+ * {@link BatchEventProcessor#setLatencyRecorder(LatencyRecorder)} for a per stage breakdown of latency.</p>
+ *
+ * <p>Latencies are counted in a log-linear histogram in the style of HdrHistogram: each power of 2 range of
+ * nanoseconds is split into {@link #SUB_BUCKETS} equal buckets, so a recorded value is accurate to within
+ * 1/{@value #SUB_BUCKETS} of itself.  The processor's thread is the only writer, it reads the time once per batch
+ * that contains a sampled sequence and does not allocate.  Any thread can read the histogram, and values read
+ * together may come from different batches.</p>
+ */
+public final class LatencyRecorder
+{
+    /**
+     * Number of buckets each power of 2 range of latencies is split into.
+     */
+    public static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private static final int COUNT = 0;
+    private static final int TOTAL_NANOS = 1;
+    private static final int MAX_NANOS = 2;
+
+    private final LatencySampler sampler;
+    private final AtomicLongArray counters = new AtomicLongArray(3);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * @param sampler of the ring buffer the stage consumes from.
+     */
+    public LatencyRecorder(final LatencySampler sampler)
+    {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Record the latency of the sampled sequences in a batch the stage has just completed.
+     */
+    void onBatch(final long lo, final long hi)
+    {
+        long sequence = sampler.firstSampleFrom(lo);
+        if (sequence > hi)
+        {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final int sampleInterval = sampler.getSampleInterval();
+        for (; sequence <= hi; sequence += sampleInterval)
+        {
+            final long publishTime = sampler.getPublishTime(sequence);
+            if (0L != publishTime)
+            {
+                record(Math.max(0L, now - publishTime));
+            }
+        }
+    }
+
+    void record(final long nanos)
+    {
+        final int bucket = bucketFor(nanos);
+        buckets.lazySet(bucket, buckets.get(bucket) + 1);
+        counters.lazySet(COUNT, counters.get(COUNT) + 1);
+        counters.lazySet(TOTAL_NANOS, counters.get(TOTAL_NANOS) + nanos);
+        if (nanos > counters.get(MAX_NANOS))
+        {
+            counters.lazySet(MAX_NANOS, nanos);
+        }
+    }
+
+    private static int bucketFor(final long nanos)
+    {
+        if (nanos < SUB_BUCKETS)
+        {
+            return (int) nanos;
+        }
+
+        final int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        if (magnitude > MAX_MAGNITUDE)
+        {
+            return BUCKET_COUNT - 1;
+        }
+
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long highestValueIn(final int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @return the number of sampled events recorded.
+     */
+    public long getCount()
+    {
+        return counters.get(COUNT);
+    }
+
+    public long getMaxNanos()
+    {
+        return counters.get(MAX_NANOS);
+    }
+
+    public double getMeanNanos()
+    {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) counters.get(TOTAL_NANOS) / count;
+    }
+
+    /**
+     * @param percentile from 0 to 100.
+     * @return the latency at or below which the given percentage of samples fell, to the histogram's precision,
+     * or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(final double percentile)
+    {
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            total += buckets.get(i);
+        }
+
+        final long target = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, percentile) / 100.0));
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            count += buckets.get(i);
+            if (count >= target)
+            {
+                // the last bucket also holds every longer latency, so can only be bounded by the maximum
+                return i == BUCKET_COUNT - 1 ? getMaxNanos() : Math.min(highestValueIn(i), getMaxNanos());
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Clear the histogram, which must only be done while the processor is not running.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < counters.length(); i++)
+        {
+            counters.set(i, 0L);
+        }
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets.set(i, 0L);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencyRecorder{" +
+            "count=" + getCount() +
+            ", meanNanos=" + getMeanNanos() +
+            ", p99Nanos=" + getValueAtPercentile(99.0) +
+            ", maxNanos=" + getMaxNanos() +
+            '}';
+    }
+}
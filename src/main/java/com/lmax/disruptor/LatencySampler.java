@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>Stamps the time every Nth sequence of a {@link RingBuffer} is published, so that {@link LatencyRecorder}s
+ * attached to each stage of the pipeline can measure how long after publication they completed those events.
+ * Enabled with {@link RingBuffer#enableLatencySampling(int)}.</p>
+ *
+ * <p>The publish times are kept in a <code>long[]</code> alongside the ring buffer with one slot per sampled
+ * sequence in a lap of the ring.  A slot is written by the publishing thread just before the sequence is
+ * published, so a consumer that has seen the sequence also sees its time, and is not reused until every gating
+ * consumer has moved past it.</p>
+ */
+public final class LatencySampler
+{
+    private final long[] publishTimes;
+    private final int sampleInterval;
+    private final long sampleMask;
+    private final int indexShift;
+    private final int indexMask;
+
+    /**
+     * @param bufferSize     of the ring buffer being sampled.
+     * @param sampleInterval the distance between sampled sequences, a power of 2 no larger than the buffer size.
+     */
+    LatencySampler(final int bufferSize, final int sampleInterval)
+    {
+        if (sampleInterval < 1 || Integer.bitCount(sampleInterval) != 1)
+        {
+            throw new IllegalArgumentException("sampleInterval must be a power of 2");
+        }
+        if (sampleInterval > bufferSize)
+        {
+            throw new IllegalArgumentException("sampleInterval must not be greater than bufferSize");
+        }
+
+        this.publishTimes = new long[bufferSize / sampleInterval];
+        this.sampleInterval = sampleInterval;
+        this.sampleMask = sampleInterval - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(sampleInterval);
+        this.indexMask = publishTimes.length - 1;
+    }
+
+    void onPublish(final long sequence)
+    {
+        if ((sequence & sampleMask) == 0)
+        {
+            publishTimes[(int) (sequence >>> indexShift) & indexMask] = System.nanoTime();
+        }
+    }
+
+    void onPublish(final long lo, final long hi)
+    {
+        final long now = System.nanoTime();
+        for (long sequence = firstSampleFrom(lo); sequence <= hi; sequence += sampleInterval)
+        {
+            publishTimes[(int) (sequence >>> indexShift) & indexMask] = now;
+        }
+    }
+
+    long firstSampleFrom(final long sequence)
+    {
+        return (sequence + sampleMask) & ~sampleMask;
+    }
+
+    /**
+     * @param sequence a sampled sequence that has been published and not yet overwritten.
+     * @return the {@link System#nanoTime()} at which it was published, or 0 if sampling began after it was.
+     */
+    long getPublishTime(final long sequence)
+    {
+        return publishTimes[(int) (sequence >>> indexShift) & indexMask];
+    }
+
+    public int getSampleInterval()
+    {
+        return sampleInterval;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencySampler{" +
+            "sampleInterval=" + sampleInterval +
+            '}';
+    }
+}
@@ -38,21 +38,29 @@ public final class LiteBlockingWaitStrategy implements WaitStrategy
         long availableSequence;
         if (cursorSequence.get() < sequence)
         {
-            synchronized (mutex)
+            final Object parkEvent = FlightRecorderEvents.beginPark();
+            try
             {
-                do
+                synchronized (mutex)
                 {
-                    signalNeeded.getAndSet(true);
-
-                    if (cursorSequence.get() >= sequence)
+                    do
                     {
-                        break;
-                    }
+                        signalNeeded.getAndSet(true);
+
+                        if (cursorSequence.get() >= sequence)
+                        {
+                            break;
+                        }
 
-                    barrier.checkAlert();
-                    mutex.wait();
+                        barrier.checkAlert();
+                        mutex.wait();
+                    }
+                    while (cursorSequence.get() < sequence);
                 }
-                while (cursorSequence.get() < sequence);
+            }
+            finally
+            {
+                FlightRecorderEvents.endPark(parkEvent, this, sequence);
             }
         }
 
@@ -136,6 +136,14 @@ public final class MultiProducerSequencer extends AbstractSequencer
 
         long current;
         long next;
+        // A claim may find the buffer full more than once while racing other producers, but is one stall
+        boolean stalled = false;
+        ProducerStallMetrics stallMetrics = null;
+        Sequence stalledOn = null;
+        long stallStart = 0L;
+        Object stallEvent = null;
+        long stalledClaim = 0L;
+        long stalledMinimum = 0L;
 
         do
         {
@@ -160,6 +168,19 @@ public final class MultiProducerSequencer extends AbstractSequencer
                 //需要阻塞1纳秒，等待其他消费线程消费数据更新各自的Sequence游标到所有消费者最小游标大于或等于wrapPoint停止自旋。
                 if (wrapPoint > gatingSequence)
                 {
+                    if (!stalled)
+                    {
+                        stalled = true;
+                        stallMetrics = this.stallMetrics;
+                        if (null != stallMetrics)
+                        {
+                            stalledOn = ProducerStallMetrics.minimumSequence(gatingSequences);
+                            stallStart = System.nanoTime();
+                        }
+                        stallEvent = FlightRecorderEvents.beginStall();
+                        stalledClaim = next;
+                        stalledMinimum = gatingSequence;
+                    }
                     //最慢消费线程没有跟随生产线程
                     LockSupport.parkNanos(1);
                     continue;
@@ -174,6 +195,11 @@ public final class MultiProducerSequencer extends AbstractSequencer
         }
         while (true);
 
+        if (stalled)
+        {
+            endStall(stallMetrics, stalledOn, stallStart, stallEvent, stalledClaim, stalledMinimum);
+        }
+
         return next;
     }
 
@@ -248,7 +274,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
     {
         setAvailable(sequence);
         //通知被阻塞的消费者继续消费
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -262,7 +288,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
         {
             setAvailable(l);
         }
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -352,6 +378,17 @@ public final class MultiProducerSequencer extends AbstractSequencer
         return availableSequence;
     }
 
+    /**
+     * The cursor is moved by the claim, before the event is written, so is exactly the highest claimed sequence.
+     *
+     * @see AbstractSequencer#getClaimedSequenceBound()
+     */
+    @Override
+    public long getClaimedSequenceBound()
+    {
+        return cursor.get();
+    }
+
     /***
      *
      * 就是这个环（RingBuffer）循环第几周（圈）
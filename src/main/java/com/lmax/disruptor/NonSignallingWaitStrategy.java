@@ -0,0 +1,27 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Implemented by wait strategies that never need a signal to wake, such as those that spin, yield or sleep for a
+ * bounded time, so never need {@link #signalAllWhenBlocking()} to be called.
+ * A sequencer does not signal such strategies when they are given to a barrier of their own.
+ *
+ * @see AbstractSequencer#newBarrier(WaitStrategy, Sequence...)
+ */
+public interface NonSignallingWaitStrategy extends WaitStrategy
+{
+}
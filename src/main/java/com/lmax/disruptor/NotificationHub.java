@@ -0,0 +1,310 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Shares blocking between many Disruptors hosted in one JVM, so that idle consumers use no CPU and a publish
+ * wakes only the threads interested in it.</p>
+ *
+ * <p>Each ring buffer is given its own {@link Channel} as its {@link WaitStrategy}.  Consumers running on their
+ * own threads wait on the channel as they would on a {@link TargetedBlockingWaitStrategy}, and a channel may be
+ * shared by several ring buffers.  Threads that host consumers of several ring buffers, such as an
+ * {@link AgentRunner} or a {@link PollerGroup}, use an {@link IdleStrategy} from
+ * {@link #newIdleStrategy(Channel...)} which parks until one of the channels it is interested in is signalled,
+ * and is released with {@link #unsubscribe(IdleStrategy)} once the thread stops.  Publishing to a channel that
+ * nobody waits on or subscribes to costs an atomic increment of the channel's signal count, which subscribers
+ * compare to detect signals, a volatile read of the waiter count and a check of an empty array.</p>
+ *
+ * <pre><code>NotificationHub hub = new NotificationHub();
+ * NotificationHub.Channel orders = hub.newChannel();
+ * NotificationHub.Channel quotes = hub.newChannel();
+ * RingBuffer&lt;Order&gt; orderRing = RingBuffer.createSingleProducer(Order.FACTORY, 1024, orders);
+ * RingBuffer&lt;Quote&gt; quoteRing = RingBuffer.createSingleProducer(Quote.FACTORY, 1024, quotes);
+ * new AgentRunner(hub.newIdleStrategy(orders, quotes), orderProcessor, quoteProcessor);</code></pre>
+ */
+public final class NotificationHub
+{
+    private static final long DEFAULT_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long maxParkNanos;
+
+    /**
+     * Construct a hub whose idle strategies park for at most 10ms, bounding how long a hosting thread takes to
+     * notice it has been halted.
+     */
+    public NotificationHub()
+    {
+        this(DEFAULT_MAX_PARK_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param maxPark the longest an idle strategy parks without being signalled.
+     * @param units   Time units used for the maximum park.
+     */
+    public NotificationHub(final long maxPark, final TimeUnit units)
+    {
+        if (maxPark < 1)
+        {
+            throw new IllegalArgumentException("maxPark must be > 0");
+        }
+
+        this.maxParkNanos = units.toNanos(maxPark);
+    }
+
+    /**
+     * @return a new channel, to be used as the wait strategy of one or more ring buffers.
+     */
+    public Channel newChannel()
+    {
+        return new Channel(this);
+    }
+
+    /**
+     * Create an idle strategy for a thread consuming from ring buffers signalled through the given channels.  When
+     * a duty cycle finds no work it parks until one of the channels is signalled.  Like other idle strategies it
+     * must only be used by one thread.
+     *
+     * @param channels the channels of the ring buffers the thread consumes from.
+     * @return the idle strategy.
+     * @throws IllegalArgumentException if no channels are given or a channel belongs to another hub.
+     */
+    public IdleStrategy newIdleStrategy(final Channel... channels)
+    {
+        if (channels.length == 0)
+        {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+        for (final Channel channel : channels)
+        {
+            if (channel.hub != this)
+            {
+                throw new IllegalArgumentException("Channel belongs to another hub");
+            }
+        }
+
+        final Subscriber subscriber = new Subscriber(this, Arrays.copyOf(channels, channels.length), maxParkNanos);
+        for (final Channel channel : channels)
+        {
+            channel.addSubscriber(subscriber);
+        }
+
+        return subscriber;
+    }
+
+    /**
+     * Stop signalling an idle strategy created by {@link #newIdleStrategy(Channel...)}, e.g. once the thread using
+     * it has stopped.  A thread still using it parks for the maximum park time whenever it finds no work.
+     *
+     * @param idleStrategy the idle strategy to remove from its channels.
+     * @throws IllegalArgumentException if the idle strategy was not created by this hub.
+     */
+    public void unsubscribe(final IdleStrategy idleStrategy)
+    {
+        if (!(idleStrategy instanceof Subscriber) || ((Subscriber) idleStrategy).hub != this)
+        {
+            throw new IllegalArgumentException("Idle strategy was not created by this hub");
+        }
+
+        final Subscriber subscriber = (Subscriber) idleStrategy;
+        for (final Channel channel : subscriber.channels)
+        {
+            channel.removeSubscriber(subscriber);
+        }
+    }
+
+    /**
+     * A {@link WaitStrategy} signalling the threads waiting on, or subscribed to, the ring buffers that use it.
+     */
+    public static final class Channel implements WaitStrategy
+    {
+        private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+        private final NotificationHub hub;
+        private final TargetedBlockingWaitStrategy waiters = new TargetedBlockingWaitStrategy();
+        private final AtomicReference<Subscriber[]> subscribers = new AtomicReference<>(NO_SUBSCRIBERS);
+        private final AtomicLong signalCount = new AtomicLong();
+
+        Channel(final NotificationHub hub)
+        {
+            this.hub = hub;
+        }
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException
+        {
+            return waiters.waitFor(sequence, cursor, dependentSequence, barrier);
+        }
+
+        @Override
+        public void signalAllWhenBlocking()
+        {
+            signalCount.incrementAndGet();
+            waiters.signalAllWhenBlocking();
+
+            final Subscriber[] currentSubscribers = subscribers.get();
+            for (int i = 0; i < currentSubscribers.length; i++)
+            {
+                currentSubscribers[i].wake();
+            }
+        }
+
+        /**
+         * @return the number of times this channel has been signalled, which stops increasing while its ring
+         * buffers are idle.
+         */
+        public long getSignalCount()
+        {
+            return signalCount.get();
+        }
+
+        /**
+         * @return the number of idle strategies subscribed to this channel.
+         */
+        public int getSubscriberCount()
+        {
+            return subscribers.get().length;
+        }
+
+        private void addSubscriber(final Subscriber subscriber)
+        {
+            Subscriber[] currentSubscribers;
+            Subscriber[] updatedSubscribers;
+            do
+            {
+                currentSubscribers = subscribers.get();
+                updatedSubscribers = Arrays.copyOf(currentSubscribers, currentSubscribers.length + 1);
+                updatedSubscribers[currentSubscribers.length] = subscriber;
+            }
+            while (!subscribers.compareAndSet(currentSubscribers, updatedSubscribers));
+        }
+
+        private void removeSubscriber(final Subscriber subscriber)
+        {
+            Subscriber[] currentSubscribers;
+            Subscriber[] updatedSubscribers;
+            do
+            {
+                currentSubscribers = subscribers.get();
+                int index = currentSubscribers.length - 1;
+                while (index >= 0 && currentSubscribers[index] != subscriber)
+                {
+                    index--;
+                }
+                if (index < 0)
+                {
+                    return;
+                }
+
+                updatedSubscribers = new Subscriber[currentSubscribers.length - 1];
+                System.arraycopy(currentSubscribers, 0, updatedSubscribers, 0, index);
+                System.arraycopy(
+                    currentSubscribers, index + 1, updatedSubscribers, index, updatedSubscribers.length - index);
+            }
+            while (!subscribers.compareAndSet(currentSubscribers, updatedSubscribers));
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Channel{" +
+                "signalCount=" + signalCount +
+                ", waiters=" + waiters +
+                '}';
+        }
+    }
+
+    private static final class Subscriber implements IdleStrategy
+    {
+        private final NotificationHub hub;
+        private final Channel[] channels;
+        private final long[] seenSignalCounts;
+        private final long maxParkNanos;
+        private volatile Thread parkedThread;
+
+        Subscriber(final NotificationHub hub, final Channel[] channels, final long maxParkNanos)
+        {
+            this.hub = hub;
+            this.channels = channels;
+            this.seenSignalCounts = new long[channels.length];
+            this.maxParkNanos = maxParkNanos;
+            reset();
+        }
+
+        @Override
+        public void idle(final int workCount)
+        {
+            if (workCount == 0)
+            {
+                // counts were taken before the duty cycle, so any signal since then means there may be work
+                parkedThread = Thread.currentThread();
+                if (!signalledSinceLastSeen())
+                {
+                    LockSupport.parkNanos(this, maxParkNanos);
+                }
+                parkedThread = null;
+            }
+
+            reset();
+        }
+
+        @Override
+        public void reset()
+        {
+            for (int i = 0; i < channels.length; i++)
+            {
+                seenSignalCounts[i] = channels[i].signalCount.get();
+            }
+        }
+
+        void wake()
+        {
+            final Thread thread = parkedThread;
+            if (null != thread)
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private boolean signalledSinceLastSeen()
+        {
+            for (int i = 0; i < channels.length; i++)
+            {
+                if (channels[i].signalCount.get() != seenSignalCounts[i])
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "NotificationHub.Subscriber{" +
+                "channels=" + channels.length +
+                ", maxParkNanos=" + maxParkNanos +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A lossy broadcast ring buffer for telemetry, metrics and debug streams, where producers must never be held
+ * up by slow readers.  Unlike {@link RingBuffer} there are no gating sequences: producers overwrite slots freely and
+ * each {@link Reader} tracks its own position, detecting when it has been lapped.</p>
+ *
+ * <p>Every slot carries a version, used as a seqlock.  Claiming a sequence marks the slot as being written, and
+ * publishing it sets the version to the sequence.  A reader copies the event out of the slot and then checks the
+ * version again, so a copy torn by a producer lapping the reader is discarded rather than handled.  A lapped reader
+ * skips ahead to the oldest sequence still in the buffer and counts the events it missed.</p>
+ *
+ * <p>Any number of threads may publish.</p>
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class OverwritingRingBuffer<E> implements Cursored
+{
+    private static final long NOT_WRITTEN = -1L;
+
+    private final Object[] entries;
+    private final AtomicLongArray versions;
+    private final int indexMask;
+    private final int bufferSize;
+    private final EventFactory<E> eventFactory;
+    private final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private OverwritingRingBuffer(final EventFactory<E> eventFactory, final int bufferSize)
+    {
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+
+        this.eventFactory = eventFactory;
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.entries = new Object[bufferSize];
+        this.versions = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++)
+        {
+            entries[i] = eventFactory.newInstance();
+            versions.lazySet(i, NOT_WRITTEN);
+        }
+    }
+
+    /**
+     * Create a new overwriting ring buffer.
+     *
+     * @param <E>          Class of the event stored in the ring buffer.
+     * @param eventFactory used to create the events within the ring buffer, and the copies readers take of them.
+     * @param bufferSize   number of elements to create within the ring buffer, must be a power of 2.
+     * @return a constructed ring buffer.
+     */
+    public static <E> OverwritingRingBuffer<E> create(final EventFactory<E> eventFactory, final int bufferSize)
+    {
+        return new OverwritingRingBuffer<>(eventFactory, bufferSize);
+    }
+
+    /**
+     * Claim the next sequence to publish, which never waits.  The event returned by {@link #get(long)} for the
+     * sequence may then be written and must be published with {@link #publish(long)}.
+     *
+     * @return the claimed sequence.
+     */
+    public long next()
+    {
+        // the claim is a full fence, so a reader that sees the cursor below the lapping sequence knows the slot
+        // was not yet being written when it copied it
+        final long sequence = cursor.incrementAndGet();
+        versions.set((int) sequence & indexMask, writingMarker(sequence));
+        return sequence;
+    }
+
+    /**
+     * @param sequence a claimed sequence.
+     * @return the event for the sequence, to be written by the producer that claimed it.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(final long sequence)
+    {
+        return (E) entries[(int) sequence & indexMask];
+    }
+
+    /**
+     * Publish a claimed sequence, making it visible to readers.
+     *
+     * @param sequence the claimed sequence.
+     */
+    public void publish(final long sequence)
+    {
+        versions.lazySet((int) sequence & indexMask, sequence);
+    }
+
+    /**
+     * Claim, translate and publish an event.
+     *
+     * @param translator writes the event.
+     */
+    public void publishEvent(final EventTranslator<E> translator)
+    {
+        final long sequence = next();
+        try
+        {
+            translator.translateTo(get(sequence), sequence);
+        }
+        finally
+        {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Claim, translate and publish an event.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator writes the event.
+     * @param arg0       the argument passed to the translator.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<E, A> translator, final A arg0)
+    {
+        final long sequence = next();
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * @return the highest sequence claimed by a producer.
+     */
+    @Override
+    public long getCursor()
+    {
+        return cursor.get();
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * Create a reader starting after the current cursor.  Readers are not tracked by the buffer and never slow
+     * down producers, each must only be used by one thread.
+     *
+     * @param copier copies each event out of the buffer before it is validated and handled.
+     * @return a new reader.
+     */
+    public Reader<E> newReader(final EventCopier<E> copier)
+    {
+        return new Reader<>(this, copier);
+    }
+
+    private long written(final int index)
+    {
+        final long version = versions.get(index);
+        return version < NOT_WRITTEN ? -version - 2 : version;
+    }
+
+    private static long writingMarker(final long sequence)
+    {
+        return -sequence - 2;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OverwritingRingBuffer{" +
+            "bufferSize=" + bufferSize +
+            ", cursor=" + cursor +
+            '}';
+    }
+
+    /**
+     * A non gating reader of an {@link OverwritingRingBuffer}.
+     *
+     * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+     */
+    public static final class Reader<E>
+    {
+        private final OverwritingRingBuffer<E> ringBuffer;
+        private final EventCopier<E> copier;
+        private final E copy;
+        private long nextSequence;
+        private long lostCount;
+        @SuppressWarnings("unused")
+        private volatile long readFence;
+
+        Reader(final OverwritingRingBuffer<E> ringBuffer, final EventCopier<E> copier)
+        {
+            this.ringBuffer = ringBuffer;
+            this.copier = copier;
+            this.copy = ringBuffer.eventFactory.newInstance();
+            this.nextSequence = ringBuffer.getCursor() + 1;
+        }
+
+        /**
+         * Handle the events published since the last poll, up to <code>maxEvents</code> of them.  If the reader
+         * has been lapped it first skips ahead to the oldest event still in the buffer, adding the events skipped
+         * to {@link #getLostCount()}.  Each event is passed to the handler as a validated copy.
+         *
+         * @param eventHandler to which the events are passed, returning false stops the poll.
+         * @param maxEvents    the maximum number of events to handle in this call.
+         * @return the number of events handled.
+         * @throws Exception if the handler throws.
+         */
+        public int poll(final EventPoller.Handler<E> eventHandler, final int maxEvents) throws Exception
+        {
+            if (maxEvents < 1)
+            {
+                throw new IllegalArgumentException("maxEvents must be > 0");
+            }
+
+            int handled = 0;
+            while (handled < maxEvents)
+            {
+                final long cursor = ringBuffer.getCursor();
+                final long oldestAvailable = cursor - ringBuffer.bufferSize + 1;
+                if (nextSequence < oldestAvailable)
+                {
+                    lostCount += oldestAvailable - nextSequence;
+                    nextSequence = oldestAvailable;
+                }
+
+                final long sequence = nextSequence;
+                if (sequence > cursor)
+                {
+                    break;
+                }
+
+                final int index = (int) sequence & ringBuffer.indexMask;
+                if (ringBuffer.versions.get(index) != sequence)
+                {
+                    if (ringBuffer.written(index) > sequence)
+                    {
+                        // overwritten before it could be read, skip it
+                        lostCount++;
+                        nextSequence++;
+                        continue;
+                    }
+
+                    // claimed but not yet published
+                    break;
+                }
+
+                copier.copy(ringBuffer.get(sequence), copy);
+                // a volatile write keeps the reads of the copy from moving past the version check
+                readFence = sequence;
+                if (ringBuffer.versions.get(index) != sequence ||
+                    ringBuffer.getCursor() >= sequence + ringBuffer.bufferSize)
+                {
+                    lostCount++;
+                    nextSequence++;
+                    continue;
+                }
+
+                nextSequence++;
+                handled++;
+                if (!eventHandler.onEvent(copy, sequence, handled == maxEvents || sequence == cursor))
+                {
+                    break;
+                }
+            }
+
+            return handled;
+        }
+
+        /**
+         * @return the next sequence this reader will read.
+         */
+        public long getNextSequence()
+        {
+            return nextSequence;
+        }
+
+        /**
+         * @return the number of events this reader has missed because producers lapped it.
+         */
+        public long getLostCount()
+        {
+            return lostCount;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * <p>One partition of a group of handlers that share the events of a ring buffer by key.  Each event is passed
+ * to the delegate of exactly one partition, chosen by hashing the event's key, so all events with the same key are
+ * handled in sequence order by the same handler while the partitions run in parallel.</p>
+ *
+ * <p>Events are passed on as they are processed.  To give the delegate an accurate <code>endOfBatch</code> flag,
+ * when a batch starts its events are read back from its last sequence until the last event of this partition is
+ * found, which takes a few reads as the partitions share the events.  This relies on the batch sizes passed to
+ * {@link #onBatchStart(long)} covering consecutive sequences, as those of a {@link BatchEventProcessor} do.
+ * Without them <code>endOfBatch</code> is only set when the processor's batch ends on an event of this
+ * partition.</p>
+ *
+ * <p>{@link LifecycleAware}, {@link TimeoutHandler} and {@link SequenceReportingEventHandler} delegates are passed the
+ * corresponding calls.  A {@link BatchStartAware} delegate is rejected, as the number of events of its partition in
+ * a batch is not known when the batch starts.</p>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class PartitionedEventHandler<T>
+    implements SequenceReportingEventHandler<T>, BatchStartAware, LifecycleAware, TimeoutHandler
+{
+    private final DataProvider<T> dataProvider;
+    private final KeyExtractor<? super T> keyExtractor;
+    private final int partition;
+    private final int partitionCount;
+    private final EventHandler<? super T> delegate;
+    private long batchSize;
+    private long lastSequenceInPartition = -1L;
+
+    /**
+     * @param dataProvider   the ring buffer the events are processed from, to look ahead in each batch.
+     * @param keyExtractor   extracts the key an event is partitioned by.
+     * @param partition      the partition handled, from 0 to <code>partitionCount - 1</code>.
+     * @param partitionCount the total number of partitions.
+     * @param delegate       the handler for the events of this partition.
+     * @throws IllegalArgumentException if the delegate is {@link BatchStartAware}.
+     */
+    public PartitionedEventHandler(
+        final DataProvider<T> dataProvider,
+        final KeyExtractor<? super T> keyExtractor,
+        final int partition,
+        final int partitionCount,
+        final EventHandler<? super T> delegate)
+    {
+        if (partition < 0 || partition >= partitionCount)
+        {
+            throw new IllegalArgumentException("partition must be between 0 and " + (partitionCount - 1));
+        }
+        if (delegate instanceof BatchStartAware)
+        {
+            throw new IllegalArgumentException("delegate must not be BatchStartAware");
+        }
+
+        this.dataProvider = dataProvider;
+        this.keyExtractor = keyExtractor;
+        this.partition = partition;
+        this.partitionCount = partitionCount;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Select the partition for a key.
+     *
+     * @param key            the event key.
+     * @param partitionCount the total number of partitions.
+     * @return the partition, from 0 to <code>partitionCount - 1</code>.
+     */
+    public static int partitionFor(final long key, final int partitionCount)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) ((hash & Long.MAX_VALUE) % partitionCount);
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        if (batchSize > 0)
+        {
+            lastSequenceInPartition = lastSequenceInPartition(sequence, sequence + batchSize - 1);
+            batchSize = 0;
+        }
+
+        if (isInPartition(event))
+        {
+            delegate.onEvent(event, sequence, endOfBatch || sequence == lastSequenceInPartition);
+        }
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        if (delegate instanceof SequenceReportingEventHandler)
+        {
+            ((SequenceReportingEventHandler<?>) delegate).setSequenceCallback(sequenceCallback);
+        }
+    }
+    @Override
+    public void onTimeout(final long sequence) throws Exception
+    {
+        if (delegate instanceof TimeoutHandler)
+        {
+            ((TimeoutHandler) delegate).onTimeout(sequence);
+        }
+    }
+
+    @Override
+    public void onStart()
+    {
+        if (delegate instanceof LifecycleAware)
+        {
+            ((LifecycleAware) delegate).onStart();
+        }
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        if (delegate instanceof LifecycleAware)
+        {
+            ((LifecycleAware) delegate).onShutdown();
+        }
+    }
+
+    private boolean isInPartition(final T event)
+    {
+        return partitionFor(keyExtractor.getKey(event), partitionCount) == partition;
+    }
+
+    private long lastSequenceInPartition(final long firstSequence, final long lastSequence)
+    {
+        for (long sequence = lastSequence; sequence >= firstSequence; sequence--)
+        {
+            if (isInPartition(dataProvider.get(sequence)))
+            {
+                return sequence;
+            }
+        }
+
+        return -1L;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PartitionedEventHandler{" +
+            "partition=" + partition +
+            ", partitionCount=" + partitionCount +
+            ", delegate=" + delegate +
+            '}';
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Services a number of {@link EventPoller}s, potentially over different {@link RingBuffer}s, from a
+ * single thread.  Each duty cycle polls every member in round-robin order, handling at most
+ * <code>maxEventsPerPoll</code> events from each so that a busy ring cannot starve the others.  When a
+ * whole cycle finds no events the shared {@link IdleStrategy} is applied.</p>
+ *
+ * <p>The group can either be driven by its own thread via {@link #run()}, be hosted with other {@link Agent}s
+ * by an {@link AgentRunner}, or have {@link #poll()} called from a thread that interleaves other work.
+ * Pollers must be added before the group is started.</p>
+ */
+public final class PollerGroup implements Runnable, Agent
+{
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final IdleStrategy idleStrategy;
+    private final int maxEventsPerPoll;
+    private ExceptionHandler<Object> exceptionHandler = new FatalExceptionHandler();
+    private volatile Member<?>[] members = new Member<?>[0];
+    private int startIndex = 0;
+
+    /**
+     * Construct a group that will apply the given idle strategy when a duty cycle finds no events.
+     *
+     * @param idleStrategy     to use when no events are available on any poller.
+     * @param maxEventsPerPoll upper bound on the events handled from a single poller per duty cycle.
+     */
+    public PollerGroup(final IdleStrategy idleStrategy, final int maxEventsPerPoll)
+    {
+        if (maxEventsPerPoll < 1)
+        {
+            throw new IllegalArgumentException("maxEventsPerPoll must be > 0");
+        }
+
+        this.idleStrategy = idleStrategy;
+        this.maxEventsPerPoll = maxEventsPerPoll;
+    }
+
+    /**
+     * Add a poller and the handler its events are to be passed to.  The poller's sequence should already
+     * have been added as a gating sequence of its ring buffer.
+     *
+     * @param <T>     the event type of the poller.
+     * @param poller  to be serviced by this group.
+     * @param handler to which the poller's events are dispatched.
+     * @return this group, for chaining.
+     * @throws IllegalStateException if the group is already running.
+     */
+    public synchronized <T> PollerGroup add(final EventPoller<T> poller, final EventPoller.Handler<T> handler)
+    {
+        if (running.get())
+        {
+            throw new IllegalStateException("Pollers must be added before the group is started");
+        }
+
+        final Member<?>[] current = members;
+        final Member<?>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Member<>(poller, handler);
+        members = updated;
+
+        return this;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for exceptions thrown by handlers while the group is run via
+     * {@link #run()} or {@link #doWork()}.  The event that caused the exception is treated as processed.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<Object> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Perform a single duty cycle, polling each member once in round-robin order.  Does not idle.
+     *
+     * @return the number of events handled across all pollers.
+     * @throws Exception if a handler throws, the remaining pollers are not polled in this cycle.
+     */
+    public int poll() throws Exception
+    {
+        return poll(false);
+    }
+
+    /**
+     * Signal the thread running this group to stop after the current duty cycle.
+     */
+    public void halt()
+    {
+        running.set(false);
+    }
+
+    public boolean isRunning()
+    {
+        return running.get();
+    }
+
+    /**
+     * Run duty cycles until {@link #halt()} is called, applying the idle strategy between empty cycles.
+     *
+     * @throws IllegalStateException if this group is already running in a thread.
+     */
+    @Override
+    public void run()
+    {
+        onStart();
+        try
+        {
+            idleStrategy.reset();
+            while (running.get())
+            {
+                idleStrategy.idle(doWork());
+            }
+        }
+        finally
+        {
+            onShutdown();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if this group is already running.
+     */
+    @Override
+    public void onStart()
+    {
+        if (!running.compareAndSet(false, true))
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+    }
+
+    /**
+     * Perform a single duty cycle, passing any exception thrown by a handler to the exception handler.
+     *
+     * @return the number of events handled across all pollers, 0 once halted.
+     */
+    @Override
+    public int doWork()
+    {
+        return running.get() ? pollHandlingExceptions() : 0;
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        running.set(false);
+    }
+
+    private int pollHandlingExceptions()
+    {
+        try
+        {
+            return poll(true);
+        }
+        catch (final Exception e)
+        {
+            // Not reachable, exceptions are passed to the exception handler
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int poll(final boolean handleExceptions) throws Exception
+    {
+        final Member<?>[] members = this.members;
+        final int length = members.length;
+        if (0 == length)
+        {
+            return 0;
+        }
+
+        final int start = startIndex;
+        startIndex = start + 1 == length ? 0 : start + 1;
+
+        int workCount = 0;
+        for (int i = 0; i < length; i++)
+        {
+            final int index = start + i < length ? start + i : start + i - length;
+            final Member<?> member = members[index];
+            try
+            {
+                workCount += member.poll(maxEventsPerPoll);
+            }
+            catch (final Throwable ex)
+            {
+                if (!handleExceptions)
+                {
+                    throw ex;
+                }
+
+                final Sequence sequence = member.poller.getSequence();
+                final long failedSequence = sequence.get() + 1L;
+                exceptionHandler.handleEventException(ex, failedSequence, null);
+                sequence.set(failedSequence);
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PollerGroup{" +
+            "pollers=" + members.length +
+            ", maxEventsPerPoll=" + maxEventsPerPoll +
+            ", idleStrategy=" + idleStrategy +
+            '}';
+    }
+
+    private static final class Member<T>
+    {
+        private final EventPoller<T> poller;
+        private final EventPoller.Handler<T> handler;
+
+        Member(final EventPoller<T> poller, final EventPoller.Handler<T> handler)
+        {
+            this.poller = poller;
+            this.handler = handler;
+        }
+
+        int poll(final int maxEvents) throws Exception
+        {
+            final Sequence sequence = poller.getSequence();
+            final long before = sequence.get();
+            poller.poll(handler, maxEvents);
+            return (int) (sequence.get() - before);
+        }
+    }
+}
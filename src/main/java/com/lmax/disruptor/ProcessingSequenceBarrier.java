@@ -47,6 +47,11 @@ final class ProcessingSequenceBarrier implements SequenceBarrier
         }
     }
 
+    WaitStrategy getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
     @Override
     public long waitFor(final long sequence)
         throws AlertException, InterruptedException, TimeoutException
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Opt-in metrics for a {@link BatchEventProcessor}, set with
+ * {@link BatchEventProcessor#setMetrics(ProcessorMetrics)}.  Records the number of batches and events processed,
+ * a histogram of batch sizes, and the time spent waiting on the {@link SequenceBarrier} against the time spent in
+ * the handler, from which the processor's lag behind the cursor can also be read.</p>
+ *
+ * <p>The processor's thread is the only writer.  Each batch updates a few preallocated counters with ordered
+ * stores and two calls to {@link System#nanoTime()}, without allocating.  Any thread can read the counters, and
+ * values read together may come from different batches.</p>
+ */
+public final class ProcessorMetrics
+{
+    /**
+     * Number of batch size buckets, bucket <code>i</code> counting batches of <code>2^i</code> up to
+     * <code>2^(i+1) - 1</code> events with the last bucket also counting all larger batches.
+     */
+    public static final int BATCH_SIZE_BUCKETS = 32;
+
+    private static final int BATCHES = 0;
+    private static final int EVENTS = 1;
+    private static final int WAIT_NANOS = 2;
+    private static final int HANDLER_NANOS = 3;
+
+    private final Cursored cursor;
+    private final AtomicLongArray counters = new AtomicLongArray(4);
+    private final AtomicLongArray batchSizes = new AtomicLongArray(BATCH_SIZE_BUCKETS);
+    private volatile Sequence sequence;
+
+    /**
+     * @param cursor the ring buffer, or other cursor, the processor's lag is measured against.
+     */
+    public ProcessorMetrics(final Cursored cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    void bind(final Sequence sequence)
+    {
+        if (null != this.sequence && this.sequence != sequence)
+        {
+            throw new IllegalStateException("Metrics are already in use by another processor");
+        }
+
+        this.sequence = sequence;
+    }
+
+    void onBatch(final long batchSize, final long waitNanos, final long handlerNanos)
+    {
+        increment(WAIT_NANOS, waitNanos);
+        if (batchSize > 0)
+        {
+            increment(BATCHES, 1L);
+            increment(EVENTS, batchSize);
+            increment(HANDLER_NANOS, handlerNanos);
+
+            final int bucket = Math.min(BATCH_SIZE_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(batchSize));
+            batchSizes.lazySet(bucket, batchSizes.get(bucket) + 1);
+        }
+    }
+
+    private void increment(final int counter, final long delta)
+    {
+        counters.lazySet(counter, counters.get(counter) + delta);
+    }
+
+    public long getBatchCount()
+    {
+        return counters.get(BATCHES);
+    }
+
+    public long getEventCount()
+    {
+        return counters.get(EVENTS);
+    }
+
+    /**
+     * @return the total time spent waiting on the sequence barrier for events to be available.
+     */
+    public long getWaitNanos()
+    {
+        return counters.get(WAIT_NANOS);
+    }
+
+    /**
+     * @return the total time spent passing batches of events to the handler.
+     */
+    public long getHandlerNanos()
+    {
+        return counters.get(HANDLER_NANOS);
+    }
+
+    /**
+     * @param bucket from 0 to {@link #BATCH_SIZE_BUCKETS} - 1.
+     * @return the number of batches whose size fell into the bucket.
+     */
+    public long getBatchSizeCount(final int bucket)
+    {
+        return batchSizes.get(bucket);
+    }
+
+    public double getMeanBatchSize()
+    {
+        final long batches = getBatchCount();
+        return batches == 0 ? 0 : (double) getEventCount() / batches;
+    }
+
+    /**
+     * @return how far the processor's sequence is behind the cursor, or 0 if the metrics are not yet in use.
+     */
+    public long getLag()
+    {
+        final Sequence sequence = this.sequence;
+        return null == sequence ? 0L : Math.max(0L, cursor.getCursor() - sequence.get());
+    }
+
+    /**
+     * Clear the counters, which must only be done while the processor is not running.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < counters.length(); i++)
+        {
+            counters.set(i, 0L);
+        }
+        for (int i = 0; i < BATCH_SIZE_BUCKETS; i++)
+        {
+            batchSizes.set(i, 0L);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProcessorMetrics{" +
+            "batches=" + getBatchCount() +
+            ", events=" + getEventCount() +
+            ", waitNanos=" + getWaitNanos() +
+            ", handlerNanos=" + getHandlerNanos() +
+            ", lag=" + getLag() +
+            '}';
+    }
+}
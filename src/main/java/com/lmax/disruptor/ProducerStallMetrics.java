@@ -0,0 +1,225 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Opt-in accounting of the time producers spend blocked in {@link Sequencer#next()} and
+ * {@link Sequencer#next(int)} because the ring buffer is full, set with
+ * {@link AbstractSequencer#setStallMetrics(ProducerStallMetrics)}.  Records how often a claim hit the wrap point,
+ * how long producers were parked, a histogram of stall times, and which gating {@link Sequence} was the minimum when
+ * each stall began, so the consumer that is back-pressuring the producers can be found.</p>
+ *
+ * <p>Nothing is recorded, and no time is read, unless a producer actually has to wait, so the cost falls only on
+ * producers that are already stalled.  Several producers may record stalls at once.  Any thread can read the
+ * counters, and values read together may come from different stalls.</p>
+ */
+public final class ProducerStallMetrics
+{
+    /**
+     * Number of stall time buckets, bucket <code>i</code> counting stalls of <code>2^i</code> up to
+     * <code>2^(i+1) - 1</code> nanoseconds with the last bucket also counting all longer stalls.
+     */
+    public static final int STALL_TIME_BUCKETS = 40;
+
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong parkedNanos = new AtomicLong();
+    private final AtomicLongArray stallTimes = new AtomicLongArray(STALL_TIME_BUCKETS);
+    private final AtomicReference<GatingStalls[]> gatingStalls = new AtomicReference<>(new GatingStalls[0]);
+    private volatile Sequence lastGatingSequence;
+
+    /**
+     * Find the gating sequence holding back a producer, called as a stall begins.
+     */
+    static Sequence minimumSequence(final Sequence[] gatingSequences)
+    {
+        Sequence minimum = null;
+        long minimumValue = Long.MAX_VALUE;
+        for (int i = 0; i < gatingSequences.length; i++)
+        {
+            final long value = gatingSequences[i].get();
+            if (value < minimumValue)
+            {
+                minimum = gatingSequences[i];
+                minimumValue = value;
+            }
+        }
+
+        return minimum;
+    }
+
+    void onStall(final Sequence gatingSequence, final long nanos)
+    {
+        stallCount.incrementAndGet();
+        parkedNanos.addAndGet(nanos);
+        stallTimes.incrementAndGet(Math.min(STALL_TIME_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1L, nanos))));
+
+        if (null != gatingSequence)
+        {
+            lastGatingSequence = gatingSequence;
+            final GatingStalls stalls = stallsFor(gatingSequence);
+            stalls.count.incrementAndGet();
+            stalls.nanos.addAndGet(nanos);
+        }
+    }
+
+    private GatingStalls stallsFor(final Sequence gatingSequence)
+    {
+        GatingStalls[] current;
+        GatingStalls[] updated;
+        GatingStalls added;
+        do
+        {
+            current = gatingStalls.get();
+            for (int i = 0; i < current.length; i++)
+            {
+                if (current[i].sequence == gatingSequence)
+                {
+                    return current[i];
+                }
+            }
+
+            added = new GatingStalls(gatingSequence);
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = added;
+        }
+        while (!gatingStalls.compareAndSet(current, updated));
+
+        return added;
+    }
+
+    /**
+     * @return the number of claims that found the ring buffer full and had to wait.
+     */
+    public long getStallCount()
+    {
+        return stallCount.get();
+    }
+
+    /**
+     * @return the total time producers spent parked waiting for capacity.
+     */
+    public long getParkedNanos()
+    {
+        return parkedNanos.get();
+    }
+
+    /**
+     * @param bucket from 0 to {@link #STALL_TIME_BUCKETS} - 1.
+     * @return the number of stalls whose duration fell into the bucket.
+     */
+    public long getStallTimeCount(final int bucket)
+    {
+        return stallTimes.get(bucket);
+    }
+
+    /**
+     * @return the gating sequences that have been the minimum when a stall began, in the order first seen.
+     */
+    public Sequence[] getGatingSequences()
+    {
+        final GatingStalls[] stalls = gatingStalls.get();
+        final Sequence[] sequences = new Sequence[stalls.length];
+        for (int i = 0; i < stalls.length; i++)
+        {
+            sequences[i] = stalls[i].sequence;
+        }
+
+        return sequences;
+    }
+
+    /**
+     * @param gatingSequence of a consumer.
+     * @return the number of stalls that began with <code>gatingSequence</code> as the minimum gating sequence.
+     */
+    public long getStallCount(final Sequence gatingSequence)
+    {
+        final GatingStalls stalls = find(gatingSequence);
+        return null == stalls ? 0L : stalls.count.get();
+    }
+
+    /**
+     * @param gatingSequence of a consumer.
+     * @return the time parked in stalls that began with <code>gatingSequence</code> as the minimum gating sequence.
+     */
+    public long getParkedNanos(final Sequence gatingSequence)
+    {
+        final GatingStalls stalls = find(gatingSequence);
+        return null == stalls ? 0L : stalls.nanos.get();
+    }
+
+    /**
+     * @return the minimum gating sequence at the start of the latest stall, or null if there has been none.
+     */
+    public Sequence getLastGatingSequence()
+    {
+        return lastGatingSequence;
+    }
+
+    private GatingStalls find(final Sequence gatingSequence)
+    {
+        for (final GatingStalls stalls : gatingStalls.get())
+        {
+            if (stalls.sequence == gatingSequence)
+            {
+                return stalls;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Clear the counters, which should only be done while no producer is claiming.
+     */
+    public void reset()
+    {
+        stallCount.set(0L);
+        parkedNanos.set(0L);
+        for (int i = 0; i < STALL_TIME_BUCKETS; i++)
+        {
+            stallTimes.set(i, 0L);
+        }
+        gatingStalls.set(new GatingStalls[0]);
+        lastGatingSequence = null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProducerStallMetrics{" +
+            "stalls=" + getStallCount() +
+            ", parkedNanos=" + getParkedNanos() +
+            ", lastGatingSequence=" + lastGatingSequence +
+            '}';
+    }
+
+    private static final class GatingStalls
+    {
+        private final Sequence sequence;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        GatingStalls(final Sequence sequence)
+        {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -60,6 +60,8 @@ abstract class RingBufferFields<E> extends RingBufferPad
     protected final int bufferSize;
     /*** 持有指向RingBuffer环的cursor索引指针 */
     protected final Sequencer sequencer;
+    /*** Stamps sampled publish times when latency sampling is enabled, otherwise null */
+    protected LatencySampler latencySampler;
 
     RingBufferFields(
         EventFactory<E> eventFactory,
@@ -389,6 +391,20 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.isAvailable(sequence);
     }
 
+    /**
+     * Get the highest sequence that has been published, starting from <code>lowerBound</code>, for readers that
+     * track the cursor themselves, e.g. to tell claimed but unpublished sequences of a multi producer ring apart.
+     *
+     * @param lowerBound        the sequence to start scanning from.
+     * @param availableSequence the sequence to scan to, e.g. the cursor.
+     * @return the highest published sequence, or <code>lowerBound - 1</code> if <code>lowerBound</code> is not.
+     * @see Sequencer#getHighestPublishedSequence(long, long)
+     */
+    public long getHighestPublishedSequence(final long lowerBound, final long availableSequence)
+    {
+        return sequencer.getHighestPublishedSequence(lowerBound, availableSequence);
+    }
+
     /**
      * 增加消费处理器的Sequence到MultiProducerSequencer中
      *
@@ -438,6 +454,22 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.newBarrier(sequencesToTrack);
     }
 
+    /**
+     * Create a new SequenceBarrier that waits using the supplied wait strategy instead of the one this ring buffer
+     * was created with.  For example a latency critical consumer can busy spin while others on the same ring
+     * buffer block.
+     *
+     * @param waitStrategy     used by the barrier to wait for events.
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @throws UnsupportedOperationException if the sequencer does not extend {@link AbstractSequencer}.
+     * @see AbstractSequencer#newBarrier(WaitStrategy, Sequence...)
+     */
+    public SequenceBarrier newBarrier(WaitStrategy waitStrategy, Sequence... sequencesToTrack)
+    {
+        return abstractSequencer().newBarrier(waitStrategy, sequencesToTrack);
+    }
+
     /**
      * Creates an event poller for this ring buffer gated on the supplied sequences.
      *
@@ -449,6 +481,21 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.newPoller(this, gatingSequences);
     }
 
+    /**
+     * Creates a tap reading this ring buffer behind the cursor without gating its producers.
+     *
+     * @param eventFactory   used to create the event the tap copies each event into.
+     * @param eventCopier    copies an event out of the ring buffer.
+     * @param sampleInterval the tap reads only sequences that are a multiple of this, 1 to read every event.
+     * @return A tap that will start reading from the next event published.
+     * @throws UnsupportedOperationException if the sequencer does not extend {@link AbstractSequencer}.
+     * @see EventTap
+     */
+    public EventTap<E> newTap(final EventFactory<E> eventFactory, final EventCopier<E> eventCopier, final int sampleInterval)
+    {
+        return new EventTap<>(this, abstractSequencer(), eventCopier, eventFactory.newInstance(), sampleInterval);
+    }
+
     /**
      * 获取RingBuffer中cursor位置，多线程是可见的，被volatile标注
      * Get the current cursor value for the ring buffer.  The actual value received
@@ -904,6 +951,11 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
     @Override
     public void publish(long sequence)
     {
+        final LatencySampler latencySampler = this.latencySampler;
+        if (null != latencySampler)
+        {
+            latencySampler.onPublish(sequence);
+        }
         sequencer.publish(sequence);
     }
 
@@ -918,6 +970,11 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
     @Override
     public void publish(long lo, long hi)
     {
+        final LatencySampler latencySampler = this.latencySampler;
+        if (null != latencySampler)
+        {
+            latencySampler.onPublish(lo, hi);
+        }
         sequencer.publish(lo, hi);
     }
 
@@ -932,6 +989,45 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.remainingCapacity();
     }
 
+    /**
+     * Stamp the time every <code>sampleInterval</code>th sequence is published, so the latency from publication
+     * to each stage completing those events can be measured by a {@link LatencyRecorder} per
+     * {@link BatchEventProcessor}.  Should be enabled before events are published.
+     *
+     * @param sampleInterval the distance between sampled sequences, a power of 2 no larger than the buffer size.
+     * @return the sampler to create {@link LatencyRecorder}s from.
+     */
+    public LatencySampler enableLatencySampling(final int sampleInterval)
+    {
+        final LatencySampler latencySampler = new LatencySampler(bufferSize, sampleInterval);
+        this.latencySampler = latencySampler;
+
+        return latencySampler;
+    }
+
+    /**
+     * Record how often, for how long, and on which consumer producers stall in {@link #next()} and
+     * {@link #next(int)} because this ring buffer is full.
+     *
+     * @param stallMetrics to record stalls in, or null to stop recording.
+     * @throws UnsupportedOperationException if the sequencer does not extend {@link AbstractSequencer}.
+     * @see AbstractSequencer#setStallMetrics(ProducerStallMetrics)
+     */
+    public void setStallMetrics(final ProducerStallMetrics stallMetrics)
+    {
+        abstractSequencer().setStallMetrics(stallMetrics);
+    }
+
+    private AbstractSequencer abstractSequencer()
+    {
+        if (sequencer instanceof AbstractSequencer)
+        {
+            return (AbstractSequencer) sequencer;
+        }
+
+        throw new UnsupportedOperationException(sequencer.getClass().getName() + " does not extend AbstractSequencer");
+    }
+
     private void checkBounds(final EventTranslator<E>[] translators, final int batchStartsAt, final int batchSize)
     {
         checkBatchSizing(batchStartsAt, batchSize);
@@ -1009,7 +1105,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         finally
         {
             //发布元素到RingBuffer
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1021,7 +1117,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1033,7 +1129,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1047,7 +1143,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1059,7 +1155,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1080,7 +1176,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1100,7 +1196,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1121,7 +1217,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1142,7 +1238,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1162,7 +1258,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
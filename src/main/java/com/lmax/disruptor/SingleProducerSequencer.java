@@ -15,8 +15,6 @@
  */
 package com.lmax.disruptor;
 
-import java.util.concurrent.locks.LockSupport;
-
 import com.lmax.disruptor.util.Util;
 
 abstract class SingleProducerSequencerPad extends AbstractSequencer {
@@ -50,6 +48,12 @@ abstract class SingleProducerSequencerFields extends SingleProducerSequencerPad
 
 public final class SingleProducerSequencer extends SingleProducerSequencerFields {
     protected long p1, p2, p3, p4, p5, p6, p7;
+    /**
+     * The producer's claim, which is otherwise only held in {@link #nextValue}, for readers on other threads.  Only
+     * stored once {@link #claimsTracked}, so producers without a tap pay nothing for it.
+     */
+    private final Sequence claimed = new Sequence(Sequence.INITIAL_VALUE);
+    private volatile boolean claimsTracked;
 
     /**
      * Construct a Sequencer with the selected wait strategy and buffer size.
@@ -128,15 +132,16 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
         if (wrapPoint > cachedGatingSequence || cachedGatingSequence > nextValue) {
             cursor.setVolatile(nextValue);  // StoreLoad fence
 
-            long minSequence;
-            while (wrapPoint > (minSequence = Util.getMinimumSequence(gatingSequences, nextValue))) {
-                LockSupport.parkNanos(1L); // TODO: Use waitStrategy to spin?
+            long minSequence = Util.getMinimumSequence(gatingSequences, nextValue);
+            if (wrapPoint > minSequence) {
+                minSequence = awaitCapacity(wrapPoint, nextValue, minSequence);
             }
 
             this.cachedValue = minSequence;
         }
 
         this.nextValue = nextSequence;
+        storeClaim(nextSequence);
 
         return nextSequence;
     }
@@ -163,6 +168,7 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
         }
 
         long nextSequence = this.nextValue += n;
+        storeClaim(nextSequence);
 
         return nextSequence;
     }
@@ -185,6 +191,7 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
     @Override
     public void claim(long sequence) {
         this.nextValue = sequence;
+        storeClaim(sequence);
     }
 
     /**
@@ -193,7 +200,7 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
     @Override
     public void publish(long sequence) {
         cursor.set(sequence);
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -216,4 +223,29 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
     public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
         return availableSequence;
     }
+
+    /**
+     * Once {@link #trackClaims()} has been called each claim is stored with a volatile store, which HotSpot follows
+     * with a full fence, as it does the CAS of the {@link MultiProducerSequencer}'s claim.  That keeps the
+     * producer's writes to the claimed slots from becoming visible ahead of the claim.  A claim made as tracking
+     * starts may not have been stored, so until the producer has stored one no bound is known.
+     *
+     * @see AbstractSequencer#getClaimedSequenceBound()
+     */
+    @Override
+    public long getClaimedSequenceBound() {
+        final long claimed = this.claimed.get();
+        return claimed == Sequence.INITIAL_VALUE ? Long.MAX_VALUE : claimed;
+    }
+
+    @Override
+    void trackClaims() {
+        claimsTracked = true;
+    }
+
+    private void storeClaim(long sequence) {
+        if (claimsTracked) {
+            claimed.setVolatile(sequence);
+        }
+    }
 }
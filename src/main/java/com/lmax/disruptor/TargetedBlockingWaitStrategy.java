@@ -0,0 +1,186 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.ThreadHints;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Blocking strategy that parks each waiting thread with {@link LockSupport} and wakes only the threads whose
+ * sequence has been published, rather than waking every waiter through a shared lock as
+ * {@link BlockingWaitStrategy} and {@link LiteBlockingWaitStrategy} do.</p>
+ *
+ * <p>Each thread that blocks is given a waiter node, registered in a copy on write array the first time the thread
+ * blocks and reused for every later wait, so blocking does not allocate once a thread has waited.  A waiter records
+ * the sequence it needs, along with its cursor and barrier, then increments a waiter count before re-checking the
+ * cursor and parking.  A publisher reads the count with a plain volatile read and returns at once when nobody is
+ * waiting, otherwise it unparks just the waiters whose cursor has reached their sequence, or whose barrier has been
+ * alerted.</p>
+ *
+ * <p>The increment orders a waiter's registration before its re-check of the cursor, so a publisher whose cursor
+ * store is ordered before its read of the count, as a multi producer's claim is, always sees the waiter.  A single
+ * producer stores the cursor without a full fence, so in the narrow window where that store is not yet visible the
+ * publisher can miss a waiter; waiters therefore park for at most a millisecond at a time, which bounds the delay
+ * rather than leaving the consumer parked until the next publication.</p>
+ */
+public final class TargetedBlockingWaitStrategy implements WaitStrategy
+{
+    private static final Waiter[] NO_WAITERS = new Waiter[0];
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicReference<Waiter[]> waiters = new AtomicReference<>(NO_WAITERS);
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final ThreadLocal<Waiter> waiterByThread = new ThreadLocal<>();
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+        throws AlertException, InterruptedException
+    {
+        long availableSequence;
+        if (cursorSequence.get() < sequence)
+        {
+            final Waiter waiter = waiter();
+            waiter.sequence = sequence;
+            waiter.cursorSequence = cursorSequence;
+            waiter.barrier = barrier;
+            waiter.waiting = true;
+
+            final Object parkEvent = FlightRecorderEvents.beginPark();
+            // orders our registration before the re-check of the cursor below
+            waiterCount.getAndIncrement();
+            try
+            {
+                while (cursorSequence.get() < sequence)
+                {
+                    barrier.checkAlert();
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                    if (Thread.interrupted())
+                    {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+            finally
+            {
+                waiter.waiting = false;
+                waiterCount.getAndDecrement();
+                FlightRecorderEvents.endPark(parkEvent, this, sequence);
+            }
+        }
+
+        while ((availableSequence = dependentSequence.get()) < sequence)
+        {
+            barrier.checkAlert();
+            ThreadHints.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        if (waiterCount.get() == 0)
+        {
+            return;
+        }
+
+        final Waiter[] currentWaiters = waiters.get();
+        for (int i = 0; i < currentWaiters.length; i++)
+        {
+            final Waiter waiter = currentWaiters[i];
+            if (waiter.waiting &&
+                (waiter.cursorSequence.get() >= waiter.sequence || waiter.barrier.isAlerted()))
+            {
+                LockSupport.unpark(waiter.thread);
+            }
+        }
+    }
+
+    /**
+     * @return the number of threads currently waiting.
+     */
+    public int getWaiterCount()
+    {
+        return waiterCount.get();
+    }
+
+    private Waiter waiter()
+    {
+        Waiter waiter = waiterByThread.get();
+        if (null == waiter)
+        {
+            waiter = new Waiter(Thread.currentThread());
+            addWaiter(waiter);
+            waiterByThread.set(waiter);
+        }
+
+        return waiter;
+    }
+
+    /**
+     * Register a new thread's waiter, dropping the waiters of threads that have terminated.
+     */
+    private void addWaiter(final Waiter waiter)
+    {
+        Waiter[] currentWaiters;
+        Waiter[] updatedWaiters;
+        do
+        {
+            currentWaiters = waiters.get();
+            final Waiter[] candidates = new Waiter[currentWaiters.length + 1];
+            int size = 0;
+            for (final Waiter current : currentWaiters)
+            {
+                if (current.thread.isAlive())
+                {
+                    candidates[size++] = current;
+                }
+            }
+            candidates[size++] = waiter;
+            updatedWaiters = size == candidates.length ? candidates : Arrays.copyOf(candidates, size);
+        }
+        while (!waiters.compareAndSet(currentWaiters, updatedWaiters));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TargetedBlockingWaitStrategy{" +
+            "waiterCount=" + getWaiterCount() +
+            '}';
+    }
+
+    private static final class Waiter
+    {
+        private final Thread thread;
+        // written by the waiting thread before it sets waiting, read by publishers only while waiting is set
+        private long sequence;
+        private Sequence cursorSequence;
+        private SequenceBarrier barrier;
+        private volatile boolean waiting;
+
+        Waiter(final Thread thread)
+        {
+            this.thread = thread;
+        }
+    }
+}
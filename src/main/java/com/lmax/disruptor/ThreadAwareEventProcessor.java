@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * An {@link EventProcessor} that records the thread it is run on, so that it can be reported e.g. when the
+ * processor stalls, and that can run a hook on that thread as it starts, e.g. to pin the thread to a CPU.
+ */
+public interface ThreadAwareEventProcessor extends EventProcessor
+{
+    /**
+     * @return the thread last started to run this processor, or null if it has not been run.
+     */
+    Thread getThread();
+
+    /**
+     * Set a task to run on the processor's thread each time {@link #run()} starts, before any handler is
+     * notified of the start.  It must be set before the processor is started and must not throw.
+     *
+     * @param threadStartHook the task to run.
+     */
+    void setThreadStartHook(Runnable threadStartHook);
+}
@@ -38,19 +38,27 @@ public class TimeoutBlockingWaitStrategy implements WaitStrategy
         long availableSequence;
         if (cursorSequence.get() < sequence)
         {
-            synchronized (mutex)
+            final Object parkEvent = FlightRecorderEvents.beginPark();
+            try
             {
-                //检测是否有数据可以消费
-                while (cursorSequence.get() < sequence)
+                synchronized (mutex)
                 {
-                    barrier.checkAlert();
-                    timeoutNanos = awaitNanos(mutex, timeoutNanos);
-                    if (timeoutNanos <= 0)
+                    //检测是否有数据可以消费
+                    while (cursorSequence.get() < sequence)
                     {
-                        throw TimeoutException.INSTANCE;
+                        barrier.checkAlert();
+                        timeoutNanos = awaitNanos(mutex, timeoutNanos);
+                        if (timeoutNanos <= 0)
+                        {
+                            throw TimeoutException.INSTANCE;
+                        }
                     }
                 }
             }
+            finally
+            {
+                FlightRecorderEvents.endPark(parkEvent, this, sequence);
+            }
         }
 
         while ((availableSequence = dependentSequence.get()) < sequence)
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Clock;
+import com.lmax.disruptor.util.LongHashIndex;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A stage that aggregates events into tumbling time windows per key, e.g. a per second VWAP and trade count per
+ * instrument, and publishes one {@link WindowAggregate} per key into a downstream {@link RingBuffer} when a window
+ * closes.</p>
+ *
+ * <p>A window closes when an event's timestamp falls beyond it.  While events keep arriving only their timestamps
+ * close windows, so timestamps that lag the {@link Clock}, or are replayed, are aggregated as usual.  Once no event
+ * has arrived for the idle timeout, the open window is also closed on {@link TimeoutHandler#onTimeout(long)} if the
+ * clock has passed its end.  Use a wait strategy that times out, such as {@link TimeoutBlockingWaitStrategy}, to
+ * close windows while no events arrive.  Events for a window that has closed, or older than the open window, are
+ * not aggregated and are counted by {@link #getLateEventCount()}.  Events for a new key once a window holds
+ * <code>maxKeys</code> keys are not aggregated either and are counted by {@link #getOverflowEventCount()}.</p>
+ *
+ * <p>Aggregates are held in primitive arrays indexed through a {@link LongHashIndex}, and results are handed to
+ * the downstream translator through a single reused {@link WindowAggregate}, so the handler does not allocate
+ * once constructed.  Publishing blocks if the downstream ring buffer is full.</p>
+ *
+ * @param <T> the type of event aggregated.
+ * @param <R> the type of event the window results are published as.
+ */
+public final class WindowedAggregationHandler<T, R>
+    implements EventHandler<T>, TimeoutHandler
+{
+    /**
+     * Reads the fields an event is aggregated by.
+     *
+     * @param <T> the type of event aggregated.
+     */
+    public interface EventReader<T>
+    {
+        long getKey(T event);
+
+        /**
+         * @return the event time, in the units of the {@link Clock} and window length.
+         */
+        long getTimestamp(T event);
+
+        double getValue(T event);
+
+        /**
+         * @return the weight of the value, e.g. the traded quantity for a VWAP, or 1.
+         */
+        double getWeight(T event);
+    }
+
+    /**
+     * A read only view of the aggregate of one key over one window, valid only for the duration of the call to
+     * the translator it is passed to.
+     */
+    public static final class WindowAggregate
+    {
+        private long key;
+        private long windowStart;
+        private long windowEnd;
+        private long count;
+        private double sum;
+        private double weightedSum;
+        private double weight;
+        private double min;
+        private double max;
+
+        public long getKey()
+        {
+            return key;
+        }
+
+        public long getWindowStart()
+        {
+            return windowStart;
+        }
+
+        /**
+         * @return the end of the window, exclusive.
+         */
+        public long getWindowEnd()
+        {
+            return windowEnd;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public double getSum()
+        {
+            return sum;
+        }
+
+        public double getMin()
+        {
+            return min;
+        }
+
+        public double getMax()
+        {
+            return max;
+        }
+
+        public double getWeight()
+        {
+            return weight;
+        }
+
+        public double getMean()
+        {
+            return sum / count;
+        }
+
+        /**
+         * @return the weighted average of the values, e.g. the VWAP when weighted by quantity.
+         */
+        public double getWeightedMean()
+        {
+            return weightedSum / weight;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "WindowAggregate{" +
+                "key=" + key +
+                ", windowStart=" + windowStart +
+                ", windowEnd=" + windowEnd +
+                ", count=" + count +
+                ", sum=" + sum +
+                ", min=" + min +
+                ", max=" + max +
+                ", weightedMean=" + getWeightedMean() +
+                '}';
+        }
+    }
+
+    private static final long NO_WINDOW = Long.MIN_VALUE;
+
+    private final EventReader<? super T> eventReader;
+    private final long windowLength;
+    private final RingBuffer<R> downstream;
+    private final EventTranslatorOneArg<R, WindowAggregate> translator;
+    private final Clock clock;
+    private final long idleTimeout;
+    private final LongHashIndex slotByKey;
+    private final long[] keys;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] weightedSums;
+    private final double[] weights;
+    private final double[] mins;
+    private final double[] maxs;
+    private final WindowAggregate aggregate = new WindowAggregate();
+    private long windowStart = NO_WINDOW;
+    private long closedUntil = Long.MIN_VALUE;
+    private long lastBatchTime;
+    // written only by the consumer thread, so lazySet is enough to publish them to readers on other threads
+    private final AtomicLong lateEventCount = new AtomicLong();
+    private final AtomicLong overflowEventCount = new AtomicLong();
+    private final AtomicLong windowCount = new AtomicLong();
+
+    /**
+     * @param eventReader  reads the key, timestamp, value and weight of each event.
+     * @param windowLength the length of each window, in the units of the timestamps.
+     * @param maxKeys      the maximum number of distinct keys in a window.
+     * @param downstream   the ring buffer window results are published to.
+     * @param translator   writes a window result into a downstream event.
+     * @param clock        the wall clock used to close idle windows.
+     * @param idleTimeout  how long no event must arrive for, in the units of the clock, before the open window
+     *                     may be closed by the clock.
+     */
+    public WindowedAggregationHandler(
+        final EventReader<? super T> eventReader,
+        final long windowLength,
+        final int maxKeys,
+        final RingBuffer<R> downstream,
+        final EventTranslatorOneArg<R, WindowAggregate> translator,
+        final Clock clock,
+        final long idleTimeout)
+    {
+        if (windowLength < 1)
+        {
+            throw new IllegalArgumentException("windowLength must be > 0");
+        }
+        if (idleTimeout < 0)
+        {
+            throw new IllegalArgumentException("idleTimeout must be >= 0");
+        }
+
+        this.eventReader = eventReader;
+        this.windowLength = windowLength;
+        this.downstream = downstream;
+        this.translator = translator;
+        this.clock = clock;
+        this.idleTimeout = idleTimeout;
+        this.slotByKey = new LongHashIndex(maxKeys);
+        this.keys = new long[maxKeys];
+        this.counts = new long[maxKeys];
+        this.sums = new double[maxKeys];
+        this.weightedSums = new double[maxKeys];
+        this.weights = new double[maxKeys];
+        this.mins = new double[maxKeys];
+        this.maxs = new double[maxKeys];
+    }
+
+    /**
+     * Aggregate using the given clock, closing the open window by the clock once no event has arrived for a
+     * window length.
+     *
+     * @param eventReader  reads the key, timestamp, value and weight of each event.
+     * @param windowLength the length of each window, in the units of the timestamps.
+     * @param maxKeys      the maximum number of distinct keys in a window.
+     * @param downstream   the ring buffer window results are published to.
+     * @param translator   writes a window result into a downstream event.
+     * @param clock        the wall clock used to close idle windows.
+     */
+    public WindowedAggregationHandler(
+        final EventReader<? super T> eventReader,
+        final long windowLength,
+        final int maxKeys,
+        final RingBuffer<R> downstream,
+        final EventTranslatorOneArg<R, WindowAggregate> translator,
+        final Clock clock)
+    {
+        this(eventReader, windowLength, maxKeys, downstream, translator, clock, windowLength);
+    }
+
+    /**
+     * Aggregate using the system clock, with timestamps in milliseconds.
+     *
+     * @param eventReader  reads the key, timestamp, value and weight of each event.
+     * @param windowLength the length of each window in milliseconds.
+     * @param maxKeys      the maximum number of distinct keys in a window.
+     * @param downstream   the ring buffer window results are published to.
+     * @param translator   writes a window result into a downstream event.
+     */
+    public WindowedAggregationHandler(
+        final EventReader<? super T> eventReader,
+        final long windowLength,
+        final int maxKeys,
+        final RingBuffer<R> downstream,
+        final EventTranslatorOneArg<R, WindowAggregate> translator)
+    {
+        this(eventReader, windowLength, maxKeys, downstream, translator, Clock.MILLISECONDS);
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        final long timestamp = eventReader.getTimestamp(event);
+        if (windowStart != NO_WINDOW && timestamp >= windowStart + windowLength)
+        {
+            closeWindow();
+        }
+
+        if (windowStart == NO_WINDOW && timestamp >= closedUntil)
+        {
+            windowStart = timestamp - floorMod(timestamp, windowLength);
+        }
+
+        if (windowStart == NO_WINDOW || timestamp < windowStart)
+        {
+            lateEventCount.lazySet(lateEventCount.get() + 1);
+        }
+        else
+        {
+            aggregate(eventReader.getKey(event), eventReader.getValue(event), eventReader.getWeight(event));
+        }
+
+        if (endOfBatch)
+        {
+            lastBatchTime = clock.currentTime();
+        }
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws Exception
+    {
+        final long now = clock.currentTime();
+        if (windowStart != NO_WINDOW && now - lastBatchTime >= idleTimeout && now >= windowStart + windowLength)
+        {
+            closeWindow();
+        }
+    }
+
+    /**
+     * @return the number of events that arrived after their window had closed and were not aggregated.
+     */
+    public long getLateEventCount()
+    {
+        return lateEventCount.get();
+    }
+
+    /**
+     * @return the number of events for a new key that were not aggregated as their window already held
+     * <code>maxKeys</code> keys.
+     */
+    public long getOverflowEventCount()
+    {
+        return overflowEventCount.get();
+    }
+
+    /**
+     * @return the number of windows closed.
+     */
+    public long getWindowCount()
+    {
+        return windowCount.get();
+    }
+
+    private void aggregate(final long key, final double value, final double weight)
+    {
+        int slot = (int) slotByKey.get(key);
+        if (slot == LongHashIndex.MISSING_VALUE)
+        {
+            slot = slotByKey.size();
+            if (slot == keys.length)
+            {
+                overflowEventCount.lazySet(overflowEventCount.get() + 1);
+                return;
+            }
+
+            slotByKey.put(key, slot);
+            keys[slot] = key;
+            counts[slot] = 0;
+            sums[slot] = 0;
+            weightedSums[slot] = 0;
+            weights[slot] = 0;
+            mins[slot] = value;
+            maxs[slot] = value;
+        }
+
+        counts[slot]++;
+        sums[slot] += value;
+        weightedSums[slot] += value * weight;
+        weights[slot] += weight;
+        if (value < mins[slot])
+        {
+            mins[slot] = value;
+        }
+        if (value > maxs[slot])
+        {
+            maxs[slot] = value;
+        }
+    }
+
+    private void closeWindow()
+    {
+        final WindowAggregate aggregate = this.aggregate;
+        aggregate.windowStart = windowStart;
+        aggregate.windowEnd = windowStart + windowLength;
+
+        for (int slot = 0, size = slotByKey.size(); slot < size; slot++)
+        {
+            aggregate.key = keys[slot];
+            aggregate.count = counts[slot];
+            aggregate.sum = sums[slot];
+            aggregate.weightedSum = weightedSums[slot];
+            aggregate.weight = weights[slot];
+            aggregate.min = mins[slot];
+            aggregate.max = maxs[slot];
+            downstream.publishEvent(translator, aggregate);
+        }
+
+        slotByKey.clear();
+        closedUntil = aggregate.windowEnd;
+        windowStart = NO_WINDOW;
+        windowCount.lazySet(windowCount.get() + 1);
+    }
+
+    private static long floorMod(final long x, final long y)
+    {
+        final long mod = x % y;
+        return mod < 0 ? mod + y : mod;
+    }
+}
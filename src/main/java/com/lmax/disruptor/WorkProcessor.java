@@ -21,12 +21,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * <p>A {@link WorkProcessor} wraps a single {@link WorkHandler}, effectively consuming the sequence
  * and ensuring appropriate barriers.</p>
  *
- * <p>Generally, this will be used as part of a {@link WorkerPool}.</p>
+ * <p>Generally, this will be used as part of a {@link WorkerPool}.  It can also be hosted alongside other
+ * processors by an {@link AgentRunner}, in which case work is claimed by non-blocking calls to {@link #doWork()}.</p>
  *
  * @param <T> event implementation storing the details for the work to processed.
  */
 public final class WorkProcessor<T>
-    implements EventProcessor
+    implements ThreadAwareEventProcessor, Agent
 {
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
@@ -46,6 +47,13 @@ public final class WorkProcessor<T>
     };
 
     private final TimeoutHandler timeoutHandler;
+    private Runnable threadStartHook;
+    private volatile Thread thread;
+
+    // State carried between calls to doWork(), only touched by the hosting thread
+    private boolean agentProcessedSequence = true;
+    private long agentCachedAvailableSequence = Long.MIN_VALUE;
+    private long agentNextSequence;
 
     /**
      * Construct a {@link WorkProcessor}.
@@ -97,6 +105,18 @@ public final class WorkProcessor<T>
         return running.get();
     }
 
+    @Override
+    public Thread getThread()
+    {
+        return thread;
+    }
+
+    @Override
+    public void setThreadStartHook(final Runnable threadStartHook)
+    {
+        this.threadStartHook = threadStartHook;
+    }
+
     /**
      * It is ok to have another thread re-run this method after a halt().
      *
@@ -109,6 +129,11 @@ public final class WorkProcessor<T>
         {
             throw new IllegalStateException("Thread is already running");
         }
+        thread = Thread.currentThread();
+        if (null != threadStartHook)
+        {
+            threadStartHook.run();
+        }
         sequenceBarrier.clearAlert();
 
         notifyStart();
@@ -172,6 +197,105 @@ public final class WorkProcessor<T>
         running.set(false);
     }
 
+    /**
+     * Prepare this processor to be driven via {@link #doWork()} from the calling thread.
+     *
+     * @throws IllegalStateException if this processor is already running.
+     */
+    @Override
+    public void onStart()
+    {
+        if (!running.compareAndSet(false, true))
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+        thread = Thread.currentThread();
+        sequenceBarrier.clearAlert();
+
+        notifyStart();
+
+        agentProcessedSequence = true;
+        agentCachedAvailableSequence = Long.MIN_VALUE;
+        agentNextSequence = sequence.get();
+    }
+
+    /**
+     * Claim and process work that is available now, checking the barrier at most once so the call never waits.
+     * As with {@link #run()} a claimed sequence stays with this processor until it has been processed, which
+     * may be on a later call.
+     *
+     * @return the number of events processed.
+     */
+    @Override
+    public int doWork()
+    {
+        int workCount = 0;
+        boolean barrierChecked = false;
+        T event = null;
+        while (running.get())
+        {
+            try
+            {
+                if (agentProcessedSequence)
+                {
+                    agentProcessedSequence = false;
+                    do
+                    {
+                        agentNextSequence = workSequence.get() + 1L;
+                        sequence.set(agentNextSequence - 1L);
+                    }
+                    while (!workSequence.compareAndSet(agentNextSequence - 1L, agentNextSequence));
+                }
+
+                if (agentCachedAvailableSequence >= agentNextSequence)
+                {
+                    event = ringBuffer.get(agentNextSequence);
+                    workHandler.onEvent(event);
+                    agentProcessedSequence = true;
+                    workCount++;
+                }
+                else if (barrierChecked || sequenceBarrier.getCursor() < agentNextSequence)
+                {
+                    break;
+                }
+                else
+                {
+                    barrierChecked = true;
+                    agentCachedAvailableSequence = sequenceBarrier.waitFor(agentNextSequence);
+                }
+            }
+            catch (final TimeoutException e)
+            {
+                notifyTimeout(sequence.get());
+                break;
+            }
+            catch (final AlertException ex)
+            {
+                break;
+            }
+            catch (final Throwable ex)
+            {
+                // handle, mark as processed, unless the exception handler threw an exception
+                exceptionHandler.handleEventException(ex, agentNextSequence, event);
+                agentProcessedSequence = true;
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
+    /**
+     * Complete driving this processor via {@link #doWork()}, after which it may be started again.
+     */
+    @Override
+    public void onShutdown()
+    {
+        notifyShutdown();
+
+        running.set(false);
+    }
+
     private void notifyTimeout(final long availableSequence)
     {
         try
@@ -117,6 +117,23 @@ public final class WorkerPool<T>
         return sequences;
     }
 
+    /**
+     * @param workerSequence the sequence of one of the workers, see {@link #getWorkerSequences()}.
+     * @return the thread last started to run that worker, or null if it has not been run.
+     */
+    public Thread getWorkerThread(final Sequence workerSequence)
+    {
+        for (WorkProcessor<?> processor : workProcessors)
+        {
+            if (processor.getSequence() == workerSequence)
+            {
+                return processor.getThread();
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Start the worker pool processing events in sequence.
      *
@@ -26,7 +26,7 @@ package com.lmax.disruptor;
  * This strategy will use 100% CPU, but will more readily give up the CPU than a busy spin strategy if other threads
  * require CPU resource.
  */
-public final class YieldingWaitStrategy implements WaitStrategy
+public final class YieldingWaitStrategy implements NonSignallingWaitStrategy
 {
     private static final int SPIN_TRIES = 100;
 
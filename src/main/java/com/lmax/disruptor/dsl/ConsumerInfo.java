@@ -9,6 +9,13 @@ interface ConsumerInfo
 {
     Sequence[] getSequences();
 
+    String getName();
+
+    /**
+     * @return the thread last started to run the consumer that owns <code>sequence</code>, or null if not known.
+     */
+    Thread getThread(Sequence sequence);
+
     SequenceBarrier getBarrier();
 
     boolean isEndOfChain();
@@ -18,6 +18,7 @@ package com.lmax.disruptor.dsl;
 import com.lmax.disruptor.*;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * EventHandler和EventProcessor进行关联
@@ -31,7 +32,8 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         new IdentityHashMap<>();
     private final Map<Sequence, ConsumerInfo> eventProcessorInfoBySequence =
         new IdentityHashMap<>();
-    private final Collection<ConsumerInfo> consumerInfos = new ArrayList<>();
+    // copy on write so monitoring threads can iterate while consumers are still being added
+    private final Collection<ConsumerInfo> consumerInfos = new CopyOnWriteArrayList<>();
 
     public void add(
         final EventProcessor eventprocessor,
@@ -44,6 +46,32 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         consumerInfos.add(consumerInfo);
     }
 
+    /**
+     * Fuse a single handler stage into the stage it depends on, if that stage has no other dependents
+     * and was itself created from an {@link EventHandler}.
+     *
+     * @return true if the stage was fused.
+     */
+    public boolean fuse(final EventHandler<? super T> handler, final Sequence upstream)
+    {
+        final ConsumerInfo upstreamInfo = getEventProcessorInfo(upstream);
+        final EventProcessorInfo<T> downstreamInfo = eventProcessorInfoByEventHandler.get(handler);
+        if (!(upstreamInfo instanceof EventProcessorInfo) || null == downstreamInfo)
+        {
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        final EventProcessorInfo<T> upstreamProcessorInfo = (EventProcessorInfo<T>) upstreamInfo;
+        if (!upstreamProcessorInfo.canFuse(downstreamInfo))
+        {
+            return false;
+        }
+
+        upstreamProcessorInfo.fuse(downstreamInfo);
+        return true;
+    }
+
     public void add(final EventProcessor processor)
     {
         final EventProcessorInfo<T> consumerInfo = new EventProcessorInfo<>(processor, null, null);
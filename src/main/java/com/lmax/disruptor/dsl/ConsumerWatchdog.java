@@ -0,0 +1,200 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Watches the consumers of a {@link Disruptor} for one that has stopped making progress, such as a handler that
+ * has hung, before the ring buffer fills and every producer blocks behind it.  Created with
+ * {@link Disruptor#newWatchdog(long, TimeUnit, StalledConsumerHandler)} and run on a thread of its own until
+ * {@link #halt()}ed.</p>
+ *
+ * <p>Every quarter of the stall timeout the watchdog reads the sequence of each running consumer.  A consumer is
+ * stalled once its sequence has stayed behind the events available to it, those published to the ring buffer or
+ * processed by the stages it follows, without changing for the stall timeout.  A consumer that is only waiting on a stalled stage ahead of
+ * it is therefore not reported.  The {@link StalledConsumerHandler} is then called with the consumer and the
+ * stack of its thread.  The consumers are only read, so they need not cooperate in any way.</p>
+ */
+public final class ConsumerWatchdog implements Runnable
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private final RingBuffer<?> ringBuffer;
+    private final ConsumerRepository<?> consumerRepository;
+    private final long stallTimeoutNanos;
+    private final StalledConsumerHandler stalledConsumerHandler;
+    private final Map<Sequence, Progress> progress = new IdentityHashMap<>();
+
+    ConsumerWatchdog(
+        final RingBuffer<?> ringBuffer,
+        final ConsumerRepository<?> consumerRepository,
+        final long stallTimeout,
+        final TimeUnit unit,
+        final StalledConsumerHandler stalledConsumerHandler)
+    {
+        if (stallTimeout <= 0)
+        {
+            throw new IllegalArgumentException("stallTimeout must be > 0");
+        }
+
+        this.ringBuffer = ringBuffer;
+        this.consumerRepository = consumerRepository;
+        this.stallTimeoutNanos = unit.toNanos(stallTimeout);
+        this.stalledConsumerHandler = stalledConsumerHandler;
+    }
+
+    /**
+     * Check the consumers periodically until halted.
+     *
+     * @throws IllegalStateException if this watchdog is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        if (running.compareAndSet(IDLE, RUNNING))
+        {
+            try
+            {
+                final long checkIntervalNanos = Math.max(1L, stallTimeoutNanos / 4);
+                while (running.get() == RUNNING)
+                {
+                    check(System.nanoTime());
+                    LockSupport.parkNanos(this, checkIntervalNanos);
+                }
+            }
+            finally
+            {
+                running.set(IDLE);
+            }
+        }
+        else
+        {
+            // As with BatchEventProcessor, a halt before the thread started makes it exit straight away
+            if (running.get() == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                running.compareAndSet(HALTED, IDLE);
+            }
+        }
+    }
+
+    /**
+     * Stop checking the consumers, after which the watchdog may be run again.
+     */
+    public void halt()
+    {
+        running.set(HALTED);
+    }
+
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Read every consumer's sequence, reporting those that have newly stalled as of <code>now</code>.
+     */
+    void check(final long now)
+    {
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            if (!consumerInfo.isRunning())
+            {
+                continue;
+            }
+
+            final SequenceBarrier barrier = consumerInfo.getBarrier();
+            final long cursor = null != barrier ? barrier.getCursor() : ringBuffer.getCursor();
+            final Sequence[] sequences = consumerInfo.getSequences();
+            for (int i = 0; i < sequences.length; i++)
+            {
+                final Sequence sequence = sequences[i];
+                final long value = sequence.get();
+                // A multi producer cursor includes claims not yet published, which no consumer can process
+                final boolean behind =
+                    value < cursor && ringBuffer.getHighestPublishedSequence(value + 1, value + 1) > value;
+
+                Progress last = progress.get(sequence);
+                if (null == last)
+                {
+                    last = new Progress(value, now);
+                    progress.put(sequence, last);
+                }
+                else if (value != last.value || !behind)
+                {
+                    last.value = value;
+                    last.changedAt = now;
+                    last.reported = false;
+                }
+                else if (!last.reported && now - last.changedAt >= stallTimeoutNanos)
+                {
+                    last.reported = true;
+                    stalledConsumerHandler.onStalledConsumer(new StalledConsumer(
+                        sequences.length == 1 ? consumerInfo.getName() : consumerInfo.getName() + "-" + i,
+                        handlerOf(consumerInfo),
+                        sequence,
+                        value,
+                        ringBuffer.getHighestPublishedSequence(value + 1, cursor),
+                        now - last.changedAt,
+                        consumerInfo.getThread(sequence)));
+                }
+            }
+        }
+    }
+
+    private static EventHandler<?> handlerOf(final ConsumerInfo consumerInfo)
+    {
+        return consumerInfo instanceof EventProcessorInfo ? ((EventProcessorInfo<?>) consumerInfo).getHandler() : null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConsumerWatchdog{" +
+            "stallTimeoutNanos=" + stallTimeoutNanos +
+            ", running=" + isRunning() +
+            '}';
+    }
+
+    private static final class Progress
+    {
+        private long value;
+        private long changedAt;
+        private boolean reported;
+
+        Progress(final long value, final long changedAt)
+        {
+            this.value = value;
+            this.changedAt = changedAt;
+        }
+    }
+}
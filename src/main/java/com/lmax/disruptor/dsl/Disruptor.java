@@ -16,14 +16,19 @@
 package com.lmax.disruptor.dsl;
 
 import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventCopier;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.EventTap;
 import com.lmax.disruptor.EventTranslator;
 import com.lmax.disruptor.EventTranslatorOneArg;
 import com.lmax.disruptor.EventTranslatorThreeArg;
 import com.lmax.disruptor.EventTranslatorTwoArg;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.FusedEventProcessor;
+import com.lmax.disruptor.KeyExtractor;
+import com.lmax.disruptor.PartitionedEventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
@@ -33,6 +38,9 @@ import com.lmax.disruptor.WorkHandler;
 import com.lmax.disruptor.WorkerPool;
 import com.lmax.disruptor.util.Util;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -63,6 +71,8 @@ public class Disruptor<T>
     private final ConsumerRepository<T> consumerRepository = new ConsumerRepository<>();
     private final AtomicBoolean started = new AtomicBoolean(false);
     private ExceptionHandler<? super T> exceptionHandler = new ExceptionHandlerWrapper<>();
+    private ThreadPlacement threadPlacement;
+    private boolean handlerFusion = false;
 
     /**
      * Create a new Disruptor. Will default to {@link com.lmax.disruptor.BlockingWaitStrategy} and
@@ -168,6 +178,48 @@ public class Disruptor<T>
         return createEventProcessors(new Sequence[0], handlers);
     }
 
+    /**
+     * <p>Set up event handlers that wait for events with their own wait strategy rather than the one the ring
+     * buffer was created with.  For example a latency critical handler can busy spin while the other handlers on
+     * the same ring buffer block:</p>
+     * <pre><code>dw.handleEventsWith(new BusySpinWaitStrategy(), matcher);
+     * dw.handleEventsWith(new BlockingWaitStrategy(), audit, archive);</code></pre>
+     *
+     * <p>Publishing signals each blocking strategy in use, while spinning strategies add no cost to the publisher.</p>
+     *
+     * @param waitStrategy used by these handlers to wait for events.
+     * @param handlers     the event handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     * @see RingBuffer#newBarrier(WaitStrategy, Sequence...)
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWith(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return createEventProcessors(new Sequence[0], waitStrategy, handlers);
+    }
+
+    /**
+     * <p>Set up a group of <code>partitionCount</code> handlers that share the events by key.  Each event is
+     * processed by exactly one handler, chosen by hashing the key returned by <code>keyExtractor</code>, so
+     * events with the same key are processed in order while the partitions run in parallel.</p>
+     *
+     * <p>Each partition runs on its own {@link BatchEventProcessor}, see {@link PartitionedEventHandler}.  Use the
+     * returned group to set up later stages, the handlers created by the factory can not be passed to
+     * {@link #after(EventHandler[])}.</p>
+     *
+     * @param keyExtractor   extracts the key events are partitioned by.
+     * @param handlerFactory creates the handler for each partition.
+     * @param partitionCount the number of partitions, and so of threads.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     */
+    public EventHandlerGroup<T> handleEventsWithPartitioned(
+        final KeyExtractor<? super T> keyExtractor,
+        final PartitionHandlerFactory<T> handlerFactory,
+        final int partitionCount)
+    {
+        return createPartitionedEventProcessors(new Sequence[0], keyExtractor, handlerFactory, partitionCount);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link #start()} is called.</p>
@@ -269,6 +321,34 @@ public class Disruptor<T>
         ((ExceptionHandlerWrapper<T>)this.exceptionHandler).switchTo(exceptionHandler);
     }
 
+    /**
+     * <p>Place the event processor threads onto CPUs according to the machine's topology when the
+     * Disruptor is started, see {@link ThreadPlacement}.</p>
+     *
+     * @param threadPlacement the placement to apply to event processor threads.
+     */
+    public void setThreadPlacement(final ThreadPlacement threadPlacement)
+    {
+        checkNotStarted();
+        this.threadPlacement = threadPlacement;
+    }
+
+    /**
+     * <p>Fuse consecutive single handler stages, e.g. <code>handleEventsWith(a).then(b).then(c)</code>, so that
+     * they run on one thread passing each event through <code>a</code>, <code>b</code> and <code>c</code> in turn,
+     * see {@link FusedEventProcessor}.</p>
+     *
+     * <p>Only stages set up after calling this method are fused.  A stage is fused into the stage it depends on
+     * when it is the only handler in its group, depends on nothing else, is the first stage set up to depend on it
+     * and waits with the same wait strategy.  Exception handlers and sequences stay per handler, so
+     * {@link #handleExceptionsFor(EventHandler)} and {@link #getSequenceValueFor(EventHandler)} work as before.</p>
+     */
+    public void enableHandlerFusion()
+    {
+        checkNotStarted();
+        this.handlerFusion = true;
+    }
+
     /**
      * 为EventHandler创建一个ExceptionHandlerSetting，为了自定义ExceptionHandler
      * Override the default exception handler for a specific handler.
@@ -395,11 +475,12 @@ public class Disruptor<T>
     public RingBuffer<T> start()
     {
         checkOnlyStartedOnce();
+        final Executor startExecutor = null == threadPlacement ? executor : threadPlacement.wrap(executor);
         //获取ConsumerRepository中注册的消费者信息，去启动消费者
         for (final ConsumerInfo consumerInfo : consumerRepository)
         {
             //指向EventProcessor#run方法
-            consumerInfo.start(executor);
+            consumerInfo.start(startExecutor);
         }
 
         return ringBuffer;
@@ -472,6 +553,21 @@ public class Disruptor<T>
         return ringBuffer;
     }
 
+    /**
+     * Create a tap for monitoring or sampling the events published to this Disruptor.  Unlike an event handler a
+     * tap is not a gating sequence, so however slowly it is polled it will never hold up the producers.
+     *
+     * @param eventFactory   used to create the event the tap copies each event into.
+     * @param eventCopier    copies an event out of the ring buffer.
+     * @param sampleInterval the tap reads only sequences that are a multiple of this, 1 to read every event.
+     * @return a tap that will start reading from the next event published.
+     * @see RingBuffer#newTap(EventFactory, EventCopier, int)
+     */
+    public EventTap<T> newTap(final EventFactory<T> eventFactory, final EventCopier<T> eventCopier, final int sampleInterval)
+    {
+        return ringBuffer.newTap(eventFactory, eventCopier, sampleInterval);
+    }
+
     /**
      * Get the value of the cursor indicating the published sequence.
      *
@@ -530,6 +626,48 @@ public class Disruptor<T>
         return consumerRepository.getSequenceFor(b1).get();
     }
 
+    /**
+     * Register an MBean with the platform MBean server exposing the ring buffer's cursor and capacity and the
+     * sequence, lag and running state of each consumer. Attributes are read without locking, so they are only
+     * a racy snapshot, but reading them never delays the producers or consumers.
+     *
+     * @param name unique name for this Disruptor, used as the <code>name</code> key of the MBean's object name.
+     * @return the object name the MBean was registered under, which can be used to unregister it.
+     * @throws JMException if the MBean could not be registered, e.g. because the name is already in use.
+     * @see DisruptorMonitorMBean
+     */
+    public ObjectName registerMBean(final String name) throws JMException
+    {
+        final ObjectName objectName = new ObjectName("com.lmax.disruptor:type=Disruptor,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(newMonitor(), objectName);
+
+        return objectName;
+    }
+
+    /**
+     * Create a watchdog that reports any consumer whose sequence has been behind the events available to it without
+     * moving for longer than <code>stallTimeout</code>, passing the stalled handler and its thread's stack to
+     * <code>stalledConsumerHandler</code>.  The watchdog must be run on a thread of its own, e.g.
+     *
+     * <pre><code>new Thread(disruptor.newWatchdog(5, TimeUnit.SECONDS, handler), "watchdog").start();</code></pre>
+     *
+     * @param stallTimeout           how long a consumer may go without progress before it is reported.
+     * @param unit                   of the stall timeout.
+     * @param stalledConsumerHandler called on the watchdog's thread for each stall found.
+     * @return the watchdog, which checks the consumers until it is halted.
+     * @see ConsumerWatchdog
+     */
+    public ConsumerWatchdog newWatchdog(
+        final long stallTimeout, final TimeUnit unit, final StalledConsumerHandler stalledConsumerHandler)
+    {
+        return new ConsumerWatchdog(ringBuffer, consumerRepository, stallTimeout, unit, stalledConsumerHandler);
+    }
+
+    DisruptorMonitor newMonitor()
+    {
+        return new DisruptorMonitor(ringBuffer, consumerRepository, started);
+    }
+
     /**
      * Confirms if all messages have been consumed by all event processors
      */
@@ -553,13 +691,22 @@ public class Disruptor<T>
     EventHandlerGroup<T> createEventProcessors(
         final Sequence[] barrierSequences,
         final EventHandler<? super T>[] eventHandlers)
+    {
+        return createEventProcessors(barrierSequences, null, eventHandlers);
+    }
+
+    EventHandlerGroup<T> createEventProcessors(
+        final Sequence[] barrierSequences,
+        final WaitStrategy waitStrategy,
+        final EventHandler<? super T>[] eventHandlers)
     {
         checkNotStarted();
 
         //每一个processor消费者都拥有独立的Sequence
         final Sequence[] processorSequences = new Sequence[eventHandlers.length];
         //所有消费者拥有同一个SequenceBarrier（ProcessingSequenceBarrier）屏障
-        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+        final SequenceBarrier barrier = null == waitStrategy ?
+            ringBuffer.newBarrier(barrierSequences) : ringBuffer.newBarrier(waitStrategy, barrierSequences);
 
         for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++)
         {
@@ -578,6 +725,11 @@ public class Disruptor<T>
             processorSequences[i] = batchEventProcessor.getSequence();
         }
 
+        if (handlerFusion && eventHandlers.length == 1 && barrierSequences.length == 1)
+        {
+            consumerRepository.fuse(eventHandlers[0], barrierSequences[0]);
+        }
+
         updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
 
         return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
@@ -600,6 +752,28 @@ public class Disruptor<T>
         }
     }
 
+    EventHandlerGroup<T> createPartitionedEventProcessors(
+        final Sequence[] barrierSequences,
+        final KeyExtractor<? super T> keyExtractor,
+        final PartitionHandlerFactory<T> handlerFactory,
+        final int partitionCount)
+    {
+        if (partitionCount < 1)
+        {
+            throw new IllegalArgumentException("partitionCount must be > 0");
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final EventHandler<? super T>[] handlers = new EventHandler[partitionCount];
+        for (int i = 0; i < partitionCount; i++)
+        {
+            handlers[i] = new PartitionedEventHandler<>(
+                ringBuffer, keyExtractor, i, partitionCount, handlerFactory.createEventHandler(i, partitionCount));
+        }
+
+        return createEventProcessors(barrierSequences, handlers);
+    }
+
     EventHandlerGroup<T> createEventProcessors(
         final Sequence[] barrierSequences, final EventProcessorFactory<T>[] processorFactories)
     {
@@ -661,6 +835,7 @@ public class Disruptor<T>
             "ringBuffer=" + ringBuffer +
             ", started=" + started +
             ", executor=" + executor +
+            ", threadPlacement=" + threadPlacement +
             '}';
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the state of a {@link Disruptor} for {@link DisruptorMonitorMBean}.
+ * <p>
+ * Every attribute is read racily from the live sequences without taking any lock, so values read in separate
+ * calls, or even the entries of one array, may come from slightly different moments. The cursor is read before
+ * the consumer sequences so a lag is never reported as negative.
+ */
+final class DisruptorMonitor implements DisruptorMonitorMBean
+{
+    private final RingBuffer<?> ringBuffer;
+    private final ConsumerRepository<?> consumerRepository;
+    private final AtomicBoolean started;
+
+    DisruptorMonitor(
+        final RingBuffer<?> ringBuffer,
+        final ConsumerRepository<?> consumerRepository,
+        final AtomicBoolean started)
+    {
+        this.ringBuffer = ringBuffer;
+        this.consumerRepository = consumerRepository;
+        this.started = started;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return ringBuffer.getCursor();
+    }
+
+    @Override
+    public long getRemainingCapacity()
+    {
+        return ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return started.get();
+    }
+
+    @Override
+    public String[] getConsumerNames()
+    {
+        final List<String> names = new ArrayList<>();
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            final String name = consumerInfo.getName();
+            final Sequence[] sequences = consumerInfo.getSequences();
+            for (int i = 0; i < sequences.length; i++)
+            {
+                names.add(sequences.length == 1 ? name : name + "-" + i);
+            }
+        }
+
+        return names.toArray(new String[names.size()]);
+    }
+
+    @Override
+    public long[] getConsumerSequences()
+    {
+        final Sequence[] sequences = consumerSequences();
+        final long[] values = new long[sequences.length];
+        for (int i = 0; i < sequences.length; i++)
+        {
+            values[i] = sequences[i].get();
+        }
+
+        return values;
+    }
+
+    @Override
+    public long[] getConsumerLags()
+    {
+        final long cursor = ringBuffer.getCursor();
+        final Sequence[] sequences = consumerSequences();
+        final long[] lags = new long[sequences.length];
+        for (int i = 0; i < sequences.length; i++)
+        {
+            lags[i] = Math.max(0L, cursor - sequences[i].get());
+        }
+
+        return lags;
+    }
+
+    @Override
+    public boolean[] getConsumersRunning()
+    {
+        final List<Boolean> running = new ArrayList<>();
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            final boolean isRunning = consumerInfo.isRunning();
+            for (int i = 0, n = consumerInfo.getSequences().length; i < n; i++)
+            {
+                running.add(isRunning);
+            }
+        }
+
+        final boolean[] values = new boolean[running.size()];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = running.get(i);
+        }
+
+        return values;
+    }
+
+    @Override
+    public long getMaximumLag()
+    {
+        long maximumLag = 0L;
+        for (final long lag : getConsumerLags())
+        {
+            maximumLag = Math.max(maximumLag, lag);
+        }
+
+        return maximumLag;
+    }
+
+    private Sequence[] consumerSequences()
+    {
+        final List<Sequence> sequences = new ArrayList<>();
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            for (final Sequence sequence : consumerInfo.getSequences())
+            {
+                sequences.add(sequence);
+            }
+        }
+
+        return sequences.toArray(new Sequence[sequences.size()]);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+/**
+ * JMX view of a running {@link Disruptor}, registered through {@link Disruptor#registerMBean(String)}.
+ * <p>
+ * Consumer attributes are parallel arrays with one entry per consumer {@link com.lmax.disruptor.Sequence},
+ * so a worker pool contributes one entry for each of its workers.
+ */
+public interface DisruptorMonitorMBean
+{
+    int getBufferSize();
+
+    long getCursor();
+
+    long getRemainingCapacity();
+
+    boolean isStarted();
+
+    String[] getConsumerNames();
+
+    long[] getConsumerSequences();
+
+    /**
+     * @return for each consumer, how many published events it has still to process.
+     */
+    long[] getConsumerLags();
+
+    boolean[] getConsumersRunning();
+
+    /**
+     * @return the lag of the consumer furthest behind the cursor, or zero when there are no consumers.
+     */
+    long getMaximumLag();
+}
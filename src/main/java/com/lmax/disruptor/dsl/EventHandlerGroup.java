@@ -17,8 +17,10 @@ package com.lmax.disruptor.dsl;
 
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.KeyExtractor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.WorkHandler;
 
 import java.util.Arrays;
@@ -114,6 +116,21 @@ public class EventHandlerGroup<T>
         return handleEventsWith(eventProcessorFactories);
     }
 
+    /**
+     * <p>Set up batch handlers to consume events after every {@link EventProcessor} in this group, waiting with
+     * their own wait strategy rather than the ring buffer's.</p>
+     *
+     * @param waitStrategy used by the new handlers to wait for events.
+     * @param handlers     the batch handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     * @see Disruptor#handleEventsWith(WaitStrategy, EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> then(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return handleEventsWith(waitStrategy, handlers);
+    }
+
     /**
      * <p>Set up a worker pool to handle events from the ring buffer. The worker pool will only process events
      * after every {@link EventProcessor} in this group has processed the event. Each event will be processed
@@ -155,6 +172,21 @@ public class EventHandlerGroup<T>
         return disruptor.createEventProcessors(sequences, handlers);
     }
 
+    /**
+     * <p>Set up batch handlers to handle events after every {@link EventProcessor} in this group, waiting with
+     * their own wait strategy rather than the ring buffer's.</p>
+     *
+     * @param waitStrategy used by the new handlers to wait for events.
+     * @param handlers     the batch handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     * @see Disruptor#handleEventsWith(WaitStrategy, EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWith(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return disruptor.createEventProcessors(sequences, waitStrategy, handlers);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link Disruptor#start()} is called.</p>
@@ -173,6 +205,27 @@ public class EventHandlerGroup<T>
         return disruptor.createEventProcessors(sequences, eventProcessorFactories);
     }
 
+    /**
+     * <p>Set up a group of key partitioned handlers to handle events from the ring buffer. These handlers will
+     * only process events after every {@link EventProcessor} in this group has processed the event, and each event
+     * is processed by the one handler its key maps to.</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).handleEventsWithPartitioned(keyExtractor, factory, 4);</code></pre>
+     *
+     * @param keyExtractor   extracts the key events are partitioned by.
+     * @param handlerFactory creates the handler for each partition.
+     * @param partitionCount the number of partitions, and so of threads.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     * @see Disruptor#handleEventsWithPartitioned(KeyExtractor, PartitionHandlerFactory, int)
+     */
+    public EventHandlerGroup<T> handleEventsWithPartitioned(
+        final KeyExtractor<? super T> keyExtractor,
+        final PartitionHandlerFactory<T> handlerFactory,
+        final int partitionCount)
+    {
+        return disruptor.createPartitionedEventProcessors(sequences, keyExtractor, handlerFactory, partitionCount);
+    }
+
     /**
      * <p>Set up a worker pool to handle events from the ring buffer. The worker pool will only process events
      * after every {@link EventProcessor} in this group has processed the event. Each event will be processed
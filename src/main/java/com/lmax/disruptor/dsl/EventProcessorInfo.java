@@ -15,11 +15,16 @@
  */
 package com.lmax.disruptor.dsl;
 
+import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.FusedEventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.ThreadAwareEventProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
@@ -36,6 +41,11 @@ class EventProcessorInfo<T> implements ConsumerInfo
     private final SequenceBarrier barrier;
     /*** 是否是结束链，可能有链式处理 */
     private boolean endOfChain = true;
+    /*** The stage this one has been fused into, which runs it on its own thread */
+    private EventProcessorInfo<T> fusedInto;
+    /*** The stages fused into this one, in chain order */
+    private List<BatchEventProcessor<T>> fusedStages;
+    private EventProcessor fusedProcessor;
 
     EventProcessorInfo(
         final EventProcessor eventprocessor, final EventHandler<? super T> handler, final SequenceBarrier barrier)
@@ -56,6 +66,22 @@ class EventProcessorInfo<T> implements ConsumerInfo
         return new Sequence[]{eventprocessor.getSequence()};
     }
 
+    @Override
+    public String getName()
+    {
+        final Object consumer = null != handler ? handler : eventprocessor;
+        final String simpleName = consumer.getClass().getSimpleName();
+        return simpleName.isEmpty() ? consumer.getClass().getName() : simpleName;
+    }
+
+    @Override
+    public Thread getThread(final Sequence sequence)
+    {
+        // a fused stage records the thread of the chain it runs in
+        return eventprocessor instanceof ThreadAwareEventProcessor ?
+            ((ThreadAwareEventProcessor) eventprocessor).getThread() : null;
+    }
+
     public EventHandler<? super T> getHandler()
     {
         return handler;
@@ -73,16 +99,76 @@ class EventProcessorInfo<T> implements ConsumerInfo
         return endOfChain;
     }
 
+    /**
+     * Whether a single handler stage depending only on this one can be fused into it.
+     *
+     * @see FusedEventProcessor#canFuse(BatchEventProcessor, BatchEventProcessor)
+     */
+    boolean canFuse(final EventProcessorInfo<T> downstream)
+    {
+        final EventProcessorInfo<T> head = null != fusedInto ? fusedInto : this;
+        return endOfChain && null != handler &&
+            eventprocessor instanceof BatchEventProcessor &&
+            downstream.eventprocessor instanceof BatchEventProcessor &&
+            FusedEventProcessor.canFuse(
+                (BatchEventProcessor<?>) head.eventprocessor, (BatchEventProcessor<?>) downstream.eventprocessor);
+    }
+
+    /**
+     * Fuse a downstream stage into the thread that runs this one.
+     */
+    @SuppressWarnings("unchecked")
+    void fuse(final EventProcessorInfo<T> downstream)
+    {
+        final EventProcessorInfo<T> head = null != fusedInto ? fusedInto : this;
+        if (null == head.fusedStages)
+        {
+            head.fusedStages = new ArrayList<>();
+            head.fusedStages.add((BatchEventProcessor<T>) head.eventprocessor);
+        }
+
+        head.fusedStages.add((BatchEventProcessor<T>) downstream.eventprocessor);
+        downstream.fusedInto = head;
+    }
+
     @Override
     public void start(final Executor executor)
     {
-        executor.execute(eventprocessor);
+        if (null != fusedInto)
+        {
+            return;
+        }
+
+        if (null == fusedStages)
+        {
+            executor.execute(eventprocessor);
+        }
+        else
+        {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            final BatchEventProcessor<T>[] stages = fusedStages.toArray(new BatchEventProcessor[fusedStages.size()]);
+            fusedProcessor = new FusedEventProcessor<>(stages);
+            executor.execute(fusedProcessor);
+        }
     }
 
     @Override
     public void halt()
     {
-        eventprocessor.halt();
+        if (null != fusedInto)
+        {
+            // halted along with the rest of the chain by the stage it is fused into
+            return;
+        }
+
+        if (null != fusedProcessor)
+        {
+            fusedProcessor.halt();
+        }
+        else
+        {
+            eventprocessor.halt();
+        }
     }
 
     /**
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+
+/**
+ * A factory interface to create the handler for each partition of a key partitioned group, see
+ * {@link Disruptor#handleEventsWithPartitioned(com.lmax.disruptor.KeyExtractor, PartitionHandlerFactory, int)}.
+ *
+ * @param <T> the type of event used.
+ */
+public interface PartitionHandlerFactory<T>
+{
+    /**
+     * Create the handler for one partition.
+     *
+     * @param partition      the partition, from 0 to <code>partitionCount - 1</code>.
+     * @param partitionCount the total number of partitions.
+     * @return the handler that will process all the events whose key maps to the partition.
+     */
+    EventHandler<? super T> createEventHandler(int partition, int partitionCount);
+}
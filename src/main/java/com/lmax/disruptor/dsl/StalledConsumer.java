@@ -0,0 +1,129 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.Sequence;
+
+import java.util.Arrays;
+
+/**
+ * A consumer found by a {@link ConsumerWatchdog} to have events available that it has not processed for longer
+ * than the watchdog's stall timeout.
+ */
+public final class StalledConsumer
+{
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    private final String name;
+    private final EventHandler<?> handler;
+    private final Sequence sequence;
+    private final long sequenceValue;
+    private final long availableSequence;
+    private final long stalledNanos;
+    private final Thread thread;
+    private final StackTraceElement[] stackTrace;
+
+    StalledConsumer(
+        final String name,
+        final EventHandler<?> handler,
+        final Sequence sequence,
+        final long sequenceValue,
+        final long availableSequence,
+        final long stalledNanos,
+        final Thread thread)
+    {
+        this.name = name;
+        this.handler = handler;
+        this.sequence = sequence;
+        this.sequenceValue = sequenceValue;
+        this.availableSequence = availableSequence;
+        this.stalledNanos = stalledNanos;
+        this.thread = thread;
+        this.stackTrace = null != thread ? thread.getStackTrace() : NO_STACK_TRACE;
+    }
+
+    /**
+     * @return the name of the consumer, as reported by {@link DisruptorMonitorMBean#getConsumerNames()}.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the stalled handler, or null if the consumer is not a single event handler, e.g. a worker pool.
+     */
+    public EventHandler<?> getHandler()
+    {
+        return handler;
+    }
+
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * @return the last sequence the consumer processed, which has not changed for {@link #getStalledNanos()}.
+     */
+    public long getSequenceValue()
+    {
+        return sequenceValue;
+    }
+
+    /**
+     * @return the highest sequence available to the consumer from the ring buffer or the stages it follows.
+     */
+    public long getAvailableSequence()
+    {
+        return availableSequence;
+    }
+
+    public long getStalledNanos()
+    {
+        return stalledNanos;
+    }
+
+    /**
+     * @return the thread running the consumer, or null if it is not known.
+     */
+    public Thread getThread()
+    {
+        return thread;
+    }
+
+    /**
+     * @return the stack of the consumer's thread when the stall was detected, empty if the thread is not known.
+     */
+    public StackTraceElement[] getStackTrace()
+    {
+        return stackTrace.clone();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StalledConsumer{" +
+            "name=" + name +
+            ", sequence=" + sequenceValue +
+            ", availableSequence=" + availableSequence +
+            ", stalledNanos=" + stalledNanos +
+            ", thread=" + thread +
+            ", stackTrace=" + Arrays.toString(stackTrace) +
+            '}';
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+/**
+ * Callback from a {@link ConsumerWatchdog} when a consumer has stopped making progress.
+ */
+public interface StalledConsumerHandler
+{
+    /**
+     * Called on the watchdog's thread once for each stall, and again only after the consumer has moved on and
+     * stalled once more.
+     *
+     * @param stalledConsumer describing the consumer and what its thread was doing.
+     */
+    void onStalledConsumer(StalledConsumer stalledConsumer);
+}
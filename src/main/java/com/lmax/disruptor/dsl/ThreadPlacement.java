@@ -0,0 +1,190 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.ThreadAwareEventProcessor;
+import com.lmax.disruptor.util.AffinityProvider;
+import com.lmax.disruptor.util.CpuTopology;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Places the producer and the consumer threads of a {@link Disruptor} onto CPUs in
+ * {@link CpuTopology#getPlacementOrder() topology order}, so that stages started one after the other
+ * (and therefore usually adjacent in the chain) share a last level cache.</p>
+ *
+ * <p>Slot 0 is reserved for the producer, see {@link #pinProducer()}.  Each consumer thread started
+ * through {@link #wrap(Executor)} takes the next slot, wrapping round if there are more threads than CPUs.
+ * A {@link ThreadAwareEventProcessor} is passed on to the executor as it is and pins its own thread as it starts.
+ * Without an {@link AffinityProvider} the placement is only planned and reported, no thread is pinned.</p>
+ */
+public final class ThreadPlacement
+{
+    private static final Logger LOGGER = Logger.getLogger(ThreadPlacement.class.getName());
+
+    private final CpuTopology topology;
+    private final AffinityProvider affinityProvider;
+    private final int[] order;
+    private final AtomicInteger nextSlot = new AtomicInteger(1);
+
+    /**
+     * Plan placement on the current machine without pinning any threads.
+     */
+    public ThreadPlacement()
+    {
+        this(CpuTopology.read(), null);
+    }
+
+    /**
+     * @param topology         the topology to place threads onto.
+     * @param affinityProvider used to pin threads, may be null to only plan the placement.
+     */
+    public ThreadPlacement(final CpuTopology topology, final AffinityProvider affinityProvider)
+    {
+        this.topology = topology;
+        this.affinityProvider = affinityProvider;
+        this.order = topology.getPlacementOrder();
+    }
+
+    /**
+     * @param slot placement slot, 0 for the producer, 1 onwards for consumers in start order.
+     * @return the CPU assigned to the slot.
+     */
+    public int cpuFor(final int slot)
+    {
+        return order[slot % order.length];
+    }
+
+    /**
+     * Pin the calling thread to the producer slot.
+     */
+    public void pinProducer()
+    {
+        pin(0);
+    }
+
+    /**
+     * Wrap an executor so that each thread it runs is pinned to the next consumer slot before
+     * running the submitted task.
+     *
+     * @param executor the executor to delegate to.
+     * @return the wrapping executor.
+     */
+    public Executor wrap(final Executor executor)
+    {
+        return new PlacingExecutor(executor);
+    }
+
+    /**
+     * Describe the placement of a producer and a number of consumer threads.
+     *
+     * @param consumerCount the number of consumer threads.
+     * @return a description of the layout.
+     */
+    public String describe(final int consumerCount)
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("producer=").append(topology.describe(cpuFor(0)));
+        for (int i = 1; i <= consumerCount; i++)
+        {
+            sb.append(", consumer").append(i - 1).append('=').append(topology.describe(cpuFor(i)));
+        }
+
+        return sb.toString();
+    }
+
+    private void pin(final int slot)
+    {
+        if (null == affinityProvider)
+        {
+            return;
+        }
+
+        final int cpu = cpuFor(slot);
+        try
+        {
+            affinityProvider.setAffinity(cpu);
+        }
+        catch (final RuntimeException e)
+        {
+            LOGGER.log(Level.WARNING, "Unable to pin " + Thread.currentThread().getName() + " to cpu" + cpu, e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ThreadPlacement{" +
+            "topology=" + topology +
+            ", pinning=" + (null != affinityProvider) +
+            ", placed=[" + describe(nextSlot.get() - 1) + "]" +
+            '}';
+    }
+
+    private final class PlacingExecutor implements Executor
+    {
+        private final Executor delegate;
+
+        PlacingExecutor(final Executor delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(final Runnable command)
+        {
+            final int slot = nextSlot.getAndIncrement();
+            if (command instanceof ThreadAwareEventProcessor)
+            {
+                ((ThreadAwareEventProcessor) command).setThreadStartHook(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        pin(slot);
+                    }
+                });
+                delegate.execute(command);
+                return;
+            }
+
+            delegate.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    pin(slot);
+                    command.run();
+                }
+
+                @Override
+                public String toString()
+                {
+                    return command.toString();
+                }
+            });
+        }
+
+        @Override
+        public String toString()
+        {
+            return delegate.toString();
+        }
+    }
+}
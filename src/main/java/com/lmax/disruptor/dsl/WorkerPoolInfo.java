@@ -22,6 +22,18 @@ class WorkerPoolInfo<T> implements ConsumerInfo
         return workerPool.getWorkerSequences();
     }
 
+    @Override
+    public String getName()
+    {
+        return "WorkerPool";
+    }
+
+    @Override
+    public Thread getThread(final Sequence sequence)
+    {
+        return workerPool.getWorkerThread(sequence);
+    }
+
     @Override
     public SequenceBarrier getBarrier()
     {
@@ -35,7 +47,7 @@ class WorkerPoolInfo<T> implements ConsumerInfo
     }
 
     @Override
-    public void start(Executor executor)
+    public void start(final Executor executor)
     {
         workerPool.start(executor);
     }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+/**
+ * SPI through which threads can be pinned to a CPU.  The Disruptor does not bind to any native library
+ * itself, implementations would typically delegate to something like <code>sched_setaffinity</code> via
+ * JNA or an existing thread affinity library.
+ */
+public interface AffinityProvider
+{
+    /**
+     * Pin the calling thread to the given logical CPU.
+     *
+     * @param cpu the logical CPU id, as reported by the operating system.
+     */
+    void setAffinity(int cpu);
+}
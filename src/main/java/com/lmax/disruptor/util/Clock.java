@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+/**
+ * A source of time for components that compare event timestamps or deadlines against the current time.
+ */
+public interface Clock
+{
+    /**
+     * Wall clock time from {@link System#currentTimeMillis()}.
+     */
+    Clock MILLISECONDS = new Clock()
+    {
+        @Override
+        public long currentTime()
+        {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Monotonic time from {@link System#nanoTime()}, only comparable within the same JVM.
+     */
+    Clock NANOSECONDS = new Clock()
+    {
+        @Override
+        public long currentTime()
+        {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return the current time in the units of this clock.
+     */
+    long currentTime();
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The layout of logical CPUs onto physical cores, last level caches and packages, as read from the Linux
+ * sysfs tree under <code>/sys/devices/system/cpu</code>.  Where that is unavailable every available processor
+ * is assumed to be a separate core sharing a single cache.</p>
+ *
+ * <p>The main use is {@link #getPlacementOrder()}, an ordering of CPUs in which neighbours share a cache,
+ * so that threads that hand off {@link com.lmax.disruptor.Sequence}s can be placed next to each other.</p>
+ */
+public final class CpuTopology
+{
+    private static final File SYS_CPU_DIR = new File("/sys/devices/system/cpu");
+
+    private final Cpu[] cpus;
+    private final boolean detected;
+
+    private CpuTopology(final Cpu[] cpus, final boolean detected)
+    {
+        this.cpus = cpus;
+        this.detected = detected;
+    }
+
+    /**
+     * Read the topology of the current machine.
+     *
+     * @return the topology, never null.
+     */
+    public static CpuTopology read()
+    {
+        return read(SYS_CPU_DIR);
+    }
+
+    /**
+     * Read the topology from a sysfs style directory.
+     *
+     * @param sysCpuDir the directory equivalent of <code>/sys/devices/system/cpu</code>.
+     * @return the topology, falling back to one core per available processor if the directory can not be read.
+     */
+    public static CpuTopology read(final File sysCpuDir)
+    {
+        try
+        {
+            final BitSet online = parseCpuList(readLine(new File(sysCpuDir, "online")));
+            if (online.isEmpty())
+            {
+                return fallback();
+            }
+
+            final Cpu[] cpus = new Cpu[online.cardinality()];
+            int i = 0;
+            for (int id = online.nextSetBit(0); id >= 0; id = online.nextSetBit(id + 1))
+            {
+                cpus[i++] = readCpu(new File(sysCpuDir, "cpu" + id), id);
+            }
+
+            return new CpuTopology(cpus, true);
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            return fallback();
+        }
+    }
+
+    /**
+     * @return true if the topology was read from the operating system rather than assumed.
+     */
+    public boolean isDetected()
+    {
+        return detected;
+    }
+
+    public int getCpuCount()
+    {
+        return cpus.length;
+    }
+
+    /**
+     * Order the CPUs for placing a chain of threads.  CPUs sharing a last level cache are adjacent, and within
+     * a cache each physical core is used once before any of their hyper-threaded siblings.
+     *
+     * @return logical CPU ids in preferred placement order.
+     */
+    public int[] getPlacementOrder()
+    {
+        final Map<Long, List<Cpu>> byCache = new LinkedHashMap<>();
+        for (final Cpu cpu : cpus)
+        {
+            final long cacheKey = ((long) cpu.packageId << 32) | (cpu.cacheId & 0xFFFFFFFFL);
+            List<Cpu> group = byCache.get(cacheKey);
+            if (null == group)
+            {
+                group = new ArrayList<>();
+                byCache.put(cacheKey, group);
+            }
+            group.add(cpu);
+        }
+
+        final int[] order = new int[cpus.length];
+        int index = 0;
+        for (final List<Cpu> group : byCache.values())
+        {
+            final BitSet usedCores = new BitSet();
+            final List<Cpu> siblings = new ArrayList<>();
+            for (final Cpu cpu : group)
+            {
+                if (usedCores.get(cpu.coreId))
+                {
+                    siblings.add(cpu);
+                }
+                else
+                {
+                    usedCores.set(cpu.coreId);
+                    order[index++] = cpu.id;
+                }
+            }
+
+            for (final Cpu sibling : siblings)
+            {
+                order[index++] = sibling.id;
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * @param cpu logical CPU id.
+     * @return a description of where the CPU sits, e.g. <code>cpu3(package=0,cache=0,core=3)</code>.
+     */
+    public String describe(final int cpu)
+    {
+        for (final Cpu c : cpus)
+        {
+            if (c.id == cpu)
+            {
+                return c.toString();
+            }
+        }
+
+        return "cpu" + cpu + "(unknown)";
+    }
+
+    @Override
+    public String toString()
+    {
+        final BitSet packages = new BitSet();
+        final BitSet caches = new BitSet();
+        int cores = 0;
+        final Map<Long, Boolean> seenCores = new LinkedHashMap<>();
+        for (final Cpu cpu : cpus)
+        {
+            packages.set(cpu.packageId);
+            caches.set(cpu.cacheId);
+            if (null == seenCores.put(((long) cpu.packageId << 32) | cpu.coreId, Boolean.TRUE))
+            {
+                cores++;
+            }
+        }
+
+        return "CpuTopology{" +
+            "detected=" + detected +
+            ", packages=" + packages.cardinality() +
+            ", caches=" + caches.cardinality() +
+            ", cores=" + cores +
+            ", cpus=" + cpus.length +
+            '}';
+    }
+
+    private static CpuTopology fallback()
+    {
+        final int count = Runtime.getRuntime().availableProcessors();
+        final Cpu[] cpus = new Cpu[count];
+        for (int i = 0; i < count; i++)
+        {
+            cpus[i] = new Cpu(i, i, 0, 0);
+        }
+
+        return new CpuTopology(cpus, false);
+    }
+
+    private static Cpu readCpu(final File cpuDir, final int id) throws IOException
+    {
+        final File topology = new File(cpuDir, "topology");
+        final int coreId = readInt(new File(topology, "core_id"), id);
+        final int packageId = Math.max(0, readInt(new File(topology, "physical_package_id"), 0));
+
+        int cacheId = packageId;
+        int cacheLevel = -1;
+        final File[] caches = new File(cpuDir, "cache").listFiles();
+        if (null != caches)
+        {
+            Arrays.sort(caches);
+            for (final File cache : caches)
+            {
+                if (!cache.getName().startsWith("index"))
+                {
+                    continue;
+                }
+
+                final int level = readInt(new File(cache, "level"), -1);
+                final File sharedCpuList = new File(cache, "shared_cpu_list");
+                if (level > cacheLevel && sharedCpuList.exists())
+                {
+                    final BitSet shared = parseCpuList(readLine(sharedCpuList));
+                    if (!shared.isEmpty())
+                    {
+                        cacheLevel = level;
+                        cacheId = shared.nextSetBit(0);
+                    }
+                }
+            }
+        }
+
+        return new Cpu(id, coreId, packageId, cacheId);
+    }
+
+    /**
+     * Parse the kernel's cpu list format, e.g. <code>0-3,8,10-11</code>.
+     */
+    static BitSet parseCpuList(final String list)
+    {
+        final BitSet cpus = new BitSet();
+        if (null == list)
+        {
+            return cpus;
+        }
+
+        for (final String range : list.trim().split(","))
+        {
+            if (range.isEmpty())
+            {
+                continue;
+            }
+
+            final int dash = range.indexOf('-');
+            if (dash < 0)
+            {
+                cpus.set(Integer.parseInt(range.trim()));
+            }
+            else
+            {
+                cpus.set(Integer.parseInt(range.substring(0, dash).trim()), Integer.parseInt(range.substring(dash + 1).trim()) + 1);
+            }
+        }
+
+        return cpus;
+    }
+
+    private static int readInt(final File file, final int defaultValue) throws IOException
+    {
+        final String line = readLine(file);
+        return null == line ? defaultValue : Integer.parseInt(line.trim());
+    }
+
+    private static String readLine(final File file) throws IOException
+    {
+        if (!file.isFile())
+        {
+            return null;
+        }
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+        return lines.isEmpty() ? null : lines.get(0);
+    }
+
+    private static final class Cpu
+    {
+        private final int id;
+        private final int coreId;
+        private final int packageId;
+        private final int cacheId;
+
+        Cpu(final int id, final int coreId, final int packageId, final int cacheId)
+        {
+            this.id = id;
+            this.coreId = coreId;
+            this.packageId = packageId;
+            this.cacheId = cacheId;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "cpu" + id + "(package=" + packageId + ",cache=" + cacheId + ",core=" + coreId + ")";
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+/**
+ * <p>A fixed capacity open addressing hash index from primitive <code>long</code> keys to non negative
+ * <code>long</code> values, e.g. sequences, that does not allocate once constructed.</p>
+ *
+ * <p>Intended to be filled and cleared once per batch by a single thread: {@link #clear()} only resets the slots
+ * used since the last clear, so its cost is proportional to the number of keys held rather than the capacity.</p>
+ */
+public final class LongHashIndex
+{
+    /**
+     * Returned by {@link #get(long)} for keys that are not present.
+     */
+    public static final long MISSING_VALUE = -1L;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int[] usedSlots;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+
+    /**
+     * @param maxSize the maximum number of keys to be held between clears.
+     */
+    public LongHashIndex(final int maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be > 0");
+        }
+
+        final int capacity = Util.ceilingNextPowerOfTwo(maxSize * 2);
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.usedSlots = new int[maxSize];
+        this.mask = capacity - 1;
+        this.maxSize = maxSize;
+
+        for (int i = 0; i < capacity; i++)
+        {
+            values[i] = MISSING_VALUE;
+        }
+    }
+
+    /**
+     * Associate a value with a key, replacing any existing value.
+     *
+     * @param key   the key.
+     * @param value the value, must not be negative.
+     * @return the value previously held for the key, or {@link #MISSING_VALUE}.
+     * @throws IllegalStateException if the key is new and the index already holds <code>maxSize</code> keys.
+     */
+    public long put(final long key, final long value)
+    {
+        int slot = slotFor(key);
+        while (values[slot] != MISSING_VALUE)
+        {
+            if (keys[slot] == key)
+            {
+                final long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == maxSize)
+        {
+            throw new IllegalStateException("Index is full, maxSize=" + maxSize);
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        usedSlots[size++] = slot;
+        return MISSING_VALUE;
+    }
+
+    /**
+     * @param key the key.
+     * @return the value held for the key, or {@link #MISSING_VALUE}.
+     */
+    public long get(final long key)
+    {
+        int slot = slotFor(key);
+        long value;
+        while ((value = values[slot]) != MISSING_VALUE)
+        {
+            if (keys[slot] == key)
+            {
+                return value;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return MISSING_VALUE;
+    }
+
+    /**
+     * @return the number of keys held.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remove all keys.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            values[usedSlots[i]] = MISSING_VALUE;
+        }
+
+        size = 0;
+    }
+
+    private int slotFor(final long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+}
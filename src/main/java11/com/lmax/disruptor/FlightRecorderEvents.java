@@ -0,0 +1,281 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Hooks through which the Disruptor reports its activity to JDK Flight Recorder, committing the events below.
+ * <p>
+ * This is the Java 11 version of the class, packaged in the multi-release jar in place of the no-op base version.
+ * Every event can be enabled, and its threshold changed, by name in a recording's settings.  The defaults are
+ * chosen so the events can stay enabled in production: batches are sampled and only recorded when slow, and parks
+ * and stalls are only recorded when they last long enough to matter.  Only one batch in each
+ * <code>com.lmax.disruptor.jfr.batchSampleInterval</code> sequences, 1024 by default, is timed at all.
+ */
+final class FlightRecorderEvents
+{
+    private static final long BATCH_SAMPLE_MASK = batchSampleMask();
+
+    private FlightRecorderEvents()
+    {
+    }
+
+    private static long batchSampleMask()
+    {
+        final int sampleInterval = Integer.getInteger("com.lmax.disruptor.jfr.batchSampleInterval", 1024);
+        if (sampleInterval < 1 || Integer.bitCount(sampleInterval) != 1)
+        {
+            throw new IllegalArgumentException("com.lmax.disruptor.jfr.batchSampleInterval must be a power of 2");
+        }
+
+        return sampleInterval - 1;
+    }
+
+    /**
+     * Begin timing the batch from <code>lo</code> to <code>hi</code> if it is sampled, which it is when it holds a
+     * multiple of the sample interval, so each processor samples the same sequences without keeping count.
+     */
+    static Object beginBatch(final long lo, final long hi)
+    {
+        if (((lo + BATCH_SAMPLE_MASK) & ~BATCH_SAMPLE_MASK) > hi)
+        {
+            return null;
+        }
+
+        final BatchExecuted event = new BatchExecuted();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+
+        event.begin();
+        return event;
+    }
+
+    static void endBatch(final Object event, final Object handler, final long lo, final long hi)
+    {
+        if (null == event)
+        {
+            return;
+        }
+
+        final BatchExecuted batchExecuted = (BatchExecuted) event;
+        batchExecuted.end();
+        if (batchExecuted.shouldCommit())
+        {
+            batchExecuted.processor = handler.getClass().getName();
+            batchExecuted.firstSequence = lo;
+            batchExecuted.batchSize = hi - lo + 1;
+            batchExecuted.commit();
+        }
+    }
+
+    static Object beginStall()
+    {
+        final ProducerStall event = new ProducerStall();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+
+        event.begin();
+        return event;
+    }
+
+    static void endStall(final Object event, final int bufferSize, final long claimedSequence, final long gatingSequence)
+    {
+        if (null == event)
+        {
+            return;
+        }
+
+        final ProducerStall producerStall = (ProducerStall) event;
+        producerStall.end();
+        if (producerStall.shouldCommit())
+        {
+            producerStall.bufferSize = bufferSize;
+            producerStall.claimedSequence = claimedSequence;
+            producerStall.gatingSequence = gatingSequence;
+            producerStall.commit();
+        }
+    }
+
+    static Object beginPark()
+    {
+        final WaitStrategyPark event = new WaitStrategyPark();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+
+        event.begin();
+        return event;
+    }
+
+    static void endPark(final Object event, final WaitStrategy waitStrategy, final long sequence)
+    {
+        if (null == event)
+        {
+            return;
+        }
+
+        final WaitStrategyPark park = (WaitStrategyPark) event;
+        park.end();
+        if (park.shouldCommit())
+        {
+            park.waitStrategy = waitStrategy.getClass().getName();
+            park.sequence = sequence;
+            park.commit();
+        }
+    }
+
+    static void processorStarted(final Object handler)
+    {
+        final ProcessorStarted event = new ProcessorStarted();
+        if (event.isEnabled())
+        {
+            event.processor = handler.getClass().getName();
+            event.commit();
+        }
+    }
+
+    static void processorHalted(final Object handler, final long sequence)
+    {
+        final ProcessorHalted event = new ProcessorHalted();
+        if (event.isEnabled())
+        {
+            event.processor = handler.getClass().getName();
+            event.sequence = sequence;
+            event.commit();
+        }
+    }
+
+    static void processorException(final Object handler, final long sequence, final Throwable ex)
+    {
+        final ProcessorException event = new ProcessorException();
+        if (event.isEnabled())
+        {
+            event.processor = handler.getClass().getName();
+            event.sequence = sequence;
+            event.exceptionClass = ex.getClass().getName();
+            event.message = ex.getMessage();
+            event.commit();
+        }
+    }
+
+    @Name("com.lmax.disruptor.BatchExecuted")
+    @Label("Batch Executed")
+    @Category("Disruptor")
+    @Description("A sampled batch of events passed to an event handler by a processor")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class BatchExecuted extends Event
+    {
+        @Label("Processor")
+        String processor;
+
+        @Label("First Sequence")
+        long firstSequence;
+
+        @Label("Batch Size")
+        long batchSize;
+    }
+
+    @Name("com.lmax.disruptor.ProducerStall")
+    @Label("Producer Stall")
+    @Category("Disruptor")
+    @Description("A producer waiting for consumers to free space in a full ring buffer")
+    @Threshold("1 ms")
+    static final class ProducerStall extends Event
+    {
+        @Label("Buffer Size")
+        int bufferSize;
+
+        @Label("Claimed Sequence")
+        long claimedSequence;
+
+        @Label("Gating Sequence")
+        @Description("The minimum gating sequence when the producer began to wait")
+        long gatingSequence;
+    }
+
+    @Name("com.lmax.disruptor.WaitStrategyPark")
+    @Label("Wait Strategy Park")
+    @Category("Disruptor")
+    @Description("A consumer blocked in a wait strategy from parking until it was woken")
+    @StackTrace(false)
+    @Threshold("10 ms")
+    static final class WaitStrategyPark extends Event
+    {
+        @Label("Wait Strategy")
+        String waitStrategy;
+
+        @Label("Sequence")
+        @Description("The sequence being waited for")
+        long sequence;
+    }
+
+    @Name("com.lmax.disruptor.ProcessorStarted")
+    @Label("Processor Started")
+    @Category("Disruptor")
+    @StackTrace(false)
+    static final class ProcessorStarted extends Event
+    {
+        @Label("Processor")
+        String processor;
+    }
+
+    @Name("com.lmax.disruptor.ProcessorHalted")
+    @Label("Processor Halted")
+    @Category("Disruptor")
+    @StackTrace(false)
+    static final class ProcessorHalted extends Event
+    {
+        @Label("Processor")
+        String processor;
+
+        @Label("Sequence")
+        @Description("The last sequence processed")
+        long sequence;
+    }
+
+    @Name("com.lmax.disruptor.ProcessorException")
+    @Label("Processor Exception")
+    @Category("Disruptor")
+    @Description("An exception thrown by an event handler and passed to the exception handler")
+    @StackTrace(false)
+    static final class ProcessorException extends Event
+    {
+        @Label("Processor")
+        String processor;
+
+        @Label("Sequence")
+        long sequence;
+
+        @Label("Exception Class")
+        String exceptionClass;
+
+        @Label("Message")
+        String message;
+    }
+}
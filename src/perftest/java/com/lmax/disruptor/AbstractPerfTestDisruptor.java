@@ -15,7 +15,14 @@
  */
 package com.lmax.disruptor;
 
+import com.lmax.disruptor.dsl.ThreadPlacement;
 
+/**
+ * Base for the end to end throughput tests, which compare Disruptor topologies with their queue based equivalents.
+ *
+ * <p>Regressions in the individual components (sequencers, publication, wait strategies and event processors) are
+ * tracked by the JMH benchmarks in <code>src/jmh/java</code>, run with <code>gradle jmh</code>.</p>
+ */
 public abstract class AbstractPerfTestDisruptor
 {
     public static final int RUNS = 7;
@@ -30,6 +37,10 @@ public abstract class AbstractPerfTestDisruptor
             System.out.println("Processors required = " + getRequiredProcessorCount() + " available = " + availableProcessors);
         }
 
+        final ThreadPlacement placement = new ThreadPlacement();
+        System.out.println("Topology: " + placement);
+        System.out.println("Planned placement: " + placement.describe(getRequiredProcessorCount() - 1));
+
         PerfTestContext[] contexts = new PerfTestContext[RUNS];
 
         System.out.println("Starting Disruptor tests");
@@ -40,6 +51,10 @@ public abstract class AbstractPerfTestDisruptor
             contexts[i] = context;
             System.out.format("Run %d, Disruptor=%,d ops/sec BatchPercent=%.2f%% AverageBatchSize=%,d\n",
                     i, context.getDisruptorOps(), context.getBatchPercent() * 100, (long)context.getAverageBatchSize());
+            if (context.getWaitPercent() > 0)
+            {
+                System.out.format("Run %d, WaitPercent=%.2f%%\n", i, context.getWaitPercent() * 100);
+            }
         }
     }
 
@@ -5,6 +5,8 @@ public class PerfTestContext
     private long disruptorOps;
     private long batchesProcessedCount;
     private long iterations;
+    private long waitNanos;
+    private long handlerNanos;
 
     public PerfTestContext()
     {
@@ -42,4 +44,25 @@ public class PerfTestContext
         this.batchesProcessedCount = batchesProcessedCount;
         this.iterations = iterations;
     }
+
+    public void setBatchData(ProcessorMetrics... metrics)
+    {
+        batchesProcessedCount = 0;
+        iterations = 0;
+        waitNanos = 0;
+        handlerNanos = 0;
+        for (ProcessorMetrics processorMetrics : metrics)
+        {
+            batchesProcessedCount += processorMetrics.getBatchCount();
+            iterations += processorMetrics.getEventCount();
+            waitNanos += processorMetrics.getWaitNanos();
+            handlerNanos += processorMetrics.getHandlerNanos();
+        }
+    }
+
+    public double getWaitPercent()
+    {
+        if (waitNanos + handlerNanos == 0) return 0;
+        return (double)waitNanos / (waitNanos + handlerNanos);
+    }
 }
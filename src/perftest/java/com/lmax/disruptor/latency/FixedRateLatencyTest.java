@@ -0,0 +1,307 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.latency;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.ValueEvent;
+import com.lmax.disruptor.support.WaitStrategyType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import com.lmax.disruptor.util.ThreadHints;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *
+ * Publishes at a fixed target rate from a paced generator and measures the latency of each event from the time
+ * it was intended to be sent until it has been handled.
+ *
+ * +-----------+  intended start  +======+        +----+
+ * | Generator |----------------->|  RB  |------->| EP |---> Histogram (handled - intended start)
+ * +-----------+                  +======+        +----+
+ *
+ * </pre>
+ * <p>
+ * Unlike the ping pong tests, which send the next event only once the previous one has returned, the generator
+ * keeps to its schedule: event <code>i</code> is due at <code>start + i * interval</code>, and if the producer
+ * falls behind (the ring buffer is full, or it was descheduled) the events it owes are sent late but still
+ * measured from when they were due.  Queueing delay under load therefore shows up in the percentiles instead of
+ * being hidden by the coordinated omission of a closed loop.
+ * <p>
+ * Each target rate is run for every wait strategy and producer type and for an {@link ArrayBlockingQueue}, printing
+ * the percentile distribution of each run followed by a summary table.  Target rates, in events per second, may be
+ * given as arguments to override the defaults.  There is a single generator thread, so {@link ProducerType#MULTI}
+ * measures the cost of the multi producer sequencer rather than contention between producers.
+ * <p>
+ * Note: <b>This test is only useful on a system using an invariant TSC in user space from the System.nanoTime() call.</b>
+ */
+public final class FixedRateLatencyTest
+{
+    private static final int BUFFER_SIZE = 1024 * 64;
+    private static final long[] TARGET_RATES = {10L * 1000L, 100L * 1000L, 1000L * 1000L, 10L * 1000L * 1000L};
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(4L);
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
+    private final List<String> summary = new ArrayList<String>();
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void testImplementations(final long[] targetRates) throws Exception
+    {
+        final int availableProcessors = Runtime.getRuntime().availableProcessors();
+        if (availableProcessors < 2)
+        {
+            System.out.print("*** Warning ***: your system has insufficient processors to execute the test efficiently. ");
+            System.out.println("Processors required = 2 available = " + availableProcessors);
+        }
+
+        for (final long targetRate : targetRates)
+        {
+            for (final WaitStrategyType waitStrategyType : WaitStrategyType.values())
+            {
+                for (final ProducerType producerType : ProducerType.values())
+                {
+                    runPass(new DisruptorPass(producerType, waitStrategyType), targetRate);
+                }
+            }
+
+            runPass(new QueuePass(), targetRate);
+        }
+
+        System.out.println();
+        System.out.format("%-32s %12s %12s", "Latency (us)", "Target/sec", "Actual/sec");
+        for (final double percentile : PERCENTILES)
+        {
+            System.out.format(" %10s", percentile + "%");
+        }
+        System.out.format(" %10s\n", "max");
+
+        for (final String row : summary)
+        {
+            System.out.println(row);
+        }
+    }
+
+    private void runPass(final Pass pass, final long targetRate) throws Exception
+    {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1L) / targetRate;
+        final long warmupEvents = WARMUP_NANOS / intervalNanos;
+        final long events = warmupEvents + RUN_NANOS / intervalNanos;
+        final Histogram histogram = new Histogram(3);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        System.gc();
+        pass.start(histogram, warmupEvents, events, latch);
+
+        final long start = System.nanoTime() + intervalNanos;
+        for (long i = 0; i < events; i++)
+        {
+            final long intendedStart = start + i * intervalNanos;
+            while (System.nanoTime() < intendedStart)
+            {
+                ThreadHints.onSpinWait();
+            }
+
+            pass.publish(intendedStart);
+        }
+        final long publishNanos = System.nanoTime() - start;
+
+        latch.await();
+        pass.stop();
+
+        final long actualRate = (events * TimeUnit.SECONDS.toNanos(1L)) / Math.max(publishNanos, 1L);
+        System.out.format("%s %s target=%,d/sec actual=%,d/sec\n", getClass().getSimpleName(), pass, targetRate, actualRate);
+        histogram.outputPercentileDistribution(System.out, 1, NANOS_PER_MICRO);
+
+        final StringBuilder row = new StringBuilder(String.format("%-32s %,12d %,12d", pass, targetRate, actualRate));
+        for (final double percentile : PERCENTILES)
+        {
+            row.append(String.format(" %10.1f", histogram.getValueAtPercentile(percentile) / NANOS_PER_MICRO));
+        }
+        row.append(String.format(" %10.1f", histogram.getMaxValue() / NANOS_PER_MICRO));
+        summary.add(row.toString());
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        long[] targetRates = TARGET_RATES;
+        if (args.length > 0)
+        {
+            targetRates = new long[args.length];
+            for (int i = 0; i < args.length; i++)
+            {
+                targetRates[i] = Long.parseLong(args[i]);
+            }
+        }
+
+        final FixedRateLatencyTest test = new FixedRateLatencyTest();
+        test.testImplementations(targetRates);
+    }
+
+    private abstract static class Pass
+    {
+        abstract void start(Histogram histogram, long warmupEvents, long events, CountDownLatch latch);
+
+        abstract void publish(long intendedStart) throws InterruptedException;
+
+        abstract void stop();
+    }
+
+    private final class DisruptorPass extends Pass
+    {
+        private final ProducerType producerType;
+        private final WaitStrategyType waitStrategyType;
+        private RingBuffer<ValueEvent> ringBuffer;
+        private BatchEventProcessor<ValueEvent> processor;
+
+        DisruptorPass(final ProducerType producerType, final WaitStrategyType waitStrategyType)
+        {
+            this.producerType = producerType;
+            this.waitStrategyType = waitStrategyType;
+        }
+
+        @Override
+        void start(final Histogram histogram, final long warmupEvents, final long events, final CountDownLatch latch)
+        {
+            ringBuffer = RingBuffer.create(
+                producerType, ValueEvent.EVENT_FACTORY, BUFFER_SIZE, waitStrategyType.newInstance());
+            processor = new BatchEventProcessor<ValueEvent>(
+                ringBuffer, ringBuffer.newBarrier(), new LatencyRecordingHandler(histogram, warmupEvents, events, latch));
+            ringBuffer.addGatingSequences(processor.getSequence());
+
+            executor.submit(processor);
+        }
+
+        @Override
+        void publish(final long intendedStart)
+        {
+            final long next = ringBuffer.next();
+            ringBuffer.get(next).setValue(intendedStart);
+            ringBuffer.publish(next);
+        }
+
+        @Override
+        void stop()
+        {
+            processor.halt();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Disruptor " + producerType + " " + waitStrategyType;
+        }
+    }
+
+    private final class QueuePass extends Pass
+    {
+        private BlockingQueue<Long> queue;
+
+        @Override
+        void start(final Histogram histogram, final long warmupEvents, final long events, final CountDownLatch latch)
+        {
+            queue = new ArrayBlockingQueue<Long>(BUFFER_SIZE);
+
+            executor.submit(
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            for (long i = 0; i < events; i++)
+                            {
+                                final long intendedStart = queue.take().longValue();
+                                if (i >= warmupEvents)
+                                {
+                                    histogram.recordValue(System.nanoTime() - intendedStart);
+                                }
+                            }
+
+                            latch.countDown();
+                        }
+                        catch (final InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+        }
+
+        @Override
+        void publish(final long intendedStart) throws InterruptedException
+        {
+            queue.put(Long.valueOf(intendedStart));
+        }
+
+        @Override
+        void stop()
+        {
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ArrayBlockingQueue";
+        }
+    }
+
+    private static final class LatencyRecordingHandler implements EventHandler<ValueEvent>
+    {
+        private final Histogram histogram;
+        private final long warmupEvents;
+        private final long lastSequence;
+        private final CountDownLatch latch;
+
+        LatencyRecordingHandler(
+            final Histogram histogram, final long warmupEvents, final long events, final CountDownLatch latch)
+        {
+            this.histogram = histogram;
+            this.warmupEvents = warmupEvents;
+            this.lastSequence = events - 1;
+            this.latch = latch;
+        }
+
+        @Override
+        public void onEvent(final ValueEvent event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            if (sequence >= warmupEvents)
+            {
+                histogram.recordValue(System.nanoTime() - event.getValue());
+            }
+
+            if (sequence == lastSequence)
+            {
+                latch.countDown();
+            }
+        }
+    }
+}
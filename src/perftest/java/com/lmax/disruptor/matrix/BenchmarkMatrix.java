@@ -0,0 +1,272 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.matrix;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.LatencyRecorder;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.ValueAdditionEventHandler;
+import com.lmax.disruptor.support.ValueBatchPublisher;
+import com.lmax.disruptor.support.ValueEvent;
+import com.lmax.disruptor.support.WaitStrategyType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sweeps every combination of {@link Topology}, {@link ProducerType}, {@link WaitStrategyType}, buffer size and
+ * publisher batch size, and writes the throughput, publish to handled latency percentiles of the last processor
+ * and CPU time of each to <code>&lt;report&gt;.csv</code> and <code>&lt;report&gt;.json</code>.
+ * <p>
+ * The matrix is configured with comma separated system properties, each defaulting to the value shown:
+ * <pre>
+ * -Dmatrix.topologies=ONE_TO_ONE,THREE_TO_ONE,DIAMOND,PIPELINE
+ * -Dmatrix.producerTypes=SINGLE,MULTI
+ * -Dmatrix.waitStrategies=BUSY_SPIN,YIELDING,SLEEPING,BLOCKING,LITE_BLOCKING
+ * -Dmatrix.bufferSizes=1024,65536
+ * -Dmatrix.batchSizes=1,10
+ * -Dmatrix.iterations=10000000
+ * -Dmatrix.runs=3
+ * -Dmatrix.report=build/reports/matrix/results
+ * </pre>
+ * Topologies with several publishers are only run with {@link ProducerType#MULTI}.  Each configuration is run once
+ * to warm up and then <code>matrix.runs</code> times, publishing <code>matrix.iterations</code> events each time.
+ * Latency is sampled by the ring buffer, see {@link RingBuffer#enableLatencySampling(int)}, so is measured with the
+ * publisher running flat out and includes the time spent queued behind earlier events.
+ */
+public final class BenchmarkMatrix
+{
+    private static final int MAX_SAMPLE_INTERVAL = 1024;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final long iterations;
+    private final int runs;
+
+    public BenchmarkMatrix(final long iterations, final int runs)
+    {
+        if (iterations < 1)
+        {
+            throw new IllegalArgumentException("iterations must be > 0");
+        }
+        if (runs < 1)
+        {
+            throw new IllegalArgumentException("runs must be > 0");
+        }
+
+        this.iterations = iterations;
+        this.runs = runs;
+    }
+
+    public MatrixResult run(final MatrixConfiguration configuration) throws Exception
+    {
+        final Topology topology = configuration.getTopology();
+        final int batchSize = configuration.getBatchSize();
+        final RingBuffer<ValueEvent> ringBuffer = RingBuffer.create(
+            configuration.getProducerType(),
+            ValueEvent.EVENT_FACTORY,
+            configuration.getBufferSize(),
+            configuration.getWaitStrategyType().newInstance());
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(
+            ringBuffer.enableLatencySampling(Math.min(MAX_SAMPLE_INTERVAL, configuration.getBufferSize())));
+
+        final List<ValueAdditionEventHandler> handlers = new ArrayList<ValueAdditionEventHandler>();
+        for (int i = 0; i < topology.getProcessorCount(); i++)
+        {
+            handlers.add(new ValueAdditionEventHandler());
+        }
+        final List<BatchEventProcessor<ValueEvent>> processors = topology.connect(ringBuffer, handlers);
+        final BatchEventProcessor<ValueEvent> lastProcessor = processors.get(processors.size() - 1);
+        lastProcessor.setLatencyRecorder(latencyRecorder);
+        ringBuffer.addGatingSequences(lastProcessor.getSequence());
+
+        final int publisherCount = topology.getPublisherCount();
+        final long eventsPerPublisher = Math.max(iterations / (publisherCount * batchSize), 1L) * batchSize;
+        final long events = eventsPerPublisher * publisherCount;
+
+        long elapsedNanos = 0L;
+        long cpuNanos = 0L;
+        for (int run = 0; run <= runs; run++)
+        {
+            final AtomicLong passCpuNanos = new AtomicLong();
+            final CountDownLatch latch = new CountDownLatch(handlers.size());
+            final CountDownLatch stopped = new CountDownLatch(processors.size() + publisherCount);
+            final CyclicBarrier barrier = new CyclicBarrier(publisherCount + 1);
+
+            final long expectedSequence = ringBuffer.getCursor() + events;
+            for (final ValueAdditionEventHandler handler : handlers)
+            {
+                handler.reset(latch, expectedSequence);
+            }
+            for (final BatchEventProcessor<ValueEvent> processor : processors)
+            {
+                executor.submit(new CpuTimedRunnable(processor, passCpuNanos, stopped));
+            }
+            for (int i = 0; i < publisherCount; i++)
+            {
+                final ValueBatchPublisher publisher =
+                    new ValueBatchPublisher(barrier, ringBuffer, eventsPerPublisher, batchSize);
+                executor.submit(new CpuTimedRunnable(publisher, passCpuNanos, stopped));
+            }
+
+            final long start = System.nanoTime();
+            barrier.await();
+            latch.await();
+            final long passNanos = System.nanoTime() - start;
+
+            for (final BatchEventProcessor<ValueEvent> processor : processors)
+            {
+                processor.halt();
+            }
+            stopped.await();
+
+            if (run == 0)
+            {
+                latencyRecorder.reset();
+            }
+            else
+            {
+                elapsedNanos += passNanos;
+                cpuNanos += passCpuNanos.get();
+            }
+        }
+
+        final boolean cpuTimeEnabled = threadMXBean.isThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        return new MatrixResult(
+            configuration, events * runs, elapsedNanos, cpuTimeEnabled ? cpuNanos : -1L, latencyRecorder);
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        final List<Topology> topologies =
+            enumProperty("matrix.topologies", Topology.class, "ONE_TO_ONE,THREE_TO_ONE,DIAMOND,PIPELINE");
+        final List<ProducerType> producerTypes =
+            enumProperty("matrix.producerTypes", ProducerType.class, "SINGLE,MULTI");
+        final List<WaitStrategyType> waitStrategyTypes = enumProperty(
+            "matrix.waitStrategies", WaitStrategyType.class, "BUSY_SPIN,YIELDING,SLEEPING,BLOCKING,LITE_BLOCKING");
+        final List<Integer> bufferSizes = intProperty("matrix.bufferSizes", "1024,65536");
+        final List<Integer> batchSizes = intProperty("matrix.batchSizes", "1,10");
+        final long iterations = Long.parseLong(System.getProperty("matrix.iterations", "10000000"));
+        final int runs = Integer.parseInt(System.getProperty("matrix.runs", "3"));
+        final String report = System.getProperty("matrix.report", "build/reports/matrix/results");
+
+        final List<MatrixConfiguration> configurations = new ArrayList<MatrixConfiguration>();
+        for (final Topology topology : topologies)
+        {
+            for (final ProducerType producerType : producerTypes)
+            {
+                if (topology.getPublisherCount() > 1 && producerType == ProducerType.SINGLE)
+                {
+                    continue;
+                }
+
+                for (final WaitStrategyType waitStrategyType : waitStrategyTypes)
+                {
+                    for (final int bufferSize : bufferSizes)
+                    {
+                        for (final int batchSize : batchSizes)
+                        {
+                            configurations.add(new MatrixConfiguration(
+                                topology, producerType, waitStrategyType, bufferSize, batchSize));
+                        }
+                    }
+                }
+            }
+        }
+
+        final BenchmarkMatrix matrix = new BenchmarkMatrix(iterations, runs);
+        final MatrixReport matrixReport = new MatrixReport();
+        for (int i = 0; i < configurations.size(); i++)
+        {
+            final MatrixConfiguration configuration = configurations.get(i);
+            final MatrixResult result = matrix.run(configuration);
+            matrixReport.add(result);
+
+            System.out.format(
+                "%d/%d %s %s %s bufferSize=%,d batchSize=%d: %,d ops/sec p99=%,dns cpu=%.1fns/event\n",
+                i + 1, configurations.size(),
+                configuration.getTopology(), configuration.getProducerType(), configuration.getWaitStrategyType(),
+                configuration.getBufferSize(), configuration.getBatchSize(),
+                result.getOpsPerSecond(), result.getLatencyNanosAtPercentile(99.0), result.getCpuNanosPerEvent());
+        }
+
+        final File csv = new File(report + ".csv");
+        final File json = new File(report + ".json");
+        matrixReport.writeCsv(csv);
+        matrixReport.writeJson(json);
+        System.out.println("Results written to " + csv + " and " + json);
+    }
+
+    private static <E extends Enum<E>> List<E> enumProperty(
+        final String name, final Class<E> type, final String defaultValue)
+    {
+        final List<E> values = new ArrayList<E>();
+        for (final String value : System.getProperty(name, defaultValue).split(","))
+        {
+            values.add(Enum.valueOf(type, value.trim()));
+        }
+        return values;
+    }
+
+    private static List<Integer> intProperty(final String name, final String defaultValue)
+    {
+        final List<Integer> values = new ArrayList<Integer>();
+        for (final String value : System.getProperty(name, defaultValue).split(","))
+        {
+            values.add(Integer.valueOf(value.trim()));
+        }
+        return values;
+    }
+
+    private final class CpuTimedRunnable implements Runnable
+    {
+        private final Runnable delegate;
+        private final AtomicLong cpuNanos;
+        private final CountDownLatch stopped;
+
+        CpuTimedRunnable(final Runnable delegate, final AtomicLong cpuNanos, final CountDownLatch stopped)
+        {
+            this.delegate = delegate;
+            this.cpuNanos = cpuNanos;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void run()
+        {
+            final long start = threadMXBean.getCurrentThreadCpuTime();
+            try
+            {
+                delegate.run();
+            }
+            finally
+            {
+                cpuNanos.addAndGet(threadMXBean.getCurrentThreadCpuTime() - start);
+                stopped.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.matrix;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.WaitStrategyType;
+
+/**
+ * One point in the {@link BenchmarkMatrix}.
+ */
+public final class MatrixConfiguration
+{
+    private final Topology topology;
+    private final ProducerType producerType;
+    private final WaitStrategyType waitStrategyType;
+    private final int bufferSize;
+    private final int batchSize;
+
+    public MatrixConfiguration(
+        final Topology topology,
+        final ProducerType producerType,
+        final WaitStrategyType waitStrategyType,
+        final int bufferSize,
+        final int batchSize)
+    {
+        if (topology.getPublisherCount() > 1 && producerType == ProducerType.SINGLE)
+        {
+            throw new IllegalArgumentException(topology + " requires " + ProducerType.MULTI);
+        }
+        if (batchSize < 1 || batchSize > bufferSize)
+        {
+            throw new IllegalArgumentException("batchSize must be > 0 and <= bufferSize");
+        }
+
+        this.topology = topology;
+        this.producerType = producerType;
+        this.waitStrategyType = waitStrategyType;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+    }
+
+    public Topology getTopology()
+    {
+        return topology;
+    }
+
+    public ProducerType getProducerType()
+    {
+        return producerType;
+    }
+
+    public WaitStrategyType getWaitStrategyType()
+    {
+        return waitStrategyType;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MatrixConfiguration{" +
+            "topology=" + topology +
+            ", producerType=" + producerType +
+            ", waitStrategyType=" + waitStrategyType +
+            ", bufferSize=" + bufferSize +
+            ", batchSize=" + batchSize +
+            '}';
+    }
+}
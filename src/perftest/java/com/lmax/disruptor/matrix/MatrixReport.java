@@ -0,0 +1,152 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.matrix;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes {@link MatrixResult}s as CSV, one row per configuration, or as a JSON array with one object per
+ * configuration, using the same column names for both.
+ */
+public final class MatrixReport
+{
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final List<String> columns = new ArrayList<String>();
+    private final List<Object[]> rows = new ArrayList<Object[]>();
+
+    public MatrixReport()
+    {
+        columns.add("topology");
+        columns.add("producerType");
+        columns.add("waitStrategy");
+        columns.add("bufferSize");
+        columns.add("batchSize");
+        columns.add("events");
+        columns.add("opsPerSecond");
+        columns.add("cpuNanos");
+        columns.add("cpuNanosPerEvent");
+        columns.add("latencySamples");
+        columns.add("latencyMeanNanos");
+        for (final double percentile : MatrixResult.PERCENTILES)
+        {
+            columns.add("latencyP" + percentileName(percentile) + "Nanos");
+        }
+        columns.add("latencyMaxNanos");
+    }
+
+    public void add(final MatrixResult result)
+    {
+        final MatrixConfiguration configuration = result.getConfiguration();
+        final List<Object> row = new ArrayList<Object>();
+        row.add(configuration.getTopology().name());
+        row.add(configuration.getProducerType().name());
+        row.add(configuration.getWaitStrategyType().name());
+        row.add(configuration.getBufferSize());
+        row.add(configuration.getBatchSize());
+        row.add(result.getEvents());
+        row.add(result.getOpsPerSecond());
+        row.add(result.getCpuNanos());
+        row.add(result.getCpuNanosPerEvent());
+        row.add(result.getLatencySamples());
+        row.add(result.getLatencyMeanNanos());
+        for (final double percentile : MatrixResult.PERCENTILES)
+        {
+            row.add(result.getLatencyNanosAtPercentile(percentile));
+        }
+        row.add(result.getLatencyMaxNanos());
+
+        rows.add(row.toArray());
+    }
+
+    public void writeCsv(final File file) throws IOException
+    {
+        final PrintWriter out = open(file);
+        try
+        {
+            out.println(join(columns.toArray()));
+            for (final Object[] row : rows)
+            {
+                out.println(join(row));
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    public void writeJson(final File file) throws IOException
+    {
+        final PrintWriter out = open(file);
+        try
+        {
+            out.println('[');
+            for (int i = 0; i < rows.size(); i++)
+            {
+                final Object[] row = rows.get(i);
+                out.print("  {");
+                for (int j = 0; j < row.length; j++)
+                {
+                    out.print(j == 0 ? "" : ", ");
+                    out.print('"' + columns.get(j) + "\": ");
+                    out.print(row[j] instanceof String ? '"' + (String) row[j] + '"' : row[j]);
+                }
+                out.println(i < rows.size() - 1 ? "}," : "}");
+            }
+            out.println(']');
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private static PrintWriter open(final File file) throws IOException
+    {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs())
+        {
+            throw new IOException("Unable to create directory " + parent);
+        }
+
+        return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+    }
+
+    private static String percentileName(final double percentile)
+    {
+        final String name =
+            percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+        return name.replace('.', '_');
+    }
+
+    private static String join(final Object[] values)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++)
+        {
+            builder.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.matrix;
+
+import com.lmax.disruptor.LatencyRecorder;
+
+/**
+ * The measurements taken for one {@link MatrixConfiguration}, over all of its measured runs.
+ */
+public final class MatrixResult
+{
+    static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final MatrixConfiguration configuration;
+    private final long events;
+    private final long elapsedNanos;
+    private final long cpuNanos;
+    private final long latencySamples;
+    private final double latencyMeanNanos;
+    private final long[] latencyPercentileNanos = new long[PERCENTILES.length];
+    private final long latencyMaxNanos;
+
+    MatrixResult(
+        final MatrixConfiguration configuration,
+        final long events,
+        final long elapsedNanos,
+        final long cpuNanos,
+        final LatencyRecorder latencyRecorder)
+    {
+        this.configuration = configuration;
+        this.events = events;
+        this.elapsedNanos = elapsedNanos;
+        this.cpuNanos = cpuNanos;
+        this.latencySamples = latencyRecorder.getCount();
+        this.latencyMeanNanos = latencyRecorder.getMeanNanos();
+        for (int i = 0; i < PERCENTILES.length; i++)
+        {
+            latencyPercentileNanos[i] = latencyRecorder.getValueAtPercentile(PERCENTILES[i]);
+        }
+        this.latencyMaxNanos = latencyRecorder.getMaxNanos();
+    }
+
+    public MatrixConfiguration getConfiguration()
+    {
+        return configuration;
+    }
+
+    public long getEvents()
+    {
+        return events;
+    }
+
+    public long getOpsPerSecond()
+    {
+        return (events * 1000L * 1000L * 1000L) / Math.max(elapsedNanos, 1L);
+    }
+
+    /**
+     * @return the CPU time used by the publisher and processor threads, or -1 if the JVM does not measure it.
+     */
+    public long getCpuNanos()
+    {
+        return cpuNanos;
+    }
+
+    public double getCpuNanosPerEvent()
+    {
+        return cpuNanos < 0 ? -1 : (double) cpuNanos / events;
+    }
+
+    public long getLatencySamples()
+    {
+        return latencySamples;
+    }
+
+    public double getLatencyMeanNanos()
+    {
+        return latencyMeanNanos;
+    }
+
+    /**
+     * @param percentile one of 50, 90, 99, 99.9 or 99.99.
+     * @return the publish to handled latency at that percentile.
+     */
+    public long getLatencyNanosAtPercentile(final double percentile)
+    {
+        for (int i = 0; i < PERCENTILES.length; i++)
+        {
+            if (PERCENTILES[i] == percentile)
+            {
+                return latencyPercentileNanos[i];
+            }
+        }
+
+        throw new IllegalArgumentException("percentile " + percentile + " was not recorded");
+    }
+
+    public long getLatencyMaxNanos()
+    {
+        return latencyMaxNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MatrixResult{" +
+            "configuration=" + configuration +
+            ", opsPerSecond=" + getOpsPerSecond() +
+            ", latencyP99Nanos=" + getLatencyNanosAtPercentile(99.0) +
+            ", latencyMaxNanos=" + latencyMaxNanos +
+            ", cpuNanosPerEvent=" + getCpuNanosPerEvent() +
+            '}';
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.matrix;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.support.ValueEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The processor graphs swept by the {@link BenchmarkMatrix}, as in the corresponding sequenced throughput tests.
+ */
+public enum Topology
+{
+    /**
+     * P1 -> EP1
+     */
+    ONE_TO_ONE(1, 1)
+    {
+        @Override
+        List<BatchEventProcessor<ValueEvent>> connect(
+            final RingBuffer<ValueEvent> ringBuffer, final List<? extends EventHandler<ValueEvent>> handlers)
+        {
+            final List<BatchEventProcessor<ValueEvent>> processors = new ArrayList<BatchEventProcessor<ValueEvent>>();
+            processors.add(new BatchEventProcessor<ValueEvent>(ringBuffer, ringBuffer.newBarrier(), handlers.get(0)));
+            return processors;
+        }
+    },
+
+    /**
+     * P1, P2, P3 -> EP1
+     */
+    THREE_TO_ONE(3, 1)
+    {
+        @Override
+        List<BatchEventProcessor<ValueEvent>> connect(
+            final RingBuffer<ValueEvent> ringBuffer, final List<? extends EventHandler<ValueEvent>> handlers)
+        {
+            return ONE_TO_ONE.connect(ringBuffer, handlers);
+        }
+    },
+
+    /**
+     * P1 -> EP1, EP2 -> EP3
+     */
+    DIAMOND(1, 3)
+    {
+        @Override
+        List<BatchEventProcessor<ValueEvent>> connect(
+            final RingBuffer<ValueEvent> ringBuffer, final List<? extends EventHandler<ValueEvent>> handlers)
+        {
+            final List<BatchEventProcessor<ValueEvent>> processors = new ArrayList<BatchEventProcessor<ValueEvent>>();
+            final SequenceBarrier barrier = ringBuffer.newBarrier();
+            processors.add(new BatchEventProcessor<ValueEvent>(ringBuffer, barrier, handlers.get(0)));
+            processors.add(new BatchEventProcessor<ValueEvent>(ringBuffer, barrier, handlers.get(1)));
+
+            final SequenceBarrier joinBarrier =
+                ringBuffer.newBarrier(processors.get(0).getSequence(), processors.get(1).getSequence());
+            processors.add(new BatchEventProcessor<ValueEvent>(ringBuffer, joinBarrier, handlers.get(2)));
+            return processors;
+        }
+    },
+
+    /**
+     * P1 -> EP1 -> EP2 -> EP3
+     */
+    PIPELINE(1, 3)
+    {
+        @Override
+        List<BatchEventProcessor<ValueEvent>> connect(
+            final RingBuffer<ValueEvent> ringBuffer, final List<? extends EventHandler<ValueEvent>> handlers)
+        {
+            final List<BatchEventProcessor<ValueEvent>> processors = new ArrayList<BatchEventProcessor<ValueEvent>>();
+            SequenceBarrier barrier = ringBuffer.newBarrier();
+            for (final EventHandler<ValueEvent> handler : handlers)
+            {
+                final BatchEventProcessor<ValueEvent> processor =
+                    new BatchEventProcessor<ValueEvent>(ringBuffer, barrier, handler);
+                processors.add(processor);
+                barrier = ringBuffer.newBarrier(processor.getSequence());
+            }
+            return processors;
+        }
+    };
+
+    private final int publisherCount;
+    private final int processorCount;
+
+    Topology(final int publisherCount, final int processorCount)
+    {
+        this.publisherCount = publisherCount;
+        this.processorCount = processorCount;
+    }
+
+    public int getPublisherCount()
+    {
+        return publisherCount;
+    }
+
+    public int getProcessorCount()
+    {
+        return processorCount;
+    }
+
+    /**
+     * Create the processors for the given handlers, one per processor, without adding any gating sequences.
+     *
+     * @param ringBuffer to process events from.
+     * @param handlers for each of the processors.
+     * @return the processors, the last of which is the end of the graph.
+     */
+    abstract List<BatchEventProcessor<ValueEvent>> connect(
+        RingBuffer<ValueEvent> ringBuffer, List<? extends EventHandler<ValueEvent>> handlers);
+}
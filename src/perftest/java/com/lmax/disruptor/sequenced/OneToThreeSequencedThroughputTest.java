@@ -114,8 +114,19 @@ public final class OneToThreeSequencedThroughputTest extends AbstractPerfTestDis
             batchEventProcessors[2].getSequence());
     }
 
+    private final ProcessorMetrics[] metrics = new ProcessorMetrics[NUM_EVENT_PROCESSORS];
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    public OneToThreeSequencedThroughputTest()
+    {
+        for (int i = 0; i < NUM_EVENT_PROCESSORS; i++)
+        {
+            metrics[i] = new ProcessorMetrics(ringBuffer);
+            batchEventProcessors[i].setMetrics(metrics[i]);
+        }
+    }
+
     @Override
     protected int getRequiredProcessorCount()
     {
@@ -130,6 +141,7 @@ public final class OneToThreeSequencedThroughputTest extends AbstractPerfTestDis
         for (int i = 0; i < NUM_EVENT_PROCESSORS; i++)
         {
             handlers[i].reset(latch, batchEventProcessors[i].getSequence().get() + ITERATIONS);
+            metrics[i].reset();
             executor.submit(batchEventProcessors[i]);
         }
 
@@ -144,24 +156,26 @@ public final class OneToThreeSequencedThroughputTest extends AbstractPerfTestDis
 
         latch.await();
         perfTestContext.setDisruptorOps((ITERATIONS * 1000L) / (System.currentTimeMillis() - start));
-        perfTestContext.setBatchData(sumBatches(handlers), ITERATIONS * handlers.length);
         for (int i = 0; i < NUM_EVENT_PROCESSORS; i++)
         {
             batchEventProcessors[i].halt();
             failIfNot(results[i], handlers[i].getValue());
         }
+        waitForEventProcessorsToStop();
+        perfTestContext.setBatchData(metrics);
 
         return perfTestContext;
     }
 
-    private long sumBatches(ValueMutationEventHandler[] handlers)
+    private void waitForEventProcessorsToStop()
     {
-        long sum = 0;
-        for (ValueMutationEventHandler handler : handlers)
+        for (BatchEventProcessor<?> batchEventProcessor : batchEventProcessors)
         {
-            sum += handler.getBatchesProcessed();
+            while (batchEventProcessor.isRunning())
+            {
+                Thread.yield();
+            }
         }
-        return sum;
     }
 
     public static void main(String[] args) throws Exception
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.support;
+
+import com.lmax.disruptor.AdaptiveWaitStrategy;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.LiteBlockingWaitStrategy;
+import com.lmax.disruptor.LiteTimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TargetedBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wait strategies compared by the latency and matrix tests and the JMH benchmarks, each creating a new instance
+ * for every run.  Being an enum they can be named in system properties and used as a JMH <code>@Param</code>.
+ */
+public enum WaitStrategyType
+{
+    BUSY_SPIN
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new BusySpinWaitStrategy();
+        }
+    },
+    YIELDING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new YieldingWaitStrategy();
+        }
+    },
+    SLEEPING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new SleepingWaitStrategy();
+        }
+    },
+    BLOCKING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new BlockingWaitStrategy();
+        }
+    },
+    LITE_BLOCKING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new LiteBlockingWaitStrategy();
+        }
+    },
+    TIMEOUT_BLOCKING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new TimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS);
+        }
+    },
+    LITE_TIMEOUT_BLOCKING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new LiteTimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS);
+        }
+    },
+    TARGETED_BLOCKING
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new TargetedBlockingWaitStrategy();
+        }
+    },
+    PHASED_BACKOFF
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return PhasedBackoffWaitStrategy.withLock(1, 1, TimeUnit.MILLISECONDS);
+        }
+    },
+    ADAPTIVE
+    {
+        @Override
+        public WaitStrategy newInstance()
+        {
+            return new AdaptiveWaitStrategy();
+        }
+    };
+
+    public abstract WaitStrategy newInstance();
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AdaptiveWaitStrategyTest
+{
+    @Test
+    public void shouldHandleImmediateSequenceChange() throws Exception
+    {
+        assertWaitReturnsAfterDelayOf(0, new AdaptiveWaitStrategy());
+    }
+
+    @Test
+    public void shouldHandleSequenceChangeWithTenMillisecondDelay() throws Exception
+    {
+        assertWaitReturnsAfterDelayOf(10, new AdaptiveWaitStrategy());
+    }
+
+    @Test
+    public void shouldStartWithTheMaximumBudgets()
+    {
+        final AdaptiveWaitStrategy waitStrategy = newWaitStrategy();
+
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(10000L));
+        assertThat(waitStrategy.getYieldBudgetNanos(), is(100000L));
+    }
+
+    @Test
+    public void shouldShrinkBudgetsToCoverShortWaits()
+    {
+        final AdaptiveWaitStrategy waitStrategy = newWaitStrategy();
+
+        for (int i = 0; i < AdaptiveWaitStrategy.RETUNE_INTERVAL; i++)
+        {
+            waitStrategy.recordWait(i % 10 == 0 ? 3000L : 500L);
+        }
+
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(512L));
+        assertThat(waitStrategy.getYieldBudgetNanos(), is(0L));
+    }
+
+    @Test
+    public void shouldYieldForTheTailOfTheWaits()
+    {
+        final AdaptiveWaitStrategy waitStrategy = newWaitStrategy();
+
+        for (int i = 0; i < AdaptiveWaitStrategy.RETUNE_INTERVAL; i++)
+        {
+            waitStrategy.recordWait(i % 2 == 0 ? 500L : 3000L);
+        }
+
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(512L));
+        assertThat(waitStrategy.getYieldBudgetNanos(), is(4096L - 512L));
+    }
+
+    @Test
+    public void shouldOnlyRetuneOnceAThreadHasRecordedAFullInterval() throws Exception
+    {
+        final AdaptiveWaitStrategy waitStrategy = newWaitStrategy();
+        final Thread otherConsumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (int i = 0; i < AdaptiveWaitStrategy.RETUNE_INTERVAL - 1; i++)
+                {
+                    waitStrategy.recordWait(500L);
+                }
+            }
+        });
+        otherConsumer.start();
+        otherConsumer.join();
+
+        for (int i = 0; i < AdaptiveWaitStrategy.RETUNE_INTERVAL - 1; i++)
+        {
+            waitStrategy.recordWait(500L);
+        }
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(10000L));
+
+        waitStrategy.recordWait(500L);
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(512L));
+    }
+
+    @Test
+    public void shouldCapBudgetsAtTheConfiguredMaximum()
+    {
+        final AdaptiveWaitStrategy waitStrategy = newWaitStrategy();
+
+        for (int i = 0; i < AdaptiveWaitStrategy.RETUNE_INTERVAL; i++)
+        {
+            waitStrategy.recordWait(TimeUnit.SECONDS.toNanos(1));
+        }
+
+        assertThat(waitStrategy.getSpinBudgetNanos(), is(10000L));
+        assertThat(waitStrategy.getYieldBudgetNanos(), is(100000L));
+    }
+
+    private static AdaptiveWaitStrategy newWaitStrategy()
+    {
+        return new AdaptiveWaitStrategy(10, 100, TimeUnit.MICROSECONDS, new SleepingWaitStrategy(0));
+    }
+
+    private static void assertWaitReturnsAfterDelayOf(final long delayMillis, final WaitStrategy waitStrategy)
+        throws Exception
+    {
+        final Sequence dependentSequence = new Sequence(-1);
+        final Thread publisher = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(delayMillis);
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                dependentSequence.set(0);
+                waitStrategy.signalAllWhenBlocking();
+            }
+        });
+        publisher.start();
+
+        final long sequence = waitStrategy.waitFor(0, new Sequence(-1), dependentSequence, new DummySequenceBarrier());
+        publisher.join();
+
+        assertThat(sequence, is(0L));
+    }
+}
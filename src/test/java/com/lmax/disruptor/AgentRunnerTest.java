@@ -0,0 +1,165 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class AgentRunnerTest
+{
+    @Test
+    public void shouldHostProcessorsForSeveralRingBuffersOnOneThread() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBufferOne = createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+        final RingBuffer<StubEvent> ringBufferTwo = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+        final CountDownLatch latch = new CountDownLatch(40);
+        final LifecycleCountingHandler handlerOne = new LifecycleCountingHandler(latch);
+        final LifecycleCountingHandler handlerTwo = new LifecycleCountingHandler(latch);
+
+        final BatchEventProcessor<StubEvent> processorOne =
+            new BatchEventProcessor<>(ringBufferOne, ringBufferOne.newBarrier(), handlerOne);
+        final BatchEventProcessor<StubEvent> processorTwo =
+            new BatchEventProcessor<>(ringBufferTwo, ringBufferTwo.newBarrier(), handlerTwo);
+        ringBufferOne.addGatingSequences(processorOne.getSequence());
+        ringBufferTwo.addGatingSequences(processorTwo.getSequence());
+
+        final AgentRunner agentRunner = new AgentRunner(new BackoffIdleStrategy(), processorOne, processorTwo);
+        final Thread thread = new Thread(agentRunner);
+        thread.start();
+
+        for (int i = 0; i < 20; i++)
+        {
+            ringBufferOne.publish(ringBufferOne.next());
+            ringBufferTwo.publish(ringBufferTwo.next());
+        }
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        agentRunner.halt();
+        thread.join();
+
+        assertThat(processorOne.getSequence().get(), is(19L));
+        assertThat(processorTwo.getSequence().get(), is(19L));
+
+        assertThat(handlerOne.starts.get(), is(1));
+        assertThat(handlerOne.shutdowns.get(), is(1));
+        assertFalse(processorOne.isRunning());
+        assertFalse(processorTwo.isRunning());
+    }
+
+    @Test
+    public void shouldShareWorkBetweenWorkProcessorsOnOneThread() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+        final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final AtomicInteger handledByOne = new AtomicInteger();
+        final AtomicInteger handledByTwo = new AtomicInteger();
+
+        final WorkProcessor<StubEvent> workerOne = new WorkProcessor<>(
+            ringBuffer, barrier, new CountingWorkHandler(handledByOne), new FatalExceptionHandler(), workSequence);
+        final WorkProcessor<StubEvent> workerTwo = new WorkProcessor<>(
+            ringBuffer, barrier, new CountingWorkHandler(handledByTwo), new FatalExceptionHandler(), workSequence);
+        ringBuffer.addGatingSequences(workerOne.getSequence(), workerTwo.getSequence());
+
+        workerOne.onStart();
+        workerTwo.onStart();
+
+        assertThat(workerOne.doWork() + workerTwo.doWork(), is(0));
+
+        for (int i = 0; i < 10; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        int workCount = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            workCount += workerOne.doWork();
+            workCount += workerTwo.doWork();
+        }
+
+        assertThat(workCount, is(10));
+        assertThat(handledByOne.get() + handledByTwo.get(), is(10));
+
+        workerOne.onShutdown();
+        workerTwo.onShutdown();
+        assertFalse(workerOne.isRunning());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAtLeastOneAgent()
+    {
+        new AgentRunner(new BackoffIdleStrategy());
+    }
+
+    private static final class LifecycleCountingHandler implements EventHandler<StubEvent>, LifecycleAware
+    {
+        private final CountDownLatch latch;
+        private final AtomicInteger starts = new AtomicInteger();
+        private final AtomicInteger shutdowns = new AtomicInteger();
+
+        LifecycleCountingHandler(final CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            latch.countDown();
+        }
+
+        @Override
+        public void onStart()
+        {
+            starts.incrementAndGet();
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            shutdowns.incrementAndGet();
+        }
+    }
+
+    private static final class CountingWorkHandler implements WorkHandler<StubEvent>
+    {
+        private final AtomicInteger counter;
+
+        CountingWorkHandler(final AtomicInteger counter)
+        {
+            this.counter = counter;
+        }
+
+        @Override
+        public void onEvent(final StubEvent event)
+        {
+            counter.incrementAndGet();
+        }
+    }
+}
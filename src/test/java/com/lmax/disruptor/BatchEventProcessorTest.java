@@ -86,6 +86,66 @@ public final class BatchEventProcessorTest
         thread.join();
     }
 
+    @Test
+    public void shouldProcessAvailableEventsWithoutBlockingInDoWork()
+        throws Exception
+    {
+        CountDownLatch eventLatch = new CountDownLatch(3);
+        LatchEventHandler eventHandler = new LatchEventHandler(eventLatch);
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<StubEvent>(
+            ringBuffer, sequenceBarrier, eventHandler);
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        batchEventProcessor.onStart();
+        assertThat(batchEventProcessor.doWork(), is(0));
+
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+
+        assertThat(batchEventProcessor.doWork(), is(3));
+        assertThat(batchEventProcessor.doWork(), is(0));
+        assertThat(eventLatch.getCount(), is(0L));
+        assertThat(batchEventProcessor.getSequence().get(), is(2L));
+
+        batchEventProcessor.halt();
+        ringBuffer.publish(ringBuffer.next());
+        assertThat(batchEventProcessor.doWork(), is(0));
+
+        batchEventProcessor.onShutdown();
+        assertFalse(batchEventProcessor.isRunning());
+    }
+
+    @Test
+    public void shouldCallExceptionHandlerAndSkipEventInDoWork()
+        throws Exception
+    {
+        CountDownLatch exceptionLatch = new CountDownLatch(2);
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<StubEvent>(
+            ringBuffer, sequenceBarrier, new ExceptionEventHandler());
+        batchEventProcessor.setExceptionHandler(new LatchExceptionHandler(exceptionLatch));
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+
+        batchEventProcessor.onStart();
+        assertThat(batchEventProcessor.doWork(), is(1));
+        assertThat(batchEventProcessor.doWork(), is(1));
+        assertThat(exceptionLatch.getCount(), is(0L));
+        batchEventProcessor.onShutdown();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotStartAsAgentWhenAlreadyRunning()
+    {
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<StubEvent>(
+            ringBuffer, sequenceBarrier, new ExceptionEventHandler());
+
+        batchEventProcessor.onStart();
+        batchEventProcessor.onStart();
+    }
+
     private static class LatchEventHandler implements EventHandler<StubEvent>
     {
         private final CountDownLatch latch;
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class ConflatingBatchEventProcessorTest
+{
+    private static final KeyExtractor<StubEvent> KEY_EXTRACTOR = new KeyExtractor<StubEvent>()
+    {
+        @Override
+        public long getKey(final StubEvent event)
+        {
+            return event.getValue();
+        }
+    };
+
+    private final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldDeliverOnlyTheLatestEventPerKeyInSequenceOrder() throws Exception
+    {
+        final ConflatingBatchEventProcessor<StubEvent> processor = new ConflatingBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), KEY_EXTRACTOR, new RecordingHandler(), 16);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1, 2, 1, 3, 2);
+        runUntil(processor, 4L);
+
+        assertThat(delivered, is(asList("1@2:false", "3@3:false", "2@4:true")));
+    }
+
+    @Test
+    public void shouldCapConflationAtMaxBatchSize() throws Exception
+    {
+        final ConflatingBatchEventProcessor<StubEvent> processor = new ConflatingBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), KEY_EXTRACTOR, new RecordingHandler(), 2);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1, 1, 1, 1, 2);
+        runUntil(processor, 4L);
+
+        assertThat(delivered, is(asList("1@1:true", "1@3:true", "2@4:true")));
+    }
+
+    @Test
+    public void shouldContinueWithRemainingKeysAfterHandlerException() throws Exception
+    {
+        final ConflatingBatchEventProcessor<StubEvent> processor = new ConflatingBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), KEY_EXTRACTOR, new EventHandler<StubEvent>()
+            {
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                    if (event.getValue() == 1)
+                    {
+                        throw new IllegalStateException();
+                    }
+                    delivered.add(event.getValue() + "@" + sequence);
+                }
+            }, 16);
+        processor.setExceptionHandler(new IgnoreExceptionHandler());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1, 2);
+        runUntil(processor, 1L);
+
+        assertThat(delivered, is(asList("2@1")));
+    }
+
+    @Test
+    public void shouldSkipEventsWhoseKeyCannotBeExtracted() throws Exception
+    {
+        final List<Long> failedSequences = new CopyOnWriteArrayList<>();
+        final ConflatingBatchEventProcessor<StubEvent> processor = new ConflatingBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), new KeyExtractor<StubEvent>()
+            {
+                @Override
+                public long getKey(final StubEvent event)
+                {
+                    if (event.getValue() == 9)
+                    {
+                        throw new IllegalArgumentException();
+                    }
+                    return event.getValue();
+                }
+            }, new RecordingHandler(), 16);
+        processor.setExceptionHandler(new ExceptionHandler<Object>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final Object event)
+            {
+                failedSequences.add(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1, 9, 2, 1, 9);
+        runUntil(processor, 4L);
+
+        assertThat(failedSequences, is(asList(1L, 4L)));
+        assertThat(delivered, is(asList("2@2:false", "1@3:true")));
+    }
+
+    @Test
+    public void shouldConflateOneBatchPerCallWhenDrivenAsAnAgent()
+    {
+        final ConflatingBatchEventProcessor<StubEvent> processor = new ConflatingBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), KEY_EXTRACTOR, new RecordingHandler(), 3);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1, 1, 2, 2);
+        processor.onStart();
+
+        assertThat(processor.doWork(), is(3));
+        assertThat(processor.doWork(), is(1));
+        assertThat(processor.doWork(), is(0));
+        assertThat(processor.getSequence().get(), is(3L));
+        assertThat(delivered, is(asList("1@1:false", "2@2:true", "2@3:true")));
+
+        processor.onShutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveMaxBatchSize()
+    {
+        new ConflatingBatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), KEY_EXTRACTOR, new RecordingHandler(), 0);
+    }
+
+    private void publish(final int... keys)
+    {
+        for (final int key : keys)
+        {
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).setValue(key);
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private static void runUntil(final EventProcessor processor, final long sequence) throws InterruptedException
+    {
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        while (processor.getSequence().get() < sequence)
+        {
+            Thread.yield();
+        }
+
+        processor.halt();
+        thread.join();
+    }
+
+    private final class RecordingHandler implements EventHandler<StubEvent>
+    {
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            delivered.add(event.getValue() + "@" + sequence + ":" + endOfBatch);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import com.lmax.disruptor.util.Clock;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class DeadlineBatchEventProcessorTest
+{
+    private static final long NOW = 1000L;
+    private static final DeadlineExtractor<StubEvent> DEADLINE_EXTRACTOR = new DeadlineExtractor<StubEvent>()
+    {
+        @Override
+        public long getDeadline(final StubEvent event)
+        {
+            return event.getValue();
+        }
+    };
+    private static final Clock CLOCK = new Clock()
+    {
+        @Override
+        public long currentTime()
+        {
+            return NOW;
+        }
+    };
+
+    private final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final List<String> dropped = new CopyOnWriteArrayList<>();
+    private final DroppedEventsListener droppedEventsListener = new DroppedEventsListener()
+    {
+        @Override
+        public void onEventsDropped(final long firstSequence, final long lastSequence)
+        {
+            dropped.add(firstSequence + "-" + lastSequence);
+        }
+    };
+
+    @Test
+    public void shouldDropExpiredEventsInRunsAndProcessTheRest() throws Exception
+    {
+        final DeadlineBatchEventProcessor<StubEvent> processor = new DeadlineBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), DEADLINE_EXTRACTOR, CLOCK, new RecordingHandler(), droppedEventsListener);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(999, 998, 2000, 500, 3000, 1, 2);
+        runUntil(processor, 6L);
+
+        assertThat(delivered, is(asList("2:false", "4:true")));
+        assertThat(dropped, is(asList("0-1", "3-3", "5-6")));
+        assertThat(processor.getDroppedCount(), is(5L));
+    }
+
+    @Test
+    public void shouldProcessEventsThatHaveNotExpiredWithoutListener() throws Exception
+    {
+        final DeadlineBatchEventProcessor<StubEvent> processor = new DeadlineBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), DEADLINE_EXTRACTOR, CLOCK, new RecordingHandler(), null);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(1000, 5, Integer.MAX_VALUE);
+        runUntil(processor, 2L);
+
+        assertThat(delivered, is(asList("0:false", "2:true")));
+        assertThat(processor.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldHandleDeadlineExtractionFailuresAndDropTheEvent() throws Exception
+    {
+        final List<Long> failedSequences = new CopyOnWriteArrayList<>();
+        final DeadlineBatchEventProcessor<StubEvent> processor = new DeadlineBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), new DeadlineExtractor<StubEvent>()
+            {
+                @Override
+                public long getDeadline(final StubEvent event)
+                {
+                    if (event.getValue() == 0)
+                    {
+                        throw new IllegalArgumentException();
+                    }
+                    return event.getValue();
+                }
+            }, CLOCK, new RecordingHandler(), droppedEventsListener);
+        processor.setExceptionHandler(new ExceptionHandler<Object>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final Object event)
+            {
+                failedSequences.add(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(2000, 0, 3000);
+        runUntil(processor, 2L);
+
+        assertThat(failedSequences, is(asList(1L)));
+        assertThat(delivered, is(asList("0:false", "2:true")));
+        assertThat(dropped, is(asList("1-1")));
+        assertThat(processor.getDroppedCount(), is(1L));
+    }
+
+    private void publish(final int... deadlines)
+    {
+        for (final int deadline : deadlines)
+        {
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).setValue(deadline);
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private static void runUntil(final EventProcessor processor, final long sequence) throws InterruptedException
+    {
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        while (processor.getSequence().get() < sequence)
+        {
+            Thread.yield();
+        }
+
+        processor.halt();
+        thread.join();
+    }
+
+    private final class RecordingHandler implements EventHandler<StubEvent>
+    {
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            delivered.add(sequence + ":" + endOfBatch);
+        }
+    }
+}
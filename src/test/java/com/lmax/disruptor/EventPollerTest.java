@@ -81,4 +81,41 @@ public class EventPollerTest {
 
         assertThat(events.size(), is(4));
     }
+
+    @Test
+    public void shouldHandleAtMostMaxEventsPerPoll() throws Exception {
+        final ArrayList<Long> sequences = new ArrayList<>();
+        final ArrayList<Boolean> endOfBatches = new ArrayList<>();
+
+        final EventPoller.Handler<Object> handler = (event, sequence, endOfBatch) -> {
+            sequences.add(sequence);
+            endOfBatches.add(endOfBatch);
+            return true;
+        };
+
+        final RingBuffer<Object> ringBuffer = RingBuffer.createMultiProducer(Object::new, 16, new SleepingWaitStrategy());
+        final EventPoller<Object> poller = ringBuffer.newPoller();
+        ringBuffer.addGatingSequences(poller.getSequence());
+
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        assertThat(poller.poll(handler, 3), is(PollState.PROCESSING));
+        assertThat(sequences.size(), is(3));
+        assertThat(endOfBatches.get(2), is(true));
+        assertThat(poller.getSequence().get(), is(2L));
+
+        assertThat(poller.poll(handler, 3), is(PollState.PROCESSING));
+        assertThat(sequences.size(), is(5));
+        assertThat(endOfBatches.get(4), is(true));
+
+        assertThat(poller.poll(handler, 3), is(PollState.IDLE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveMaxEvents() throws Exception {
+        final RingBuffer<Object> ringBuffer = RingBuffer.createMultiProducer(Object::new, 16);
+        ringBuffer.newPoller().poll((event, sequence, endOfBatch) -> true, 0);
+    }
 }
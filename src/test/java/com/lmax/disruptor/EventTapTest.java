@@ -0,0 +1,229 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class EventTapTest
+{
+    private static final EventFactory<LongEvent> FACTORY = new EventFactory<LongEvent>()
+    {
+        @Override
+        public LongEvent newInstance()
+        {
+            return new LongEvent();
+        }
+    };
+
+    private static final EventCopier<LongEvent> COPIER = new EventCopier<LongEvent>()
+    {
+        @Override
+        public void copy(final LongEvent source, final LongEvent destination)
+        {
+            destination.set(source.get());
+        }
+    };
+
+    private final RingBuffer<LongEvent> ringBuffer = createMultiProducer(FACTORY, 16);
+    private final Sequence consumerSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final List<Long> values = new ArrayList<>();
+    private final List<Boolean> endOfBatches = new ArrayList<>();
+    private final EventPoller.Handler<LongEvent> handler = new EventPoller.Handler<LongEvent>()
+    {
+        @Override
+        public boolean onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+        {
+            values.add(event.get());
+            endOfBatches.add(endOfBatch);
+            return true;
+        }
+    };
+
+    @Test
+    public void shouldReadPublishedEventsWithoutGatingTheProducer() throws Exception
+    {
+        ringBuffer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = ringBuffer.newTap(FACTORY, COPIER, 1);
+
+        publish(ringBuffer, 3);
+
+        assertThat(ringBuffer.remainingCapacity(), is(16L));
+        assertThat(tap.poll(handler, 10), is(3));
+        assertThat(values, is(asList(0L, 1L, 2L)));
+        assertThat(endOfBatches, is(asList(false, false, true)));
+        assertThat(tap.getOverrunCount(), is(0L));
+        assertThat(tap.poll(handler, 10), is(0));
+    }
+
+    @Test
+    public void shouldSkipAheadAndCountOverrunWhenLapped() throws Exception
+    {
+        ringBuffer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = ringBuffer.newTap(FACTORY, COPIER, 1);
+
+        publish(ringBuffer, 40);
+
+        assertThat(tap.poll(handler, 100), is(16));
+        assertThat(values.get(0), is(24L));
+        assertThat(values.get(15), is(39L));
+        assertThat(tap.getOverrunCount(), is(24L));
+    }
+
+    @Test
+    public void shouldSampleEveryNthSequence() throws Exception
+    {
+        ringBuffer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = ringBuffer.newTap(FACTORY, COPIER, 4);
+
+        publish(ringBuffer, 10);
+
+        assertThat(tap.poll(handler, 10), is(3));
+        assertThat(values, is(asList(0L, 4L, 8L)));
+        assertThat(endOfBatches.get(2), is(true));
+        assertThat(tap.getNextSequence(), is(12L));
+
+        publish(ringBuffer, 40);
+
+        assertThat(tap.poll(handler, 10), is(4));
+        assertThat(values.subList(3, 7), is(asList(36L, 40L, 44L, 48L)));
+        assertThat(tap.getOverrunCount(), is(6L));
+    }
+
+    @Test
+    public void shouldDiscardAnEventOverwrittenWhileBeingCopied() throws Exception
+    {
+        ringBuffer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = ringBuffer.newTap(FACTORY, new EventCopier<LongEvent>()
+        {
+            private boolean lapped;
+
+            @Override
+            public void copy(final LongEvent source, final LongEvent destination)
+            {
+                destination.set(source.get());
+                if (!lapped)
+                {
+                    lapped = true;
+                    publish(ringBuffer, 16);
+                }
+            }
+        }, 1);
+
+        publish(ringBuffer, 1);
+
+        assertThat(tap.poll(handler, 100), is(16));
+        assertThat(values.get(0), is(1L));
+        assertThat(tap.getOverrunCount(), is(1L));
+    }
+
+    @Test
+    public void shouldReadEventsTheGatingConsumersHavePassedOnASingleProducerRingBuffer() throws Exception
+    {
+        final RingBuffer<LongEvent> singleProducer = createSingleProducer(FACTORY, 16);
+        singleProducer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = singleProducer.newTap(FACTORY, COPIER, 1);
+
+        publish(singleProducer, 10);
+
+        assertThat(tap.poll(handler, 100), is(10));
+        assertThat(values.get(0), is(0L));
+        assertThat(values.get(9), is(9L));
+        assertThat(tap.getOverrunCount(), is(0L));
+    }
+
+    @Test
+    public void shouldReadEventsOnASingleProducerRingBufferWithoutGatingSequences() throws Exception
+    {
+        final RingBuffer<LongEvent> singleProducer = createSingleProducer(FACTORY, 16);
+        final EventTap<LongEvent> tap = singleProducer.newTap(FACTORY, COPIER, 1);
+
+        publish(singleProducer, 3);
+
+        assertThat(tap.poll(handler, 10), is(3));
+        assertThat(values, is(asList(0L, 1L, 2L)));
+        assertThat(tap.getOverrunCount(), is(0L));
+    }
+
+    @Test
+    public void shouldDiscardAnEventOverwrittenWhileBeingCopiedOnASingleProducerRingBuffer() throws Exception
+    {
+        final RingBuffer<LongEvent> singleProducer = createSingleProducer(FACTORY, 16);
+        singleProducer.addGatingSequences(consumerSequence);
+        final EventTap<LongEvent> tap = singleProducer.newTap(FACTORY, new EventCopier<LongEvent>()
+        {
+            private boolean lapped;
+
+            @Override
+            public void copy(final LongEvent source, final LongEvent destination)
+            {
+                destination.set(source.get());
+                if (!lapped)
+                {
+                    lapped = true;
+                    publish(singleProducer, 16);
+                }
+            }
+        }, 1);
+
+        publish(singleProducer, 1);
+
+        assertThat(tap.poll(handler, 100), is(16));
+        assertThat(values.get(0), is(1L));
+        assertThat(tap.getOverrunCount(), is(1L));
+    }
+
+    @Test
+    public void shouldOnlyStoreSingleProducerClaimsOnceATapIsAttached()
+    {
+        final SingleProducerSequencer sequencer = new SingleProducerSequencer(16, new BlockingWaitStrategy());
+
+        sequencer.next();
+        assertThat(sequencer.getClaimedSequenceBound(), is(Long.MAX_VALUE));
+
+        sequencer.trackClaims();
+        assertThat(sequencer.getClaimedSequenceBound(), is(Long.MAX_VALUE));
+
+        sequencer.next(2);
+        assertThat(sequencer.getClaimedSequenceBound(), is(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveSampleInterval()
+    {
+        ringBuffer.newTap(FACTORY, COPIER, 0);
+    }
+
+    private void publish(final RingBuffer<LongEvent> target, final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final long sequence = target.next();
+            target.get(sequence).set(sequence);
+            target.publish(sequence);
+            consumerSequence.set(sequence);
+        }
+    }
+}
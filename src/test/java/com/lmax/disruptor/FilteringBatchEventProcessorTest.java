@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class FilteringBatchEventProcessorTest
+{
+    private static final long TRADE = 1L;
+    private static final long QUOTE = 1L << 1;
+    private static final long HEARTBEAT = 1L << 2;
+
+    private final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+    private final EventTags eventTags = new EventTags(16);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldOnlyDeliverEventsWhoseTagMatchesTheMask() throws Exception
+    {
+        final FilteringBatchEventProcessor<StubEvent> processor = new FilteringBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), eventTags, TRADE | QUOTE, new RecordingHandler());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(TRADE, HEARTBEAT, QUOTE, HEARTBEAT, TRADE | HEARTBEAT, HEARTBEAT);
+        runUntil(processor, 5L);
+
+        assertThat(delivered, is(asList("0:false", "2:false", "4:true")));
+    }
+
+    @Test
+    public void shouldAdvanceOverBatchesWithoutMatches() throws Exception
+    {
+        final FilteringBatchEventProcessor<StubEvent> processor = new FilteringBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), eventTags, TRADE, new RecordingHandler());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        publish(HEARTBEAT, QUOTE, HEARTBEAT);
+        runUntil(processor, 2L);
+
+        assertThat(delivered.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldTagEventsPublishedThroughATaggingTranslator() throws Exception
+    {
+        final FilteringBatchEventProcessor<StubEvent> processor = new FilteringBatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), eventTags, QUOTE, new RecordingHandler());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        final EventTranslatorOneArg<StubEvent, Integer> translator = new EventTranslatorOneArg<StubEvent, Integer>()
+        {
+            @Override
+            public void translateTo(final StubEvent event, final long sequence, final Integer value)
+            {
+                event.setValue(value);
+            }
+        };
+        ringBuffer.publishEvent(eventTags.tagging(translator, TRADE), 7);
+        ringBuffer.publishEvent(eventTags.tagging(translator, QUOTE), 8);
+        runUntil(processor, 1L);
+
+        assertThat(delivered, is(asList("1:true")));
+        assertThat(ringBuffer.get(1L).getValue(), is(8));
+    }
+
+    @Test
+    public void shouldTagEventsPublishedThroughMultipleArgumentTranslators()
+    {
+        ringBuffer.publishEvent(eventTags.tagging(new EventTranslatorTwoArg<StubEvent, Integer, Integer>()
+        {
+            @Override
+            public void translateTo(final StubEvent event, final long sequence, final Integer arg0, final Integer arg1)
+            {
+                event.setValue(arg0 + arg1);
+            }
+        }, TRADE), 1, 2);
+        ringBuffer.publishEvent(eventTags.tagging(new EventTranslatorThreeArg<StubEvent, Integer, Integer, Integer>()
+        {
+            @Override
+            public void translateTo(
+                final StubEvent event, final long sequence, final Integer arg0, final Integer arg1, final Integer arg2)
+            {
+                event.setValue(arg0 + arg1 + arg2);
+            }
+        }, QUOTE), 1, 2, 3);
+        ringBuffer.publishEvent(eventTags.tagging(new EventTranslatorVararg<StubEvent>()
+        {
+            @Override
+            public void translateTo(final StubEvent event, final long sequence, final Object... args)
+            {
+                event.setValue(args.length);
+            }
+        }, TRADE | QUOTE), 1, 2, 3, 4);
+
+        assertThat(eventTags.getTag(0L), is(TRADE));
+        assertThat(ringBuffer.get(0L).getValue(), is(3));
+        assertThat(eventTags.getTag(1L), is(QUOTE));
+        assertThat(ringBuffer.get(1L).getValue(), is(6));
+        assertThat(eventTags.getTag(2L), is(TRADE | QUOTE));
+        assertThat(ringBuffer.get(2L).getValue(), is(4));
+    }
+
+    @Test
+    public void shouldKeepTagsPerSlot()
+    {
+        eventTags.setTag(3L, QUOTE);
+        eventTags.setTag(19L, TRADE);
+
+        assertThat(eventTags.getTag(3L), is(TRADE));
+        assertThat(eventTags.matches(19L, QUOTE), is(false));
+        assertThat(eventTags.getBufferSize(), is(16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTagsNotSizedAsAPowerOfTwo()
+    {
+        new EventTags(12);
+    }
+
+    private void publish(final long... tags)
+    {
+        for (final long tag : tags)
+        {
+            final long sequence = ringBuffer.next();
+            eventTags.setTag(sequence, tag);
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private static void runUntil(final EventProcessor processor, final long sequence) throws InterruptedException
+    {
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        while (processor.getSequence().get() < sequence)
+        {
+            Thread.yield();
+        }
+
+        processor.halt();
+        thread.join();
+    }
+
+    private final class RecordingHandler implements EventHandler<StubEvent>
+    {
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            delivered.add(sequence + ":" + endOfBatch);
+        }
+    }
+}
@@ -37,4 +37,58 @@ public class FixedSequenceGroupTest
         sequence1.set(48);
         assertThat(group.get(), is(47L));
     }
+
+    @Test
+    public void shouldTrackMinimumAsTheLaggingSequenceChanges() throws Exception
+    {
+        Sequence sequence1 = new Sequence(3);
+        Sequence sequence2 = new Sequence(5);
+        Sequence sequence3 = new Sequence(4);
+        Sequence group = new FixedSequenceGroup(new Sequence[]{sequence1, sequence2, sequence3});
+
+        assertThat(group.get(), is(3L));
+        sequence1.set(10);
+        assertThat(group.get(), is(4L));
+        sequence3.set(12);
+        assertThat(group.get(), is(5L));
+        sequence2.set(11);
+        assertThat(group.get(), is(10L));
+    }
+
+    @Test
+    public void shouldOnlyReadLaggingSequenceWhileMinimumIsUnchanged() throws Exception
+    {
+        CountingSequence lagging = new CountingSequence(1);
+        CountingSequence leading = new CountingSequence(9);
+        Sequence group = new FixedSequenceGroup(new Sequence[]{lagging, leading});
+
+        assertThat(group.get(), is(1L));
+        leading.reads = 0;
+        for (int i = 0; i < 10; i++)
+        {
+            assertThat(group.get(), is(1L));
+        }
+        assertThat(leading.reads, is(0));
+
+        lagging.set(2);
+        assertThat(group.get(), is(2L));
+        assertThat(leading.reads, is(1));
+    }
+
+    private static final class CountingSequence extends Sequence
+    {
+        private int reads;
+
+        CountingSequence(final long initialValue)
+        {
+            super(initialValue);
+        }
+
+        @Override
+        public long get()
+        {
+            reads++;
+            return super.get();
+        }
+    }
 }
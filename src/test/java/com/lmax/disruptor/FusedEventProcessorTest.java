@@ -0,0 +1,246 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public final class FusedEventProcessorTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldPassEachEventThroughEveryStageInChainOrder() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new RecordingHandler("a"));
+        final BatchEventProcessor<StubEvent> stageB =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(stageA.getSequence()), new RecordingHandler("b"));
+        final FusedEventProcessor<StubEvent> fused = new FusedEventProcessor<>(stageA, stageB);
+        ringBuffer.addGatingSequences(fused.getSequence());
+
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+
+        final Thread thread = new Thread(fused);
+        thread.start();
+        waitForSequence(fused.getSequence(), 1L);
+
+        fused.halt();
+        thread.join();
+
+        assertThat(calls, is(asList("start-a", "start-b", "a0", "b0", "a1", "b1", "shutdown-a", "shutdown-b")));
+        assertThat(stageA.getSequence().get(), is(1L));
+        assertThat(stageB.getSequence().get(), is(1L));
+        assertFalse(fused.isRunning());
+        assertFalse(stageB.isRunning());
+    }
+
+    @Test
+    public void shouldHandleExceptionsWithTheStagesOwnExceptionHandler() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new ThrowingHandler());
+        final BatchEventProcessor<StubEvent> stageB =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(stageA.getSequence()), new RecordingHandler("b"));
+        final AtomicLong failedSequence = new AtomicLong(-1L);
+        stageA.setExceptionHandler(new ExceptionHandler<Object>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final Object event)
+            {
+                failedSequence.set(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+        final FusedEventProcessor<StubEvent> fused = new FusedEventProcessor<>(stageA, stageB);
+        ringBuffer.addGatingSequences(fused.getSequence());
+
+        ringBuffer.publish(ringBuffer.next());
+
+        final Thread thread = new Thread(fused);
+        thread.start();
+        waitForSequence(fused.getSequence(), 0L);
+
+        fused.halt();
+        thread.join();
+
+        assertThat(failedSequence.get(), is(0L));
+        assertThat(calls.contains("b0"), is(true));
+    }
+
+    @Test
+    public void shouldHandleBatchStartExceptionsWithTheStagesOwnExceptionHandler() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new ThrowingBatchStartHandler());
+        final AtomicLong failedSequence = new AtomicLong(-1L);
+        stageA.setExceptionHandler(new ExceptionHandler<Object>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final Object event)
+            {
+                failedSequence.set(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+        final FusedEventProcessor<StubEvent> fused = new FusedEventProcessor<>(stageA);
+        ringBuffer.addGatingSequences(fused.getSequence());
+
+        ringBuffer.publish(ringBuffer.next());
+
+        final Thread thread = new Thread(fused);
+        thread.start();
+        waitForSequence(fused.getSequence(), 0L);
+
+        fused.halt();
+        thread.join();
+
+        assertThat(failedSequence.get(), is(0L));
+        assertThat(calls, is(asList("batch-start-1", "onEvent0")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotFuseStagesWithDifferentWaitStrategies()
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new RecordingHandler("a"));
+        final SequenceBarrier barrier = ringBuffer.newBarrier(new YieldingWaitStrategy(), stageA.getSequence());
+        final BatchEventProcessor<StubEvent> stageB =
+            new BatchEventProcessor<>(ringBuffer, barrier, new RecordingHandler("b"));
+
+        new FusedEventProcessor<>(stageA, stageB);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotFuseStagesRecordingMetrics()
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new RecordingHandler("a"));
+        final BatchEventProcessor<StubEvent> stageB =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(stageA.getSequence()), new RecordingHandler("b"));
+        stageB.setMetrics(new ProcessorMetrics(ringBuffer));
+
+        new FusedEventProcessor<>(stageA, stageB);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotRunFusedStagesGivenALatencyRecorderAfterFusing()
+    {
+        final BatchEventProcessor<StubEvent> stageA =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new RecordingHandler("a"));
+        final FusedEventProcessor<StubEvent> fused = new FusedEventProcessor<>(stageA);
+        stageA.setLatencyRecorder(new LatencyRecorder(ringBuffer.enableLatencySampling(1)));
+
+        fused.run();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAtLeastOneStage()
+    {
+        new FusedEventProcessor<StubEvent>();
+    }
+
+    private static void waitForSequence(final Sequence sequence, final long expected)
+    {
+        while (sequence.get() < expected)
+        {
+            Thread.yield();
+        }
+    }
+
+    private final class RecordingHandler implements EventHandler<StubEvent>, LifecycleAware
+    {
+        private final String name;
+
+        RecordingHandler(final String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            calls.add(name + sequence);
+        }
+
+        @Override
+        public void onStart()
+        {
+            calls.add("start-" + name);
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            calls.add("shutdown-" + name);
+        }
+    }
+
+    private final class ThrowingBatchStartHandler implements EventHandler<StubEvent>, BatchStartAware
+    {
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+            calls.add("batch-start-" + batchSize);
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            calls.add("onEvent" + sequence);
+        }
+    }
+
+    private static final class ThrowingHandler implements EventHandler<StubEvent>
+    {
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyRecorderTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+    private final LatencySampler sampler = ringBuffer.enableLatencySampling(2);
+    private final LatencyRecorder recorder = new LatencyRecorder(sampler);
+
+    @Test
+    public void shouldRecordExactValuesBelowSubBucketCount()
+    {
+        recorder.record(3L);
+        recorder.record(5L);
+        recorder.record(7L);
+
+        assertThat(recorder.getCount(), is(3L));
+        assertThat(recorder.getMaxNanos(), is(7L));
+        assertThat(recorder.getMeanNanos(), is(5.0));
+        assertThat(recorder.getValueAtPercentile(0.0), is(3L));
+        assertThat(recorder.getValueAtPercentile(50.0), is(5L));
+        assertThat(recorder.getValueAtPercentile(100.0), is(7L));
+    }
+
+    @Test
+    public void shouldReportPercentilesWithinSubBucketPrecision()
+    {
+        for (int i = 0; i < 99; i++)
+        {
+            recorder.record(1000L);
+        }
+        recorder.record(1000000L);
+
+        final long p50 = recorder.getValueAtPercentile(50.0);
+        assertTrue(p50 >= 1000L && p50 < 1000L + 1000L / LatencyRecorder.SUB_BUCKETS);
+        assertThat(recorder.getValueAtPercentile(99.9), is(1000000L));
+        assertThat(recorder.getMaxNanos(), is(1000000L));
+    }
+
+    @Test
+    public void shouldCountVeryLongLatenciesInLastBucket()
+    {
+        recorder.record(Long.MAX_VALUE / 2);
+
+        assertThat(recorder.getValueAtPercentile(100.0), is(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void shouldRecordOnlySampledSequencesInBatch()
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        recorder.onBatch(1L, 1L);
+        assertThat(recorder.getCount(), is(0L));
+
+        recorder.onBatch(0L, 4L);
+        assertThat(recorder.getCount(), is(3L));
+    }
+
+    @Test
+    public void shouldRecordLatencyOfEachStageOfProcessor() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), new EventHandler<StubEvent>()
+            {
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                }
+            });
+        processor.setLatencyRecorder(recorder);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        for (int i = 0; i < 10; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        while (processor.getSequence().get() < 9L)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertThat(recorder.getCount(), is(5L));
+        assertTrue(recorder.getMaxNanos() > 0L);
+
+        recorder.reset();
+
+        assertThat(recorder.getCount(), is(0L));
+        assertThat(recorder.getValueAtPercentile(99.0), is(0L));
+    }
+
+    @Test
+    public void shouldRecordBatchBeforeReleasingItToTheProducer() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), new EventHandler<StubEvent>()
+            {
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                }
+            });
+        processor.setLatencyRecorder(recorder);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        for (long sequence = 0; sequence < 64; sequence++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+            while (processor.getSequence().get() < sequence)
+            {
+                Thread.yield();
+            }
+
+            // the producer may overwrite the publish time as soon as the sequence is released
+            assertThat(recorder.getCount(), is(sequence / 2 + 1));
+        }
+        processor.halt();
+        thread.join();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LatencySamplerTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+
+    @Test
+    public void shouldStampOnlySampledSequences()
+    {
+        final LatencySampler sampler = ringBuffer.enableLatencySampling(4);
+
+        final long before = System.nanoTime();
+        for (int i = 0; i < 6; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+        final long after = System.nanoTime();
+
+        assertThat(sampler.getSampleInterval(), is(4));
+        assertStampedBetween(sampler, 0L, before, after);
+        assertStampedBetween(sampler, 4L, before, after);
+        assertThat(sampler.getPublishTime(8L), is(0L));
+    }
+
+    @Test
+    public void shouldStampEventsPublishedWithTranslators()
+    {
+        final LatencySampler sampler = ringBuffer.enableLatencySampling(2);
+
+        final long before = System.nanoTime();
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "a");
+        ringBuffer.publishEvents(StubEvent.TRANSLATOR, new Integer[]{1, 2, 3}, new String[]{"b", "c", "d"});
+        final long after = System.nanoTime();
+
+        assertStampedBetween(sampler, 0L, before, after);
+        assertStampedBetween(sampler, 2L, before, after);
+    }
+
+    @Test
+    public void shouldStampSampledSequencesInPublishedRange()
+    {
+        final LatencySampler sampler = ringBuffer.enableLatencySampling(4);
+
+        final long before = System.nanoTime();
+        final long hi = ringBuffer.next(10);
+        ringBuffer.publish(hi - 9, hi);
+        final long after = System.nanoTime();
+
+        assertStampedBetween(sampler, 0L, before, after);
+        assertStampedBetween(sampler, 4L, before, after);
+        assertStampedBetween(sampler, 8L, before, after);
+        assertThat(sampler.getPublishTime(12L), is(0L));
+    }
+
+    @Test
+    public void shouldNotStampSequencesPublishedBeforeSamplingWasEnabled()
+    {
+        ringBuffer.publish(ringBuffer.next());
+
+        final LatencySampler sampler = ringBuffer.enableLatencySampling(1);
+
+        assertThat(sampler.getPublishTime(0L), is(0L));
+    }
+
+    @Test
+    public void shouldFindFirstSampledSequence()
+    {
+        final LatencySampler sampler = new LatencySampler(16, 4);
+
+        assertThat(sampler.firstSampleFrom(0L), is(0L));
+        assertThat(sampler.firstSampleFrom(1L), is(4L));
+        assertThat(sampler.firstSampleFrom(4L), is(4L));
+        assertThat(sampler.firstSampleFrom(13L), is(16L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePowerOfTwoSampleInterval()
+    {
+        ringBuffer.enableLatencySampling(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireSampleIntervalNoLargerThanBuffer()
+    {
+        ringBuffer.enableLatencySampling(32);
+    }
+
+    private static void assertStampedBetween(
+        final LatencySampler sampler, final long sequence, final long before, final long after)
+    {
+        final long publishTime = sampler.getPublishTime(sequence);
+        assertTrue(publishTime >= before && publishTime <= after);
+    }
+}
@@ -38,4 +38,43 @@ public class MultiProducerSequencerTest
         assertThat(publisher.isAvailable(5), is(true));
         assertThat(publisher.isAvailable(6), is(false));
     }
+
+    @Test
+    public void shouldRecordOneStallPerClaimWhenProducersRaceForCapacity() throws Exception
+    {
+        final MultiProducerSequencer sequencer = new MultiProducerSequencer(4, new BlockingWaitStrategy());
+        final Sequence gatingSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final ProducerStallMetrics metrics = new ProducerStallMetrics();
+        sequencer.addGatingSequences(gatingSequence);
+        sequencer.setStallMetrics(metrics);
+        sequencer.publish(0, sequencer.next(4));
+
+        final Runnable producer = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                sequencer.publish(sequencer.next());
+            }
+        };
+        final Thread first = new Thread(producer);
+        final Thread second = new Thread(producer);
+        first.start();
+        second.start();
+
+        Thread.sleep(10);
+        gatingSequence.set(0L);
+        while (sequencer.getCursor() < 4L)
+        {
+            Thread.yield();
+        }
+        // the producer that lost the race for sequence 4 keeps stalling on its retried claim
+        Thread.sleep(10);
+        gatingSequence.set(1L);
+        first.join();
+        second.join();
+
+        assertThat(sequencer.getCursor(), is(5L));
+        assertThat(metrics.getStallCount(), is(2L));
+    }
 }
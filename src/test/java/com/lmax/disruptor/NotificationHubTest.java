@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class NotificationHubTest
+{
+    private final NotificationHub hub = new NotificationHub(10, TimeUnit.SECONDS);
+
+    @Test
+    public void shouldWakeConsumerWaitingOnChannel() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16, hub.newChannel());
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    barrier.waitFor(0);
+                    done.countDown();
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        consumer.start();
+
+        ringBuffer.publish(ringBuffer.next());
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldWakeIdleThreadOnlyForChannelsItIsInterestedIn() throws Exception
+    {
+        final NotificationHub.Channel interesting = hub.newChannel();
+        final NotificationHub.Channel other = hub.newChannel();
+        final IdleStrategy idleStrategy = hub.newIdleStrategy(interesting);
+        final AtomicInteger wakeUps = new AtomicInteger();
+        final Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                idleStrategy.reset();
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    idleStrategy.idle(0);
+                    wakeUps.incrementAndGet();
+                }
+            }
+        });
+        thread.start();
+        awaitParked(thread);
+
+        other.signalAllWhenBlocking();
+        Thread.sleep(50);
+        assertThat(wakeUps.get(), is(0));
+
+        interesting.signalAllWhenBlocking();
+        while (wakeUps.get() == 0)
+        {
+            Thread.yield();
+        }
+
+        thread.interrupt();
+        thread.join(2000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    public void shouldNotParkIfSignalledDuringTheDutyCycle()
+    {
+        final NotificationHub.Channel channel = hub.newChannel();
+        final IdleStrategy idleStrategy = hub.newIdleStrategy(channel);
+        idleStrategy.reset();
+
+        channel.signalAllWhenBlocking();
+
+        final long start = System.nanoTime();
+        idleStrategy.idle(0);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertThat(channel.getSignalCount(), is(1L));
+    }
+
+    @Test
+    public void shouldHostProcessorsForSeveralRingBuffersOnOneIdleThread() throws Exception
+    {
+        final NotificationHub.Channel channelOne = hub.newChannel();
+        final NotificationHub.Channel channelTwo = hub.newChannel();
+        final RingBuffer<StubEvent> ringBufferOne =
+            RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16, channelOne);
+        final RingBuffer<StubEvent> ringBufferTwo =
+            RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 16, channelTwo);
+        final CountDownLatch latch = new CountDownLatch(2);
+        final BatchEventProcessor<StubEvent> processorOne =
+            new BatchEventProcessor<>(ringBufferOne, ringBufferOne.newBarrier(), new CountingHandler(latch));
+        final BatchEventProcessor<StubEvent> processorTwo =
+            new BatchEventProcessor<>(ringBufferTwo, ringBufferTwo.newBarrier(), new CountingHandler(latch));
+        ringBufferOne.addGatingSequences(processorOne.getSequence());
+        ringBufferTwo.addGatingSequences(processorTwo.getSequence());
+
+        final AgentRunner agentRunner =
+            new AgentRunner(hub.newIdleStrategy(channelOne, channelTwo), processorOne, processorTwo);
+        final Thread thread = new Thread(agentRunner);
+        thread.start();
+        awaitParked(thread);
+
+        ringBufferOne.publish(ringBufferOne.next());
+        ringBufferTwo.publish(ringBufferTwo.next());
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        agentRunner.halt();
+        channelOne.signalAllWhenBlocking();
+        thread.join(2000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectChannelsOfAnotherHub()
+    {
+        hub.newIdleStrategy(new NotificationHub().newChannel());
+    }
+
+    @Test
+    public void shouldRemoveUnsubscribedIdleStrategiesFromTheirChannels()
+    {
+        final NotificationHub.Channel channelOne = hub.newChannel();
+        final NotificationHub.Channel channelTwo = hub.newChannel();
+        final IdleStrategy first = hub.newIdleStrategy(channelOne, channelTwo);
+        final IdleStrategy second = hub.newIdleStrategy(channelOne);
+
+        hub.unsubscribe(first);
+
+        assertThat(channelOne.getSubscriberCount(), is(1));
+        assertThat(channelTwo.getSubscriberCount(), is(0));
+
+        hub.unsubscribe(second);
+        hub.unsubscribe(second);
+
+        assertThat(channelOne.getSubscriberCount(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsubscribingIdleStrategiesOfAnotherHub()
+    {
+        final NotificationHub other = new NotificationHub();
+        hub.unsubscribe(other.newIdleStrategy(other.newChannel()));
+    }
+
+    private static void awaitParked(final Thread thread)
+    {
+        while (thread.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.yield();
+        }
+    }
+
+    private static final class CountingHandler implements EventHandler<StubEvent>
+    {
+        private final CountDownLatch latch;
+
+        CountingHandler(final CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            latch.countDown();
+        }
+    }
+}
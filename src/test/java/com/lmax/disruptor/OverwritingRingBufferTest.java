@@ -0,0 +1,178 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class OverwritingRingBufferTest
+{
+    private static final EventFactory<LongEvent> FACTORY = new EventFactory<LongEvent>()
+    {
+        @Override
+        public LongEvent newInstance()
+        {
+            return new LongEvent();
+        }
+    };
+
+    private static final EventTranslatorOneArg<LongEvent, Long> TRANSLATOR =
+        new EventTranslatorOneArg<LongEvent, Long>()
+        {
+            @Override
+            public void translateTo(final LongEvent event, final long sequence, final Long value)
+            {
+                event.set(value);
+            }
+        };
+
+    private static final EventCopier<LongEvent> COPIER = new EventCopier<LongEvent>()
+    {
+        @Override
+        public void copy(final LongEvent source, final LongEvent destination)
+        {
+            destination.set(source.get());
+        }
+    };
+
+    private final OverwritingRingBuffer<LongEvent> ringBuffer = OverwritingRingBuffer.create(FACTORY, 16);
+    private final List<Long> values = new ArrayList<>();
+    private final List<Boolean> endOfBatches = new ArrayList<>();
+    private final EventPoller.Handler<LongEvent> handler = new EventPoller.Handler<LongEvent>()
+    {
+        @Override
+        public boolean onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+        {
+            values.add(event.get());
+            endOfBatches.add(endOfBatch);
+            return true;
+        }
+    };
+
+    @Test
+    public void shouldReadPublishedEventsInOrder() throws Exception
+    {
+        final OverwritingRingBuffer.Reader<LongEvent> reader = ringBuffer.newReader(COPIER);
+
+        for (long i = 0; i < 3; i++)
+        {
+            ringBuffer.publishEvent(TRANSLATOR, i * 10);
+        }
+
+        assertThat(reader.poll(handler, 10), is(3));
+        assertThat(values, is(asList(0L, 10L, 20L)));
+        assertThat(endOfBatches, is(asList(false, false, true)));
+        assertThat(reader.getLostCount(), is(0L));
+        assertThat(reader.poll(handler, 10), is(0));
+    }
+
+    @Test
+    public void shouldSkipAheadAndCountLostEventsWhenLapped() throws Exception
+    {
+        final OverwritingRingBuffer.Reader<LongEvent> reader = ringBuffer.newReader(COPIER);
+
+        for (long i = 0; i < 40; i++)
+        {
+            ringBuffer.publishEvent(TRANSLATOR, i);
+        }
+
+        assertThat(reader.poll(handler, 100), is(16));
+        assertThat(values.get(0), is(24L));
+        assertThat(values.get(15), is(39L));
+        assertThat(reader.getLostCount(), is(24L));
+        assertThat(reader.getNextSequence(), is(40L));
+    }
+
+    @Test
+    public void shouldNotReadClaimedButUnpublishedEvents() throws Exception
+    {
+        final OverwritingRingBuffer.Reader<LongEvent> reader = ringBuffer.newReader(COPIER);
+
+        final long claimed = ringBuffer.next();
+        ringBuffer.publishEvent(TRANSLATOR, 7L);
+
+        assertThat(reader.poll(handler, 10), is(0));
+
+        ringBuffer.get(claimed).set(3L);
+        ringBuffer.publish(claimed);
+
+        assertThat(reader.poll(handler, 10), is(2));
+        assertThat(values, is(asList(3L, 7L)));
+    }
+
+    @Test
+    public void shouldDiscardACopyTornByAProducerLappingTheReader() throws Exception
+    {
+        final OverwritingRingBuffer.Reader<LongEvent> reader = ringBuffer.newReader(
+            new EventCopier<LongEvent>()
+            {
+                private boolean lapped;
+
+                @Override
+                public void copy(final LongEvent source, final LongEvent destination)
+                {
+                    destination.set(source.get());
+                    if (!lapped)
+                    {
+                        lapped = true;
+                        for (long i = 0; i < 16; i++)
+                        {
+                            ringBuffer.publishEvent(TRANSLATOR, 100 + i);
+                        }
+                    }
+                }
+            });
+
+        ringBuffer.publishEvent(TRANSLATOR, 1L);
+
+        assertThat(reader.poll(handler, 100), is(16));
+        assertThat(values.get(0), is(100L));
+        assertThat(reader.getLostCount(), is(1L));
+    }
+
+    @Test
+    public void shouldStopPollingWhenTheHandlerReturnsFalse() throws Exception
+    {
+        final OverwritingRingBuffer.Reader<LongEvent> reader = ringBuffer.newReader(COPIER);
+        ringBuffer.publishEvent(TRANSLATOR, 1L);
+        ringBuffer.publishEvent(TRANSLATOR, 2L);
+
+        final EventPoller.Handler<LongEvent> once = new EventPoller.Handler<LongEvent>()
+        {
+            @Override
+            public boolean onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+            {
+                return false;
+            }
+        };
+
+        assertThat(reader.poll(once, 10), is(1));
+        assertThat(reader.getNextSequence(), is(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePowerOfTwoBufferSize()
+    {
+        OverwritingRingBuffer.create(FACTORY, 10);
+    }
+}
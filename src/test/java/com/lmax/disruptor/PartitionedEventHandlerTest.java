@@ -0,0 +1,210 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public final class PartitionedEventHandlerTest
+{
+    private static final KeyExtractor<StubEvent> KEY_EXTRACTOR = new KeyExtractor<StubEvent>()
+    {
+        @Override
+        public long getKey(final StubEvent event)
+        {
+            return event.getValue();
+        }
+    };
+
+    private final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void shouldOnlyPassEventsOfItsOwnPartitionWithEndOfBatchOnLastOne() throws Exception
+    {
+        final int partition = PartitionedEventHandler.partitionFor(7L, 2);
+        final int otherKey = keyInOtherPartitionThan(partition);
+        final PartitionedEventHandler<StubEvent> handler =
+            new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, partition, 2, new RecordingHandler());
+
+        processBatch(handler, 7, otherKey, 7, otherKey);
+
+        assertThat(calls, is(asList("0:false", "2:true")));
+    }
+
+    @Test
+    public void shouldDeliverLastEventOfBatchImmediatelyWhenItIsOwned() throws Exception
+    {
+        final PartitionedEventHandler<StubEvent> handler =
+            new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, 0, 1, new RecordingHandler());
+
+        processBatch(handler, 1, 2);
+        processBatch(handler, 3);
+
+        assertThat(calls, is(asList("0:false", "1:true", "2:true")));
+    }
+
+    @Test
+    public void shouldPassEachEventOnBeforeTheNextIsProcessed() throws Exception
+    {
+        final int partition = PartitionedEventHandler.partitionFor(7L, 2);
+        final int otherKey = keyInOtherPartitionThan(partition);
+        final PartitionedEventHandler<StubEvent> handler =
+            new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, partition, 2, new RecordingHandler());
+        publish(7, 7, otherKey);
+
+        handler.onBatchStart(3);
+        handler.onEvent(ringBuffer.get(0), 0, false);
+        assertThat(calls, is(asList("0:false")));
+
+        handler.onEvent(ringBuffer.get(1), 1, false);
+        assertThat(calls, is(asList("0:false", "1:true")));
+    }
+
+    @Test
+    public void shouldFallBackToTheProcessorsEndOfBatchWithoutBatchSizes() throws Exception
+    {
+        final int partition = PartitionedEventHandler.partitionFor(7L, 2);
+        final int otherKey = keyInOtherPartitionThan(partition);
+        final PartitionedEventHandler<StubEvent> handler =
+            new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, partition, 2, new RecordingHandler());
+        publish(7, 7, otherKey);
+
+        handler.onEvent(ringBuffer.get(0), 0, false);
+        handler.onEvent(ringBuffer.get(1), 1, true);
+        handler.onEvent(ringBuffer.get(2), 2, true);
+
+        assertThat(calls, is(asList("0:false", "1:true")));
+    }
+
+    @Test
+    public void shouldSpreadKeysOverAllPartitions()
+    {
+        final boolean[] used = new boolean[4];
+        for (long key = 0; key < 64; key++)
+        {
+            final int partition = PartitionedEventHandler.partitionFor(key, used.length);
+            used[partition] = true;
+            assertThat(PartitionedEventHandler.partitionFor(key, used.length), is(partition));
+        }
+
+        assertThat(used[0] && used[1] && used[2] && used[3], is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPartitionOutOfRange()
+    {
+        new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, 2, 2, new RecordingHandler());
+    }
+
+    @Test
+    public void shouldPassTheSequenceCallbackToTheDelegate()
+    {
+        final Sequence sequenceCallback = new Sequence();
+        final SequenceReportingHandler delegate = new SequenceReportingHandler();
+        final PartitionedEventHandler<StubEvent> handler =
+            new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, 0, 2, delegate);
+
+        handler.setSequenceCallback(sequenceCallback);
+
+        assertThat(delegate.sequenceCallback, is(sameInstance(sequenceCallback)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBatchStartAwareDelegate()
+    {
+        new PartitionedEventHandler<>(ringBuffer, KEY_EXTRACTOR, 0, 2, new BatchStartAwareHandler());
+    }
+
+    private void processBatch(final PartitionedEventHandler<StubEvent> handler, final int... keys) throws Exception
+    {
+        final long first = ringBuffer.getCursor() + 1;
+        publish(keys);
+
+        handler.onBatchStart(keys.length);
+        for (long sequence = first; sequence <= ringBuffer.getCursor(); sequence++)
+        {
+            handler.onEvent(ringBuffer.get(sequence), sequence, sequence == ringBuffer.getCursor());
+        }
+    }
+
+    private void publish(final int... keys)
+    {
+        for (final int key : keys)
+        {
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).setValue(key);
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private static int keyInOtherPartitionThan(final int partition)
+    {
+        int key = 0;
+        while (PartitionedEventHandler.partitionFor(key, 2) == partition)
+        {
+            key++;
+        }
+
+        return key;
+    }
+
+    private final class RecordingHandler implements EventHandler<StubEvent>
+    {
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            calls.add(sequence + ":" + endOfBatch);
+        }
+    }
+
+    private static final class SequenceReportingHandler implements SequenceReportingEventHandler<StubEvent>
+    {
+        private Sequence sequenceCallback;
+
+        @Override
+        public void setSequenceCallback(final Sequence sequenceCallback)
+        {
+            this.sequenceCallback = sequenceCallback;
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+        }
+    }
+
+    private static final class BatchStartAwareHandler implements EventHandler<StubEvent>, BatchStartAware
+    {
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+        }
+    }
+}
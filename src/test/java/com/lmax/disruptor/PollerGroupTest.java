@@ -0,0 +1,189 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PollerGroupTest
+{
+    private final RingBuffer<LongEvent> ringBufferOne = RingBuffer.createSingleProducer(LongEvent.FACTORY, 16);
+    private final RingBuffer<LongEvent> ringBufferTwo = RingBuffer.createSingleProducer(LongEvent.FACTORY, 16);
+    private final EventPoller<LongEvent> pollerOne = ringBufferOne.newPoller();
+    private final EventPoller<LongEvent> pollerTwo = ringBufferTwo.newPoller();
+    private final List<Long> handled = new ArrayList<>();
+
+    {
+        ringBufferOne.addGatingSequences(pollerOne.getSequence());
+        ringBufferTwo.addGatingSequences(pollerTwo.getSequence());
+    }
+
+    @Test
+    public void shouldBoundEventsHandledPerPollerInEachCycle() throws Exception
+    {
+        final PollerGroup pollerGroup = new PollerGroup(new BackoffIdleStrategy(), 2);
+        pollerGroup.add(pollerOne, new RecordingHandler(0));
+        pollerGroup.add(pollerTwo, new RecordingHandler(100));
+
+        publish(ringBufferOne, 5);
+        publish(ringBufferTwo, 1);
+
+        assertThat(pollerGroup.poll(), is(3));
+        assertThat(pollerGroup.poll(), is(2));
+        assertThat(pollerGroup.poll(), is(1));
+        assertThat(pollerGroup.poll(), is(0));
+
+        assertThat(handled.size(), is(6));
+        assertThat(pollerOne.getSequence().get(), is(4L));
+        assertThat(pollerTwo.getSequence().get(), is(0L));
+    }
+
+    @Test
+    public void shouldRotateTheFirstPollerBetweenCycles() throws Exception
+    {
+        final PollerGroup pollerGroup = new PollerGroup(new BackoffIdleStrategy(), 1);
+        pollerGroup.add(pollerOne, new RecordingHandler(0));
+        pollerGroup.add(pollerTwo, new RecordingHandler(100));
+
+        publish(ringBufferOne, 2);
+        publish(ringBufferTwo, 2);
+
+        pollerGroup.poll();
+        pollerGroup.poll();
+
+        assertThat(handled.get(0), is(0L));
+        assertThat(handled.get(1), is(100L));
+        assertThat(handled.get(2), is(101L));
+        assertThat(handled.get(3), is(1L));
+    }
+
+    @Test
+    public void shouldServiceManyRingBuffersFromOneThread() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(20);
+        final PollerGroup pollerGroup = new PollerGroup(new BackoffIdleStrategy(), 4);
+        pollerGroup.add(pollerOne, (event, sequence, endOfBatch) ->
+        {
+            latch.countDown();
+            return true;
+        });
+        pollerGroup.add(pollerTwo, (event, sequence, endOfBatch) ->
+        {
+            latch.countDown();
+            return true;
+        });
+
+        final Thread thread = new Thread(pollerGroup);
+        thread.start();
+
+        publish(ringBufferOne, 10);
+        publish(ringBufferTwo, 10);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        pollerGroup.halt();
+        thread.join();
+    }
+
+    @Test
+    public void shouldPassExceptionsToHandlerAndSkipFailedEventWhenRunning() throws Exception
+    {
+        final CountDownLatch exceptionLatch = new CountDownLatch(1);
+        final CountDownLatch eventLatch = new CountDownLatch(1);
+        final PollerGroup pollerGroup = new PollerGroup(new BackoffIdleStrategy(), 4);
+        pollerGroup.add(pollerOne, (event, sequence, endOfBatch) ->
+        {
+            if (sequence == 0)
+            {
+                throw new IllegalStateException();
+            }
+            eventLatch.countDown();
+            return true;
+        });
+        pollerGroup.setExceptionHandler(new ExceptionHandler<Object>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final Object event)
+            {
+                assertThat(sequence, is(0L));
+                exceptionLatch.countDown();
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+
+        publish(ringBufferOne, 2);
+
+        final Thread thread = new Thread(pollerGroup);
+        thread.start();
+
+        assertTrue(exceptionLatch.await(2, TimeUnit.SECONDS));
+        assertTrue(eventLatch.await(2, TimeUnit.SECONDS));
+
+        pollerGroup.halt();
+        thread.join();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveMaxEventsPerPoll()
+    {
+        new PollerGroup(new BackoffIdleStrategy(), 0);
+    }
+
+    private static void publish(final RingBuffer<LongEvent> ringBuffer, final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).set(sequence);
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private class RecordingHandler implements EventPoller.Handler<LongEvent>
+    {
+        private final long offset;
+
+        RecordingHandler(final long offset)
+        {
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+        {
+            handled.add(offset + event.get());
+            return true;
+        }
+    }
+}
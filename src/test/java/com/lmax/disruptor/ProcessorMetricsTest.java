@@ -0,0 +1,138 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class ProcessorMetricsTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+    private final ProcessorMetrics metrics = new ProcessorMetrics(ringBuffer);
+
+    @Test
+    public void shouldRecordBatchesProcessedOnItsOwnThread() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final BatchEventProcessor<StubEvent> processor = newProcessor(latch);
+        processor.setMetrics(metrics);
+
+        publish(5);
+        final Thread thread = new Thread(processor);
+        thread.start();
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        processor.halt();
+        thread.join();
+
+        assertThat(metrics.getBatchCount(), is(1L));
+        assertThat(metrics.getEventCount(), is(5L));
+        assertThat(metrics.getBatchSizeCount(2), is(1L));
+        assertThat(metrics.getMeanBatchSize(), is(5.0));
+        assertThat(metrics.getLag(), is(0L));
+        assertTrue(metrics.getHandlerNanos() >= 0L);
+        assertTrue(metrics.getWaitNanos() >= 0L);
+    }
+
+    @Test
+    public void shouldRecordBatchesProcessedByDoWork() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> processor = newProcessor(new CountDownLatch(0));
+        processor.setMetrics(metrics);
+        processor.onStart();
+
+        publish(3);
+        processor.doWork();
+        publish(1);
+        processor.doWork();
+        processor.doWork();
+        processor.onShutdown();
+
+        assertThat(metrics.getBatchCount(), is(2L));
+        assertThat(metrics.getEventCount(), is(4L));
+        assertThat(metrics.getBatchSizeCount(0), is(1L));
+        assertThat(metrics.getBatchSizeCount(1), is(1L));
+        assertThat(metrics.getWaitNanos(), is(0L));
+    }
+
+    @Test
+    public void shouldReportLagBehindTheCursor()
+    {
+        final BatchEventProcessor<StubEvent> processor = newProcessor(new CountDownLatch(0));
+
+        assertThat(metrics.getLag(), is(0L));
+
+        processor.setMetrics(metrics);
+        publish(4);
+
+        assertThat(metrics.getLag(), is(4L));
+    }
+
+    @Test
+    public void shouldClearCountersOnReset() throws Exception
+    {
+        final BatchEventProcessor<StubEvent> processor = newProcessor(new CountDownLatch(0));
+        processor.setMetrics(metrics);
+        processor.onStart();
+        publish(2);
+        processor.doWork();
+        processor.onShutdown();
+
+        metrics.reset();
+
+        assertThat(metrics.getBatchCount(), is(0L));
+        assertThat(metrics.getEventCount(), is(0L));
+        assertThat(metrics.getBatchSizeCount(1), is(0L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotShareMetricsBetweenProcessors()
+    {
+        newProcessor(new CountDownLatch(0)).setMetrics(metrics);
+        newProcessor(new CountDownLatch(0)).setMetrics(metrics);
+    }
+
+    private BatchEventProcessor<StubEvent> newProcessor(final CountDownLatch latch)
+    {
+        final BatchEventProcessor<StubEvent> processor =
+            new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), new EventHandler<StubEvent>()
+            {
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                    latch.countDown();
+                }
+            });
+        ringBuffer.addGatingSequences(processor.getSequence());
+        return processor;
+    }
+
+    private void publish(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class ProducerStallMetricsTest
+{
+    private static final int BUFFER_SIZE = 4;
+
+    private final RingBuffer<Object> ringBuffer;
+    private final ProducerStallMetrics metrics = new ProducerStallMetrics();
+    private final Sequence slowSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final Sequence fastSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    public ProducerStallMetricsTest(final ProducerType producerType)
+    {
+        ringBuffer = RingBuffer.create(producerType, new EventFactory<Object>()
+        {
+            @Override
+            public Object newInstance()
+            {
+                return new Object();
+            }
+        }, BUFFER_SIZE, new BlockingWaitStrategy());
+        ringBuffer.addGatingSequences(fastSequence, slowSequence);
+        fastSequence.set(BUFFER_SIZE - 1);
+        ringBuffer.setStallMetrics(metrics);
+    }
+
+    @Parameters
+    public static Collection<Object[]> generateData()
+    {
+        return Arrays.asList(new Object[][]{{ProducerType.SINGLE}, {ProducerType.MULTI}});
+    }
+
+    @Test
+    public void shouldNotRecordClaimsThatDoNotWrap()
+    {
+        fillRingBuffer();
+
+        assertThat(metrics.getStallCount(), is(0L));
+        assertThat(metrics.getParkedNanos(), is(0L));
+        assertThat(metrics.getGatingSequences().length, is(0));
+        assertThat(metrics.getLastGatingSequence(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRecordStallAgainstTheMinimumGatingSequence() throws Exception
+    {
+        fillRingBuffer();
+
+        final AtomicLong claimed = new AtomicLong(-1L);
+        final Thread producer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                claimed.set(ringBuffer.next());
+            }
+        });
+        producer.start();
+
+        Thread.sleep(10);
+        assertThat(claimed.get(), is(-1L));
+        slowSequence.set(0L);
+        producer.join();
+
+        assertThat(claimed.get(), is((long) BUFFER_SIZE));
+        assertThat(metrics.getStallCount(), is(1L));
+        assertTrue(metrics.getParkedNanos() > 0L);
+        assertThat(metrics.getLastGatingSequence(), is(sameInstance(slowSequence)));
+        assertThat(metrics.getGatingSequences(), is(new Sequence[]{slowSequence}));
+        assertThat(metrics.getStallCount(slowSequence), is(1L));
+        assertThat(metrics.getParkedNanos(slowSequence), is(metrics.getParkedNanos()));
+        assertThat(metrics.getStallCount(fastSequence), is(0L));
+        assertThat(stallTimeCountTotal(), is(1L));
+    }
+
+    @Test
+    public void shouldAttributeStallsToEachGatingSequence()
+    {
+        metrics.onStall(slowSequence, 100L);
+        metrics.onStall(fastSequence, 1000L);
+        metrics.onStall(slowSequence, 10L);
+
+        assertThat(metrics.getStallCount(), is(3L));
+        assertThat(metrics.getParkedNanos(), is(1110L));
+        assertThat(metrics.getStallCount(slowSequence), is(2L));
+        assertThat(metrics.getParkedNanos(slowSequence), is(110L));
+        assertThat(metrics.getStallCount(fastSequence), is(1L));
+        assertThat(metrics.getLastGatingSequence(), is(sameInstance(slowSequence)));
+        assertThat(metrics.getStallTimeCount(3), is(1L));
+        assertThat(metrics.getStallTimeCount(6), is(1L));
+        assertThat(metrics.getStallTimeCount(9), is(1L));
+
+        metrics.reset();
+
+        assertThat(metrics.getStallCount(), is(0L));
+        assertThat(metrics.getStallCount(slowSequence), is(0L));
+        assertThat(stallTimeCountTotal(), is(0L));
+    }
+
+    @Test
+    public void shouldFindMinimumSequence()
+    {
+        assertThat(ProducerStallMetrics.minimumSequence(new Sequence[]{fastSequence, slowSequence}),
+            is(sameInstance(slowSequence)));
+        assertThat(ProducerStallMetrics.minimumSequence(new Sequence[0]), is(nullValue()));
+    }
+
+    private void fillRingBuffer()
+    {
+        for (int i = 0; i < BUFFER_SIZE; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+    }
+
+    private long stallTimeCountTotal()
+    {
+        long total = 0L;
+        for (int i = 0; i < ProducerStallMetrics.STALL_TIME_BUCKETS; i++)
+        {
+            total += metrics.getStallTimeCount(i);
+        }
+
+        return total;
+    }
+}
@@ -23,7 +23,7 @@ public class SequencerTest
     private static final int BUFFER_SIZE = 16;
     private final ExecutorService executor = Executors.newSingleThreadExecutor(DaemonThreadFactory.INSTANCE);
 
-    private final Sequencer sequencer;
+    private final AbstractSequencer sequencer;
     private final Sequence gatingSequence = new Sequence();
     private final ProducerType producerType;
 
@@ -265,7 +265,41 @@ public class SequencerTest
         sequencer.tryNext(0);
     }
 
-    private Sequencer newProducer(ProducerType producerType, int bufferSize, WaitStrategy waitStrategy)
+    @Test
+    public void shouldSignalWaitStrategiesGivenToBarriersWhenPublishing()
+    {
+        final DummyWaitStrategy barrierWaitStrategy = new DummyWaitStrategy();
+        sequencer.newBarrier(barrierWaitStrategy);
+        sequencer.newBarrier(barrierWaitStrategy, gatingSequence);
+
+        sequencer.publish(sequencer.next());
+        sequencer.publish(sequencer.next());
+
+        assertThat(barrierWaitStrategy.signalAllWhenBlockingCalls, is(2));
+    }
+
+    @Test
+    public void shouldNotSignalNonSignallingWaitStrategiesGivenToBarriers()
+    {
+        final DummyWaitStrategy barrierWaitStrategy = new NonSignallingDummyWaitStrategy();
+        sequencer.newBarrier(barrierWaitStrategy);
+
+        sequencer.publish(sequencer.next());
+
+        assertThat(barrierWaitStrategy.signalAllWhenBlockingCalls, is(0));
+    }
+
+    @Test
+    public void shouldWaitUsingTheBarriersOwnWaitStrategy() throws Exception
+    {
+        final SequenceBarrier barrier = sequencer.newBarrier(new BusySpinWaitStrategy());
+
+        sequencer.publish(sequencer.next());
+
+        assertThat(barrier.waitFor(0), is(0L));
+    }
+
+    private AbstractSequencer newProducer(ProducerType producerType, int bufferSize, WaitStrategy waitStrategy)
     {
         switch (producerType)
         {
@@ -277,4 +311,8 @@ public class SequencerTest
                 throw new IllegalStateException(producerType.toString());
         }
     }
+
+    private static final class NonSignallingDummyWaitStrategy extends DummyWaitStrategy implements NonSignallingWaitStrategy
+    {
+    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TargetedBlockingWaitStrategyTest
+{
+    private final TargetedBlockingWaitStrategy waitStrategy = new TargetedBlockingWaitStrategy();
+
+    @Test
+    public void shouldReturnWithoutRegisteringWhenSequenceIsAvailable() throws Exception
+    {
+        final Sequence cursor = new Sequence(5);
+
+        assertThat(waitStrategy.waitFor(3, cursor, cursor, new DummySequenceBarrier()), is(5L));
+        assertThat(waitStrategy.getWaiterCount(), is(0));
+    }
+
+    @Test
+    public void shouldWakeOnlyWaitersWhoseSequenceIsPublished() throws Exception
+    {
+        final Sequence cursor = new Sequence(-1);
+        final AtomicLong firstResult = new AtomicLong(-1);
+        final AtomicLong secondResult = new AtomicLong(-1);
+        final Thread first = startWaiter(0, cursor, firstResult);
+        final Thread second = startWaiter(5, cursor, secondResult);
+        awaitWaiters(2);
+
+        cursor.set(0);
+        waitStrategy.signalAllWhenBlocking();
+        first.join(2000);
+
+        assertThat(firstResult.get(), is(0L));
+        assertThat(waitStrategy.getWaiterCount(), is(1));
+        assertTrue(second.isAlive());
+
+        cursor.set(5);
+        waitStrategy.signalAllWhenBlocking();
+        second.join(2000);
+
+        assertThat(secondResult.get(), is(5L));
+        assertThat(waitStrategy.getWaiterCount(), is(0));
+    }
+
+    @Test
+    public void shouldWakeConsumerWhenRingBufferPublishes() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16, waitStrategy);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final AtomicLong result = new AtomicLong(-1);
+        final Thread consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    result.set(barrier.waitFor(0));
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        consumer.start();
+        awaitWaiters(1);
+
+        ringBuffer.publish(ringBuffer.next());
+        consumer.join(2000);
+
+        assertThat(result.get(), is(0L));
+    }
+
+    @Test
+    public void shouldWakeWaiterWhenItsBarrierIsAlerted() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16, waitStrategy);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final AtomicBoolean alerted = new AtomicBoolean();
+        final Thread consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    barrier.waitFor(0);
+                }
+                catch (final AlertException e)
+                {
+                    alerted.set(true);
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        consumer.start();
+        awaitWaiters(1);
+
+        barrier.alert();
+        consumer.join(2000);
+
+        assertFalse(consumer.isAlive());
+        assertTrue(alerted.get());
+        assertThat(waitStrategy.getWaiterCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void shouldNotMissWakeupsWhenPublishingOneEventAtATimeToAParkedConsumer() throws Exception
+    {
+        final int iterations = 20000;
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16, waitStrategy);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final AtomicLong consumed = new AtomicLong(-1);
+        final Thread consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    for (long sequence = 0; sequence < iterations; sequence++)
+                    {
+                        barrier.waitFor(sequence);
+                        consumed.set(sequence);
+                    }
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+
+        for (long sequence = 0; sequence < iterations; sequence++)
+        {
+            awaitWaiters(1);
+            ringBuffer.publish(ringBuffer.next());
+            while (consumed.get() < sequence)
+            {
+                Thread.yield();
+            }
+        }
+
+        consumer.join(2000);
+        assertThat(consumed.get(), is(iterations - 1L));
+    }
+
+    private Thread startWaiter(final long sequence, final Sequence cursor, final AtomicLong result)
+    {
+        final Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    result.set(waitStrategy.waitFor(sequence, cursor, cursor, new DummySequenceBarrier()));
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitWaiters(final int count)
+    {
+        while (waitStrategy.getWaiterCount() < count)
+        {
+            Thread.yield();
+        }
+    }
+}
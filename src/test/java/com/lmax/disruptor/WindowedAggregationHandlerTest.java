@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Clock;
+import org.junit.Test;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class WindowedAggregationHandlerTest
+{
+    private final RingBuffer<Result> results = createSingleProducer(Result.FACTORY, 16);
+    private long now = 0;
+    private final WindowedAggregationHandler<Trade, Result> handler = new WindowedAggregationHandler<>(
+        Trade.READER, 1000L, 8, results, Result.TRANSLATOR, new Clock()
+        {
+            @Override
+            public long currentTime()
+            {
+                return now;
+            }
+        });
+
+    @Test
+    public void shouldPublishOneResultPerKeyWhenEventTimeCrossesWindowEnd() throws Exception
+    {
+        handler.onEvent(new Trade(1, 100, 10.0, 1.0), 0, false);
+        handler.onEvent(new Trade(2, 200, 20.0, 1.0), 1, false);
+        handler.onEvent(new Trade(1, 900, 13.0, 2.0), 2, false);
+
+        assertThat(results.getCursor(), is(-1L));
+
+        handler.onEvent(new Trade(1, 1200, 50.0, 1.0), 3, false);
+
+        assertThat(results.getCursor(), is(1L));
+        final Result first = results.get(0);
+        assertThat(first.key, is(1L));
+        assertThat(first.windowStart, is(0L));
+        assertThat(first.count, is(2L));
+        assertThat(first.min, is(10.0));
+        assertThat(first.max, is(13.0));
+        assertThat(first.weightedMean, is(12.0));
+        assertThat(results.get(1).key, is(2L));
+        assertThat(results.get(1).count, is(1L));
+        assertThat(handler.getWindowCount(), is(1L));
+    }
+
+    @Test
+    public void shouldCloseWindowFromWallClockOnTimeoutOnceIdle() throws Exception
+    {
+        handler.onEvent(new Trade(1, 100, 10.0, 1.0), 0, true);
+
+        now = 999;
+        handler.onTimeout(0);
+        assertThat(results.getCursor(), is(-1L));
+
+        now = 1000;
+        handler.onTimeout(0);
+
+        assertThat(results.getCursor(), is(0L));
+        assertThat(results.get(0).windowStart, is(0L));
+
+        handler.onEvent(new Trade(1, 1100, 11.0, 1.0), 1, false);
+        now = 2500;
+        handler.onEvent(new Trade(1, 1500, 12.0, 1.0), 2, true);
+        assertThat(results.getCursor(), is(0L));
+
+        now = 3499;
+        handler.onTimeout(2);
+        assertThat(results.getCursor(), is(0L));
+
+        now = 3500;
+        handler.onTimeout(2);
+
+        assertThat(results.getCursor(), is(1L));
+        assertThat(results.get(1).windowStart, is(1000L));
+        assertThat(results.get(1).count, is(2L));
+    }
+
+    @Test
+    public void shouldCloseWindowsByEventTimeWhenTimestampsLagTheClock() throws Exception
+    {
+        now = 100_000;
+        handler.onEvent(new Trade(1, 100, 10.0, 1.0), 0, true);
+        handler.onTimeout(0);
+        handler.onEvent(new Trade(1, 200, 11.0, 1.0), 1, true);
+        handler.onEvent(new Trade(1, 900, 12.0, 1.0), 2, true);
+
+        assertThat(results.getCursor(), is(-1L));
+
+        handler.onEvent(new Trade(1, 1100, 13.0, 1.0), 3, true);
+
+        assertThat(results.getCursor(), is(0L));
+        assertThat(results.get(0).count, is(3L));
+        assertThat(handler.getLateEventCount(), is(0L));
+    }
+
+    @Test
+    public void shouldCountEventsForKeysBeyondMaxKeysAsOverflow() throws Exception
+    {
+        for (int key = 0; key < 10; key++)
+        {
+            handler.onEvent(new Trade(key, 100, 10.0, 1.0), key, false);
+        }
+        handler.onEvent(new Trade(1, 200, 10.0, 1.0), 10, false);
+        handler.onEvent(new Trade(1, 1100, 10.0, 1.0), 11, false);
+
+        assertThat(handler.getOverflowEventCount(), is(2L));
+        assertThat(results.getCursor(), is(7L));
+        assertThat(results.get(1).count, is(2L));
+    }
+
+    @Test
+    public void shouldCountEventsForClosedWindowsAsLate() throws Exception
+    {
+        handler.onEvent(new Trade(1, 100, 10.0, 1.0), 0, false);
+        handler.onEvent(new Trade(1, 1100, 10.0, 1.0), 1, false);
+        handler.onEvent(new Trade(1, 999, 10.0, 1.0), 2, false);
+
+        assertThat(handler.getLateEventCount(), is(1L));
+        assertThat(results.getCursor(), is(0L));
+    }
+
+    private static final class Trade
+    {
+        static final WindowedAggregationHandler.EventReader<Trade> READER =
+            new WindowedAggregationHandler.EventReader<Trade>()
+            {
+                @Override
+                public long getKey(final Trade event)
+                {
+                    return event.instrument;
+                }
+
+                @Override
+                public long getTimestamp(final Trade event)
+                {
+                    return event.timestamp;
+                }
+
+                @Override
+                public double getValue(final Trade event)
+                {
+                    return event.price;
+                }
+
+                @Override
+                public double getWeight(final Trade event)
+                {
+                    return event.quantity;
+                }
+            };
+
+        private final long instrument;
+        private final long timestamp;
+        private final double price;
+        private final double quantity;
+
+        Trade(final long instrument, final long timestamp, final double price, final double quantity)
+        {
+            this.instrument = instrument;
+            this.timestamp = timestamp;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Result
+    {
+        static final EventFactory<Result> FACTORY = new EventFactory<Result>()
+        {
+            @Override
+            public Result newInstance()
+            {
+                return new Result();
+            }
+        };
+
+        static final EventTranslatorOneArg<Result, WindowedAggregationHandler.WindowAggregate> TRANSLATOR =
+            new EventTranslatorOneArg<Result, WindowedAggregationHandler.WindowAggregate>()
+            {
+                @Override
+                public void translateTo(
+                    final Result event, final long sequence, final WindowedAggregationHandler.WindowAggregate aggregate)
+                {
+                    event.key = aggregate.getKey();
+                    event.windowStart = aggregate.getWindowStart();
+                    event.count = aggregate.getCount();
+                    event.min = aggregate.getMin();
+                    event.max = aggregate.getMax();
+                    event.weightedMean = aggregate.getWeightedMean();
+                }
+            };
+
+        private long key;
+        private long windowStart;
+        private long count;
+        private double min;
+        private double max;
+        private double weightedMean;
+    }
+}
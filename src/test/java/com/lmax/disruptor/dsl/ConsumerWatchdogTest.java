@@ -0,0 +1,287 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.support.TestEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConsumerWatchdogTest
+{
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Disruptor<TestEvent> disruptor =
+        new Disruptor<>(TestEvent.EVENT_FACTORY, 16, DaemonThreadFactory.INSTANCE);
+    private final RingBuffer<TestEvent> ringBuffer = disruptor.getRingBuffer();
+    private final List<StalledConsumer> stalledConsumers = new CopyOnWriteArrayList<>();
+    private final StalledConsumerHandler recordingHandler = new StalledConsumerHandler()
+    {
+        @Override
+        public void onStalledConsumer(final StalledConsumer stalledConsumer)
+        {
+            stalledConsumers.add(stalledConsumer);
+        }
+    };
+    private final ConsumerWatchdog watchdog =
+        disruptor.newWatchdog(STALL_TIMEOUT_NANOS, TimeUnit.NANOSECONDS, recordingHandler);
+    private final GatedHandler gatedHandler = new GatedHandler();
+
+    @After
+    public void tearDown() throws Exception
+    {
+        gatedHandler.permits.release(Integer.MAX_VALUE / 2);
+        disruptor.halt();
+    }
+
+    @Test
+    public void shouldReportHungHandlerOnceWithItsThreadsStack() throws Exception
+    {
+        disruptor.handleEventsWith(gatedHandler).then(new NoOpHandler());
+        disruptor.start();
+        publish(3);
+        gatedHandler.waitUntilBlocked();
+
+        watchdog.check(0L);
+        watchdog.check(STALL_TIMEOUT_NANOS - 1);
+        assertThat(stalledConsumers.size(), is(0));
+
+        watchdog.check(STALL_TIMEOUT_NANOS);
+        watchdog.check(2 * STALL_TIMEOUT_NANOS);
+
+        assertThat(stalledConsumers.size(), is(1));
+        final StalledConsumer stalledConsumer = stalledConsumers.get(0);
+        assertThat(stalledConsumer.getName(), is("GatedHandler"));
+        assertThat(stalledConsumer.getHandler(), is(sameInstance((Object) gatedHandler)));
+        assertThat(stalledConsumer.getSequenceValue(), is(-1L));
+        assertThat(stalledConsumer.getAvailableSequence(), is(2L));
+        assertThat(stalledConsumer.getStalledNanos(), is(STALL_TIMEOUT_NANOS));
+        assertThat(stalledConsumer.getThread(), is(sameInstance(gatedHandler.thread)));
+        assertTrue(stackContains(stalledConsumer, GatedHandler.class.getName()));
+    }
+
+    @Test
+    public void shouldReportAgainOnlyAfterProgress() throws Exception
+    {
+        disruptor.handleEventsWith(gatedHandler);
+        disruptor.start();
+        publish(1);
+        gatedHandler.waitUntilBlocked();
+
+        watchdog.check(0L);
+        watchdog.check(STALL_TIMEOUT_NANOS);
+        assertThat(stalledConsumers.size(), is(1));
+
+        gatedHandler.permits.release();
+        waitForSequence(gatedHandler, 0L);
+        publish(1);
+
+        watchdog.check(2 * STALL_TIMEOUT_NANOS);
+        assertThat(stalledConsumers.size(), is(1));
+
+        watchdog.check(3 * STALL_TIMEOUT_NANOS);
+        assertThat(stalledConsumers.size(), is(2));
+        assertThat(stalledConsumers.get(1).getSequenceValue(), is(0L));
+        assertThat(stalledConsumers.get(1).getAvailableSequence(), is(1L));
+    }
+
+    @Test
+    public void shouldNotReportIdleConsumerThatHasCaughtUp()
+    {
+        final NoOpHandler handler = new NoOpHandler();
+        disruptor.handleEventsWith(handler);
+        disruptor.start();
+        publish(4);
+        waitForSequence(handler, 3L);
+
+        watchdog.check(0L);
+        watchdog.check(10 * STALL_TIMEOUT_NANOS);
+
+        assertThat(stalledConsumers.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotReportConsumerWaitingOnAClaimedButUnpublishedSequence()
+    {
+        final NoOpHandler handler = new NoOpHandler();
+        disruptor.handleEventsWith(handler);
+        disruptor.start();
+        publish(2);
+        waitForSequence(handler, 1L);
+        ringBuffer.next();
+
+        watchdog.check(0L);
+        watchdog.check(10 * STALL_TIMEOUT_NANOS);
+
+        assertThat(stalledConsumers.size(), is(0));
+    }
+
+    @Test
+    public void shouldReportHungWorkerWithItsThread() throws Exception
+    {
+        final HangingWorkHandler workHandler = new HangingWorkHandler();
+        disruptor.handleEventsWithWorkerPool(workHandler);
+        disruptor.start();
+        publish(1);
+        assertTrue(workHandler.entered.await(5, TimeUnit.SECONDS));
+        publish(1);
+
+        watchdog.check(0L);
+        watchdog.check(STALL_TIMEOUT_NANOS);
+
+        boolean foundWorker = false;
+        for (final StalledConsumer stalledConsumer : stalledConsumers)
+        {
+            if (stalledConsumer.getName().equals("WorkerPool-0"))
+            {
+                foundWorker = true;
+                assertThat(stalledConsumer.getThread(), is(sameInstance(workHandler.thread)));
+                assertThat(stalledConsumer.getHandler(), is((Object) null));
+            }
+        }
+        assertTrue(foundWorker);
+        workHandler.release.countDown();
+    }
+
+    @Test
+    public void shouldCallHandlerFromItsOwnThreadUntilHalted() throws Exception
+    {
+        final CountDownLatch reported = new CountDownLatch(1);
+        final ConsumerWatchdog runningWatchdog = disruptor.newWatchdog(
+            20, TimeUnit.MILLISECONDS, new StalledConsumerHandler()
+            {
+                @Override
+                public void onStalledConsumer(final StalledConsumer stalledConsumer)
+                {
+                    reported.countDown();
+                }
+            });
+        disruptor.handleEventsWith(gatedHandler);
+        disruptor.start();
+        publish(3);
+
+        final Thread thread = new Thread(runningWatchdog);
+        thread.start();
+
+        assertTrue(reported.await(5, TimeUnit.SECONDS));
+        runningWatchdog.halt();
+        thread.join();
+        assertFalse(runningWatchdog.isRunning());
+    }
+
+    @Test
+    public void shouldExitImmediatelyWhenHaltedBeforeRunning()
+    {
+        watchdog.halt();
+        watchdog.run();
+
+        assertFalse(watchdog.isRunning());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveStallTimeout()
+    {
+        disruptor.newWatchdog(0, TimeUnit.SECONDS, recordingHandler);
+    }
+
+    private void publish(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+    }
+
+    private void waitForSequence(final EventHandler<TestEvent> handler, final long expected)
+    {
+        while (disruptor.getSequenceValueFor(handler) < expected)
+        {
+            Thread.yield();
+        }
+    }
+
+    private static boolean stackContains(final StalledConsumer stalledConsumer, final String className)
+    {
+        for (final StackTraceElement element : stalledConsumer.getStackTrace())
+        {
+            if (element.getClassName().equals(className))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static final class GatedHandler implements EventHandler<TestEvent>
+    {
+        private final Semaphore permits = new Semaphore(0);
+        private volatile Thread thread;
+
+        @Override
+        public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            thread = Thread.currentThread();
+            permits.acquire();
+        }
+
+        void waitUntilBlocked()
+        {
+            while (null == thread || !permits.hasQueuedThreads())
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static final class HangingWorkHandler implements WorkHandler<TestEvent>
+    {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        @Override
+        public void onEvent(final TestEvent event) throws Exception
+        {
+            thread = Thread.currentThread();
+            entered.countDown();
+            release.await();
+        }
+    }
+
+    private static final class NoOpHandler implements EventHandler<TestEvent>
+    {
+        @Override
+        public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch)
+        {
+        }
+    }
+}
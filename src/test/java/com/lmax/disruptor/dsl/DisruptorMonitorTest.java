@@ -0,0 +1,125 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.stubs.StubThreadFactory;
+import com.lmax.disruptor.dsl.stubs.TestWorkHandler;
+import com.lmax.disruptor.support.TestEvent;
+import org.junit.Test;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DisruptorMonitorTest
+{
+    private final Disruptor<TestEvent> disruptor =
+        new Disruptor<>(TestEvent.EVENT_FACTORY, 16, new StubThreadFactory());
+    private final RingBuffer<TestEvent> ringBuffer = disruptor.getRingBuffer();
+    private final DisruptorMonitor monitor = disruptor.newMonitor();
+
+    @Test
+    public void shouldReportRingBufferState()
+    {
+        disruptor.handleEventsWith(new NoOpHandler());
+        publish(3);
+
+        assertThat(monitor.getBufferSize(), is(16));
+        assertThat(monitor.getCursor(), is(2L));
+        assertThat(monitor.getRemainingCapacity(), is(13L));
+        assertFalse(monitor.isStarted());
+    }
+
+    @Test
+    public void shouldReportOneEntryPerConsumerSequence()
+    {
+        disruptor.handleEventsWith(new NoOpHandler())
+            .thenHandleEventsWithWorkerPool(new TestWorkHandler(), new TestWorkHandler());
+        publish(3);
+
+        assertThat(monitor.getConsumerNames(), is(new String[]{"NoOpHandler", "WorkerPool-0", "WorkerPool-1", "WorkerPool-2"}));
+        assertThat(monitor.getConsumerSequences(), is(new long[]{-1L, -1L, -1L, -1L}));
+        assertThat(monitor.getConsumerLags(), is(new long[]{3L, 3L, 3L, 3L}));
+        assertThat(monitor.getConsumersRunning(), is(new boolean[]{false, false, false, false}));
+        assertThat(monitor.getMaximumLag(), is(3L));
+    }
+
+    @Test
+    public void shouldReportNoLagWithoutConsumers()
+    {
+        publish(2);
+
+        assertThat(monitor.getConsumerNames().length, is(0));
+        assertThat(monitor.getMaximumLag(), is(0L));
+    }
+
+    @Test
+    public void shouldRegisterWithPlatformMBeanServer() throws Exception
+    {
+        disruptor.handleEventsWith(new NoOpHandler());
+        publish(5);
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = disruptor.registerMBean("monitor-test");
+        try
+        {
+            assertTrue(server.isRegistered(objectName));
+            assertThat(objectName.getKeyProperty("type"), is("Disruptor"));
+            assertThat((Long) server.getAttribute(objectName, "Cursor"), is(4L));
+            assertThat((Long) server.getAttribute(objectName, "MaximumLag"), is(5L));
+            assertThat((Boolean) server.getAttribute(objectName, "Started"), is(false));
+
+            try
+            {
+                disruptor.registerMBean("monitor-test");
+                fail("Should not register the same name twice");
+            }
+            catch (final InstanceAlreadyExistsException expected)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    private void publish(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+    }
+
+    private static final class NoOpHandler implements EventHandler<TestEvent>
+    {
+        @Override
+        public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch)
+        {
+        }
+    }
+}
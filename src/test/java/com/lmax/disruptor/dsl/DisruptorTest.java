@@ -23,10 +23,13 @@ import com.lmax.disruptor.EventTranslator;
 import com.lmax.disruptor.EventTranslatorOneArg;
 import com.lmax.disruptor.ExceptionHandler;
 import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.KeyExtractor;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TargetedBlockingWaitStrategy;
 import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.stubs.DelayedEventHandler;
 import com.lmax.disruptor.dsl.stubs.EventHandlerStub;
 import com.lmax.disruptor.dsl.stubs.EvilEqualsEventHandler;
@@ -47,6 +50,7 @@ import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.Thread.yield;
@@ -823,6 +827,140 @@ public class DisruptorTest
         ensureTwoEventsProcessedAccordingToDependencies(countDownLatch, delayedEventHandler);
     }
 
+    @Test
+    public void shouldRunFusedLinearChainOnOneThread() throws Exception
+    {
+        final CountDownLatch countDownLatch = new CountDownLatch(3);
+        final EventHandler<TestEvent> handlerA = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerB = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerC = new EventHandlerStub<TestEvent>(countDownLatch);
+
+        disruptor.enableHandlerFusion();
+        disruptor.handleEventsWith(handlerA).then(handlerB).then(handlerC);
+
+        publishEvent();
+
+        assertTrue(countDownLatch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertThat(executor.getExecutionCount(), equalTo(1));
+
+        while (disruptor.getSequenceValueFor(handlerC) < 0L)
+        {
+            yield();
+        }
+
+        assertThat(disruptor.getSequenceValueFor(handlerA), equalTo(0L));
+        assertThat(disruptor.getSequenceValueFor(handlerB), equalTo(0L));
+    }
+
+    @Test
+    public void shouldHandleExceptionsPerStageInFusedChain() throws Exception
+    {
+        final AtomicReference<Throwable> eventHandled = new AtomicReference<Throwable>();
+        final RuntimeException testException = new RuntimeException();
+        final ExceptionThrowingEventHandler handlerA = new ExceptionThrowingEventHandler(testException);
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final EventHandler<TestEvent> handlerB = new EventHandlerStub<TestEvent>(countDownLatch);
+
+        disruptor.enableHandlerFusion();
+        disruptor.handleEventsWith(handlerA).then(handlerB);
+        disruptor.handleExceptionsFor(handlerA).with(new StubExceptionHandler(eventHandled));
+
+        publishEvent();
+
+        assertSame(testException, waitFor(eventHandled));
+        assertTrue(countDownLatch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertThat(executor.getExecutionCount(), equalTo(1));
+    }
+
+    @Test
+    public void shouldWaitWithPerHandlerWaitStrategies() throws Exception
+    {
+        final CountDownLatch countDownLatch = new CountDownLatch(2);
+        final EventHandler<TestEvent> handlerA = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerB = new EventHandlerStub<TestEvent>(countDownLatch);
+
+        disruptor.handleEventsWith(new YieldingWaitStrategy(), handlerA)
+            .then(new TargetedBlockingWaitStrategy(), handlerB);
+
+        ensureTwoEventsProcessedAccordingToDependencies(countDownLatch);
+    }
+
+    @Test
+    public void shouldNotFuseStageIntoGroupOfSeveralHandlers() throws Exception
+    {
+        final CountDownLatch countDownLatch = new CountDownLatch(3);
+        final EventHandler<TestEvent> handlerA = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerB = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerC = new EventHandlerStub<TestEvent>(countDownLatch);
+
+        disruptor.enableHandlerFusion();
+        disruptor.handleEventsWith(handlerA, handlerB).then(handlerC);
+
+        publishEvent();
+
+        assertTrue(countDownLatch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertThat(executor.getExecutionCount(), equalTo(3));
+    }
+
+    @Test
+    public void shouldNotFuseStageWithItsOwnWaitStrategy() throws Exception
+    {
+        final CountDownLatch countDownLatch = new CountDownLatch(2);
+        final EventHandler<TestEvent> handlerA = new EventHandlerStub<TestEvent>(countDownLatch);
+        final EventHandler<TestEvent> handlerB = new EventHandlerStub<TestEvent>(countDownLatch);
+
+        disruptor.enableHandlerFusion();
+        disruptor.handleEventsWith(handlerA).then(new YieldingWaitStrategy(), handlerB);
+
+        publishEvent();
+
+        assertTrue(countDownLatch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertThat(executor.getExecutionCount(), equalTo(2));
+    }
+
+    @Test
+    public void shouldProcessEachEventOnceAcrossPartitionedHandlers() throws Exception
+    {
+        final CountDownLatch countDownLatch = new CountDownLatch(4);
+        final AtomicLong[] counts = {new AtomicLong(), new AtomicLong()};
+
+        disruptor.handleEventsWithPartitioned(
+            new KeyExtractor<TestEvent>()
+            {
+                @Override
+                public long getKey(final TestEvent event)
+                {
+                    return System.identityHashCode(event);
+                }
+            },
+            new PartitionHandlerFactory<TestEvent>()
+            {
+                @Override
+                public EventHandler<? super TestEvent> createEventHandler(final int partition, final int partitionCount)
+                {
+                    return new EventHandler<TestEvent>()
+                    {
+                        @Override
+                        public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch)
+                        {
+                            counts[partition].incrementAndGet();
+                            countDownLatch.countDown();
+                        }
+                    };
+                }
+            },
+            2);
+
+        for (int i = 0; i < 4; i++)
+        {
+            publishEvent();
+        }
+
+        assertTrue(countDownLatch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertThat(executor.getExecutionCount(), equalTo(2));
+        assertThat(counts[0].get() + counts[1].get(), equalTo(4L));
+    }
+
     private TestWorkHandler createTestWorkHandler()
     {
         final TestWorkHandler testWorkHandler = new TestWorkHandler();
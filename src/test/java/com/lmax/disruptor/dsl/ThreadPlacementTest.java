@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.support.StubEvent;
+import com.lmax.disruptor.util.AffinityProvider;
+import com.lmax.disruptor.util.CpuTopology;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ThreadPlacementTest
+{
+    private final List<Integer> pinned = new ArrayList<>();
+    private final AffinityProvider recordingProvider = cpu -> pinned.add(cpu);
+
+    @Test
+    public void shouldPinProducerToFirstSlotAndConsumersInStartOrder()
+    {
+        final CpuTopology topology = CpuTopology.read();
+        final ThreadPlacement placement = new ThreadPlacement(topology, recordingProvider);
+        final Executor executor = placement.wrap(Runnable::run);
+
+        placement.pinProducer();
+        final int[] ran = new int[1];
+        executor.execute(() -> ran[0]++);
+        executor.execute(() -> ran[0]++);
+
+        assertThat(ran[0], is(2));
+        assertThat(pinned.size(), is(3));
+        assertThat(pinned.get(0), is(placement.cpuFor(0)));
+        assertThat(pinned.get(1), is(placement.cpuFor(1)));
+        assertThat(pinned.get(2), is(placement.cpuFor(2)));
+        assertThat(placement.cpuFor(topology.getCpuCount()), is(placement.cpuFor(0)));
+    }
+
+    @Test
+    public void shouldStillRunTaskWhenPinningFails()
+    {
+        final ThreadPlacement placement = new ThreadPlacement(CpuTopology.read(), cpu ->
+        {
+            throw new UnsupportedOperationException();
+        });
+
+        final int[] ran = new int[1];
+        placement.wrap(Runnable::run).execute(() -> ran[0]++);
+
+        assertThat(ran[0], is(1));
+    }
+
+    @Test
+    public void shouldOnlyPlanPlacementWithoutProvider()
+    {
+        final ThreadPlacement placement = new ThreadPlacement();
+        placement.pinProducer();
+        placement.wrap(Runnable::run).execute(() -> { });
+
+        assertThat(pinned.isEmpty(), is(true));
+        assertThat(placement.toString().contains("pinning=false"), is(true));
+        assertThat(placement.toString().contains("consumer0=cpu" + placement.cpuFor(1)), is(true));
+    }
+
+    @Test
+    public void shouldPassProcessorsOnAndPinTheirThreadWhenRun() throws Exception
+    {
+        final ThreadPlacement placement = new ThreadPlacement(CpuTopology.read(), recordingProvider);
+        final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 4);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) -> { });
+        final List<Runnable> executed = new ArrayList<>();
+
+        placement.wrap(executed::add).execute(processor);
+
+        assertThat(executed.size(), is(1));
+        assertThat(executed.get(0), sameInstance((Runnable) processor));
+        assertThat(pinned.isEmpty(), is(true));
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        while (processor.getThread() == null)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertThat(pinned.size(), is(1));
+        assertThat(pinned.get(0), is(placement.cpuFor(1)));
+        assertThat(processor.getThread(), sameInstance(thread));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public final class CpuTopologyTest
+{
+    private File root;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        root = Files.createTempDirectory("cpu-topology").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        delete(root);
+    }
+
+    @Test
+    public void shouldParseCpuLists()
+    {
+        assertThat(CpuTopology.parseCpuList("0-3,8,10-11\n").toString(), is("{0, 1, 2, 3, 8, 10, 11}"));
+        assertThat(CpuTopology.parseCpuList("").isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldOrderPhysicalCoresBeforeSiblingsWithinEachCache() throws Exception
+    {
+        write("online", "0-5");
+        cpu(0, 0, 0, "0-3");
+        cpu(1, 0, 0, "0-3");
+        cpu(2, 1, 0, "0-3");
+        cpu(3, 1, 0, "0-3");
+        cpu(4, 0, 1, "4-5");
+        cpu(5, 1, 1, "4-5");
+
+        final CpuTopology topology = CpuTopology.read(root);
+
+        assertThat(topology.isDetected(), is(true));
+        assertThat(topology.getCpuCount(), is(6));
+        assertArrayEquals(new int[]{0, 2, 1, 3, 4, 5}, topology.getPlacementOrder());
+        assertThat(topology.toString(), is("CpuTopology{detected=true, packages=2, caches=2, cores=4, cpus=6}"));
+        assertThat(topology.describe(4), is("cpu4(package=1,cache=4,core=0)"));
+    }
+
+    @Test
+    public void shouldFallBackToAvailableProcessorsWhenTopologyIsMissing()
+    {
+        final CpuTopology topology = CpuTopology.read(new File(root, "missing"));
+
+        assertThat(topology.isDetected(), is(false));
+        assertThat(topology.getCpuCount(), is(Runtime.getRuntime().availableProcessors()));
+        assertThat(topology.getPlacementOrder()[0], is(0));
+    }
+
+    private void cpu(final int id, final int coreId, final int packageId, final String llcShared) throws IOException
+    {
+        write("cpu" + id + "/topology/core_id", String.valueOf(coreId));
+        write("cpu" + id + "/topology/physical_package_id", String.valueOf(packageId));
+        write("cpu" + id + "/cache/index0/level", "1");
+        write("cpu" + id + "/cache/index0/shared_cpu_list", String.valueOf(id));
+        write("cpu" + id + "/cache/index3/level", "3");
+        write("cpu" + id + "/cache/index3/shared_cpu_list", llcShared);
+    }
+
+    private void write(final String path, final String content) throws IOException
+    {
+        final File file = new File(root, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), Collections.singletonList(content), StandardCharsets.US_ASCII);
+    }
+
+    private static void delete(final File file)
+    {
+        final File[] children = file.listFiles();
+        if (null != children)
+        {
+            for (final File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
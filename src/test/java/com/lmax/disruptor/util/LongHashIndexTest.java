@@ -0,0 +1,66 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public final class LongHashIndexTest
+{
+    @Test
+    public void shouldPutReplaceAndGetValues()
+    {
+        final LongHashIndex index = new LongHashIndex(4);
+
+        assertThat(index.put(42L, 1L), is(LongHashIndex.MISSING_VALUE));
+        assertThat(index.put(-7L, 2L), is(LongHashIndex.MISSING_VALUE));
+        assertThat(index.put(42L, 3L), is(1L));
+
+        assertThat(index.get(42L), is(3L));
+        assertThat(index.get(-7L), is(2L));
+        assertThat(index.get(5L), is(LongHashIndex.MISSING_VALUE));
+        assertThat(index.size(), is(2));
+    }
+
+    @Test
+    public void shouldForgetAllKeysOnClear()
+    {
+        final LongHashIndex index = new LongHashIndex(64);
+        for (long key = 0; key < 64; key++)
+        {
+            index.put(key * 1024, key);
+        }
+
+        index.clear();
+
+        assertThat(index.size(), is(0));
+        for (long key = 0; key < 64; key++)
+        {
+            assertThat(index.get(key * 1024), is(LongHashIndex.MISSING_VALUE));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectKeysBeyondMaxSize()
+    {
+        final LongHashIndex index = new LongHashIndex(2);
+        index.put(1L, 1L);
+        index.put(2L, 2L);
+        index.put(3L, 3L);
+    }
+}